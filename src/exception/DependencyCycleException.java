@@ -0,0 +1,7 @@
+package exception;
+
+public class DependencyCycleException extends RuntimeException {
+    public DependencyCycleException(String message) {
+        super(message);
+    }
+}
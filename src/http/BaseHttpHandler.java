@@ -4,19 +4,36 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
+import managers.TaskManager;
+import managers.TaskRecord;
+import managers.TaskWriter;
+import tasks.Task;
+import tasks.TaskType;
+import util.IntLinkedSet;
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class BaseHttpHandler {
     private final Gson gson = new GsonBuilder()
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
             .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(IntLinkedSet.class, new IntLinkedSetAdapter())
             .create();
 
 
@@ -36,6 +53,79 @@ public class BaseHttpHandler {
         }
     }
 
+    // Массив JSON пишется в ответ по одному элементу, без промежуточной строки со всем списком
+    void sendJsonStream(HttpExchange exchange, Stream<?> items) throws IOException {
+        sendJsonStream(exchange, 200, items);
+    }
+
+    void sendJsonStream(HttpExchange exchange, int statusCode, Stream<?> items) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, 0);
+        try (JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            writer.beginArray();
+            Iterator<?> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                Object item = iterator.next();
+                if (item == null) {
+                    writer.nullValue();
+                } else {
+                    gson.toJson(item, item.getClass(), writer);
+                }
+            }
+            writer.endArray();
+        }
+        exchange.close();
+    }
+
+    // Весь список записей типа. Менеджер сам решает, отдать ли задачи объектами или записями хранилища
+    void sendAll(HttpExchange exchange, TaskManager manager, TaskType type) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            writer.beginArray();
+            manager.writeAll(type, new TaskWriter() {
+                @Override
+                public void write(Task item) {
+                    gson.toJson(item, item.getClass(), writer);
+                }
+
+                @Override
+                public void write(TaskRecord record) throws IOException {
+                    TaskRecordJson.write(writer, record);
+                }
+            });
+            writer.endArray();
+        }
+        exchange.close();
+    }
+
+    // Страница по параметрам limit и after (id последней записи прошлой страницы).
+    // Возвращает false, если limit не задан и нужно отдать весь список
+    boolean sendPageIfRequested(HttpExchange exchange, PageSource source) throws IOException {
+        Map<String, String> params = getQueryParams(exchange);
+        if (!params.containsKey("limit")) {
+            return false;
+        }
+        List<?> page;
+        try {
+            int limit = Integer.parseInt(params.get("limit"));
+            int after = params.containsKey("after") ? Integer.parseInt(params.get("after")) : 0;
+            if (limit <= 0) {
+                sendBadRequest(exchange, "Некорректный limit: " + limit);
+                return true;
+            }
+            page = source.page(after, limit);
+        } catch (NumberFormatException e) {
+            sendBadRequest(exchange, "Некорректные параметры страницы");
+            return true;
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return true;
+        }
+        sendJsonStream(exchange, page.stream());
+        return true;
+    }
+
     void sendIdNotFound(HttpExchange exchange, int id) throws IOException {
         sendResponse(exchange, 404, "text/plain; charset=UTF-8", "Задача с id " + id + " не найдена");
     }
@@ -52,9 +142,106 @@ public class BaseHttpHandler {
         sendResponse(exchange, 406, "text/plain; charset=UTF-8", "Задача пересекается с существующими");
     }
 
+    void sendBadRequest(HttpExchange exchange, String message) throws IOException {
+        sendResponse(exchange, 400, "text/plain; charset=UTF-8", message);
+    }
+
+    void sendServerError(HttpExchange exchange, String message) throws IOException {
+        sendResponse(exchange, 500, "text/plain; charset=UTF-8", message);
+    }
+
+    void sendNotFound(HttpExchange exchange, String message) throws IOException {
+        sendResponse(exchange, 404, "text/plain; charset=UTF-8", message);
+    }
+
+    void sendConflict(HttpExchange exchange, String message) throws IOException {
+        sendResponse(exchange, 409, "text/plain; charset=UTF-8", message);
+    }
+
+    // Версия записи в заголовке ETag
+    void setETag(HttpExchange exchange, Task item) {
+        if (item != null) {
+            setETag(exchange, item.getVersion());
+        }
+    }
+
+    void setETag(HttpExchange exchange, long version) {
+        exchange.getResponseHeaders().set("ETag", "\"" + version + "\"");
+    }
+
+    // ETag после обычного обновления: версию записи менеджер проставил сохранённому объекту.
+    // Если запись уже заменил другой запрос, её версия больше — тогда заголовка нет.
+    // Сравниваются версии, а не объекты: компактный менеджер при каждом чтении собирает новый объект
+    void setETagIfStored(HttpExchange exchange, Task item, Task stored) {
+        if (stored != null && stored.getVersion() == item.getVersion()) {
+            setETag(exchange, item);
+        }
+    }
+
+    // Ожидаемая версия из If-Match: null — заголовка нет или там "*", условия на версию нет.
+    // If-Match сравнивает теги строго: слабый тег (W/"...") или не число в кавычках не совпадёт
+    // ни с одной версией — IllegalArgumentException, обработчик отвечает 412
+    Long getIfMatch(HttpExchange exchange) {
+        String value = exchange.getRequestHeaders().getFirst("If-Match");
+        if (value == null || value.trim().equals("*")) {
+            return null;
+        }
+        String tag = value.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("Тег If-Match не совпадёт ни с одной версией: " + tag);
+        }
+        return Long.parseLong(tag.substring(1, tag.length() - 1));
+    }
+
+    // Условное обновление не прошло: 404, если записи нет, иначе 412 с текущей версией
+    void sendVersionConflict(HttpExchange exchange, int id, Task current) throws IOException {
+        if (current == null) {
+            sendIdNotFound(exchange, id);
+            return;
+        }
+        setETag(exchange, current);
+        sendResponse(exchange, 412, "text/plain; charset=UTF-8",
+                "Задача с id " + id + " уже изменена, текущая версия " + current.getVersion());
+    }
+
+    Map<String, String> getQueryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    // limit из запроса или значение по умолчанию; 0 — если limit задан некорректно
+    int getLimit(Map<String, String> params, int defaultLimit) {
+        String value = params.get("limit");
+        if (value == null) {
+            return defaultLimit;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    interface PageSource {
+        List<?> page(int afterId, int limit);
+    }
+
     // Адаптеры для Gson
     static class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
-        private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+        static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
         @Override
         public void write(JsonWriter out, LocalDateTime value) throws IOException {
@@ -71,6 +258,22 @@ public class BaseHttpHandler {
         }
     }
 
+    static class LocalDateAdapter extends TypeAdapter<LocalDate> {
+        @Override
+        public void write(JsonWriter out, LocalDate value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                out.value(value.toString());
+            }
+        }
+
+        @Override
+        public LocalDate read(JsonReader in) throws IOException {
+            return LocalDate.parse(in.nextString());
+        }
+    }
+
     static class DurationAdapter extends TypeAdapter<Duration> {
         @Override
         public void write(JsonWriter out, Duration value) throws IOException {
@@ -86,4 +289,34 @@ public class BaseHttpHandler {
             return Duration.parse(in.nextString());
         }
     }
+
+    static class IntLinkedSetAdapter extends TypeAdapter<IntLinkedSet> {
+        @Override
+        public void write(JsonWriter out, IntLinkedSet value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            for (int id : value.toArray()) {
+                out.value(id);
+            }
+            out.endArray();
+        }
+
+        @Override
+        public IntLinkedSet read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            IntLinkedSet set = new IntLinkedSet();
+            in.beginArray();
+            while (in.hasNext()) {
+                set.add(in.nextInt());
+            }
+            in.endArray();
+            return set;
+        }
+    }
 }
@@ -0,0 +1,278 @@
+package http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import exception.TaskOverlapException;
+import managers.TaskManager;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// POST /batch: упорядоченный список операций create/update/delete над задачами, эпиками и подзадачами.
+// Операции выполняются за один проход и одно сохранение. С ?atomic=true первая ошибка откатывает
+// уже выполненные операции в обратном порядке. История просмотров при откате не восстанавливается;
+// зависимости удалённых задач и подзадач удаление снимает вместе с записью, поэтому они запоминаются
+// в записи отката и добавляются заново после restore.
+public class BatchHandler extends BaseHttpHandler implements HttpHandler {
+    private final TaskManager manager;
+    private final Gson gson;
+
+    public BatchHandler(TaskManager manager, Gson gson) {
+        this.manager = manager;
+        this.gson = gson;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+
+        if (method.equals("POST")) {
+            InputStream inputStream = exchange.getRequestBody();
+            String body = new String(inputStream.readAllBytes());
+            List<Operation> operations;
+            try {
+                operations = gson.fromJson(body, new TypeToken<List<Operation>>() {
+                }.getType());
+            } catch (JsonParseException e) {
+                sendBadRequest(exchange, "Некорректный список операций");
+                return;
+            }
+            if (operations == null) {
+                sendBadRequest(exchange, "Некорректный список операций");
+                return;
+            }
+            boolean atomic = "true".equals(getQueryParams(exchange).get("atomic"));
+
+            List<OperationResult> results = new ArrayList<>();
+            Deque<Runnable> undoLog = new ArrayDeque<>();
+            boolean[] rolledBack = {false};
+            try {
+                manager.runBatch(() -> {
+                    boolean finished = false;
+                    try {
+                        for (int i = 0; i < operations.size(); i++) {
+                            OperationResult result = apply(operations.get(i), i, undoLog);
+                            results.add(result);
+                            if (atomic && result.status >= 400) {
+                                rolledBack[0] = true;
+                                break;
+                            }
+                        }
+                        finished = true;
+                    } finally {
+                        // Откатываемся и после ошибки операции, и если исключение прошло мимо apply
+                        if (atomic && (rolledBack[0] || !finished)) {
+                            while (!undoLog.isEmpty()) {
+                                undoLog.pop().run();
+                            }
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                sendServerError(exchange, "Пакет не выполнен: " + e.getMessage());
+                return;
+            }
+
+            if (rolledBack[0]) {
+                for (int i = 0; i < results.size() - 1; i++) {
+                    results.get(i).rolledBack = true;
+                }
+                sendJsonStream(exchange, 409, results.stream());
+            } else {
+                sendJsonStream(exchange, results.stream());
+            }
+        }
+    }
+
+    private OperationResult apply(Operation operation, int index, Deque<Runnable> undoLog) {
+        if (operation == null || operation.op == null || operation.type == null) {
+            return OperationResult.error(index, 400, "Не заданы op и type");
+        }
+        try {
+            return switch (operation.op) {
+                case "create" -> create(operation, index, undoLog);
+                case "update" -> update(operation, index, undoLog);
+                case "delete" -> delete(operation, index, undoLog);
+                default -> OperationResult.error(index, 400, "Неизвестная операция: " + operation.op);
+            };
+        } catch (TaskOverlapException e) {
+            return OperationResult.error(index, 406, "Задача пересекается с существующими");
+        } catch (RuntimeException e) {
+            // Некорректные поля (даты, длительности, id) — ошибка этой операции, а не всего запроса
+            return OperationResult.error(index, 400, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    private OperationResult create(Operation operation, int index, Deque<Runnable> undoLog) {
+        if (operation.item == null) {
+            return OperationResult.error(index, 400, "Не задан item");
+        }
+        switch (operation.type) {
+            case EPIC -> {
+                Epic epic = gson.fromJson(operation.item, Epic.class);
+                epic.setId(0);
+                manager.createEpic(epic);
+                undoLog.push(() -> manager.removeEpicById(epic.getId()));
+                return OperationResult.ok(index, 201, epic.getId());
+            }
+            case SUBTASK -> {
+                Subtask subtask = gson.fromJson(operation.item, Subtask.class);
+                subtask.setId(0);
+                manager.createSubtask(subtask);
+                if (subtask.getId() == 0) {
+                    return OperationResult.error(index, 404, "Эпик с id " + subtask.getEpicId() + " не найден");
+                }
+                undoLog.push(() -> manager.removeSubtaskById(subtask.getId()));
+                return OperationResult.ok(index, 201, subtask.getId());
+            }
+            default -> {
+                Task task = gson.fromJson(operation.item, Task.class);
+                manager.createTask(task);
+                undoLog.push(() -> manager.removeTaskById(task.getId()));
+                return OperationResult.ok(index, 201, task.getId());
+            }
+        }
+    }
+
+    private OperationResult update(Operation operation, int index, Deque<Runnable> undoLog) {
+        if (operation.item == null) {
+            return OperationResult.error(index, 400, "Не задан item");
+        }
+        Task item = gson.fromJson(operation.item, itemClass(operation.type));
+        Task existing = manager.findById(item.getId());
+        if (existing == null || existing.getType() != operation.type) {
+            return OperationResult.error(index, 404, "Задача с id " + item.getId() + " не найдена");
+        }
+        switch (operation.type) {
+            case EPIC -> {
+                // Эпик обновляется на месте, поэтому для отката запоминаются прежние поля
+                Epic previous = new Epic(existing.getName(), existing.getDescription());
+                previous.setId(existing.getId());
+                manager.updateEpic((Epic) item);
+                undoLog.push(() -> manager.updateEpic(previous));
+            }
+            case SUBTASK -> {
+                manager.updateSubtask((Subtask) item);
+                undoLog.push(() -> manager.updateSubtask((Subtask) existing));
+            }
+            default -> {
+                manager.updateTask(item);
+                undoLog.push(() -> manager.updateTask(existing));
+            }
+        }
+        return OperationResult.ok(index, 200, item.getId());
+    }
+
+    private OperationResult delete(Operation operation, int index, Deque<Runnable> undoLog) {
+        int id = operation.id != null ? operation.id
+                : operation.item != null && operation.item.has("id") ? operation.item.get("id").getAsInt() : 0;
+        Task existing = manager.findById(id);
+        if (existing == null || existing.getType() != operation.type) {
+            return OperationResult.error(index, 404, "Задача с id " + id + " не найдена");
+        }
+        switch (operation.type) {
+            case EPIC -> {
+                List<Subtask> subtasks = manager.getSubtasksByEpicId(id);
+                List<int[]> edges = new ArrayList<>();
+                for (Subtask subtask : subtasks) {
+                    edges.addAll(dependencyEdges(subtask.getId()));
+                }
+                manager.removeEpicById(id);
+                undoLog.push(() -> {
+                    manager.restore(existing);
+                    for (Subtask subtask : subtasks) {
+                        manager.restore(subtask);
+                    }
+                    addDependencies(edges);
+                });
+            }
+            case SUBTASK -> {
+                List<int[]> edges = dependencyEdges(id);
+                manager.removeSubtaskById(id);
+                undoLog.push(() -> {
+                    manager.restore(existing);
+                    addDependencies(edges);
+                });
+            }
+            default -> {
+                List<int[]> edges = dependencyEdges(id);
+                manager.removeTaskById(id);
+                undoLog.push(() -> {
+                    manager.restore(existing);
+                    addDependencies(edges);
+                });
+            }
+        }
+        return OperationResult.ok(index, 200, id);
+    }
+
+    // Рёбра {id, dependsOnId}, в которых участвует запись: её предшественники и задачи, которые от неё зависят
+    private List<int[]> dependencyEdges(int id) {
+        List<int[]> edges = new ArrayList<>();
+        for (int dependsOnId : manager.getDependencies(id)) {
+            edges.add(new int[]{id, dependsOnId});
+        }
+        for (int dependentId : manager.getDependents(id)) {
+            edges.add(new int[]{dependentId, id});
+        }
+        return edges;
+    }
+
+    // Откат идёт в обратном порядке, поэтому другие концы рёбер к этому моменту уже на месте
+    private void addDependencies(List<int[]> edges) {
+        for (int[] edge : edges) {
+            manager.addDependency(edge[0], edge[1]);
+        }
+    }
+
+    private static Class<? extends Task> itemClass(TaskType type) {
+        return switch (type) {
+            case EPIC -> Epic.class;
+            case SUBTASK -> Subtask.class;
+            default -> Task.class;
+        };
+    }
+
+    static class Operation {
+        String op;
+        TaskType type;
+        Integer id;
+        JsonObject item;
+    }
+
+    static class OperationResult {
+        int index;
+        int status;
+        Integer id;
+        String error;
+        Boolean rolledBack;
+
+        static OperationResult ok(int index, int status, int id) {
+            OperationResult result = new OperationResult();
+            result.index = index;
+            result.status = status;
+            result.id = id;
+            return result;
+        }
+
+        static OperationResult error(int index, int status, String error) {
+            OperationResult result = new OperationResult();
+            result.index = index;
+            result.status = status;
+            result.error = error;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import exception.DependencyCycleException;
+import managers.TaskManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+// GET /dependencies?id=5 — от чего зависит задача.
+// POST /dependencies {"id": 5, "dependsOn": 3} — задача 5 начнётся после окончания 3.
+// DELETE /dependencies?id=5&dependsOn=3
+public class DependencyHandler extends BaseHttpHandler implements HttpHandler {
+    private final TaskManager manager;
+    private final Gson gson;
+
+    public DependencyHandler(TaskManager manager, Gson gson) {
+        this.manager = manager;
+        this.gson = gson;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        Map<String, String> params = getQueryParams(exchange);
+
+        if (method.equals("GET")) {
+            try {
+                int id = Integer.parseInt(params.getOrDefault("id", ""));
+                sendTextOk(exchange, manager.getDependencies(id));
+            } catch (NumberFormatException e) {
+                sendIncorrectId(exchange, params.get("id"));
+            }
+        } else if (method.equals("POST")) {
+            InputStream inputStream = exchange.getRequestBody();
+            String body = new String(inputStream.readAllBytes());
+            Dependency dependency;
+            try {
+                dependency = gson.fromJson(body, Dependency.class);
+            } catch (JsonParseException e) {
+                sendBadRequest(exchange, "Некорректная зависимость");
+                return;
+            }
+            if (dependency == null || dependency.id == null || dependency.dependsOn == null) {
+                sendBadRequest(exchange, "Не заданы id и dependsOn");
+                return;
+            }
+            try {
+                manager.addDependency(dependency.id, dependency.dependsOn);
+                sendTextCreatedOk(exchange, "Зависимость добавлена");
+            } catch (IllegalArgumentException e) {
+                sendNotFound(exchange, e.getMessage());
+            } catch (DependencyCycleException e) {
+                sendConflict(exchange, e.getMessage());
+            }
+        } else if (method.equals("DELETE")) {
+            try {
+                int id = Integer.parseInt(params.getOrDefault("id", ""));
+                int dependsOn = Integer.parseInt(params.getOrDefault("dependsOn", ""));
+                manager.removeDependency(id, dependsOn);
+                sendTextOk(exchange, "Зависимость удалена");
+            } catch (NumberFormatException e) {
+                sendBadRequest(exchange, "Некорректные id и dependsOn");
+            }
+        }
+    }
+
+    static class Dependency {
+        Integer id;
+        Integer dependsOn;
+    }
+}
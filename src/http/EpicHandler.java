@@ -3,9 +3,11 @@ package http;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.google.gson.Gson;
+import managers.CriticalPath;
 import managers.TaskManager;
 import tasks.Epic;
 import tasks.Subtask;
+import tasks.TaskType;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -28,14 +30,16 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
 
         if (method.equals("GET")) {
             if (pathParts.length == 2) {
-                List<Epic> epics = manager.getEpics();
-                sendTextOk(exchange, epics);
+                if (!sendPageIfRequested(exchange, manager::getEpics)) {
+                    sendAll(exchange, manager, TaskType.EPIC);
+                }
 
             } else if (pathParts.length == 3) {
                 try {
                     int id = Integer.parseInt(pathParts[2]);
                     Epic epic = manager.getEpicById(id);
                     if (epic != null) {
+                        setETag(exchange, epic);
                         sendTextOk(exchange, epic);
                     } else {
                         sendIdNotFound(exchange, id);
@@ -48,7 +52,8 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
                     int id = Integer.parseInt(pathParts[2]);
                     Epic epic = manager.getEpicById(id);
                     if (epic != null) {
-                        List<Subtask> jsonResponse = manager.getSubtasksByEpicId(id);
+                        boolean sortedByTime = "time".equals(getQueryParams(exchange).get("sort"));
+                        List<Subtask> jsonResponse = manager.getSubtasksByEpicId(id, sortedByTime);
                         sendTextOk(exchange, jsonResponse);
                     } else {
                         sendIdNotFound(exchange, id);
@@ -56,11 +61,43 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
                 } catch (NumberFormatException e) {
                     sendIncorrectId(exchange, pathParts[2]);
                 }
+            } else if (pathParts.length == 4 && pathParts[3].equals("critical-path")) {
+                try {
+                    int id = Integer.parseInt(pathParts[2]);
+                    CriticalPath criticalPath = manager.getCriticalPath(id);
+                    if (criticalPath != null) {
+                        sendTextOk(exchange, criticalPath);
+                    } else {
+                        sendIdNotFound(exchange, id);
+                    }
+                } catch (NumberFormatException e) {
+                    sendIncorrectId(exchange, pathParts[2]);
+                }
             }
         } else if (method.equals("POST")) {
             InputStream inputStream = exchange.getRequestBody();
             String body = new String(inputStream.readAllBytes());
             Epic epic = gson.fromJson(body, Epic.class);
+            // С If-Match существующий эпик обновляется, только если его не изменили
+            Long expectedVersion = null;
+            if (epic.getId() != 0) {
+                try {
+                    expectedVersion = getIfMatch(exchange);
+                } catch (IllegalArgumentException e) {
+                    sendVersionConflict(exchange, epic.getId(), manager.findById(epic.getId()));
+                    return;
+                }
+            }
+            if (expectedVersion != null) {
+                long version = manager.updateIfVersion(epic, expectedVersion);
+                if (version < 0) {
+                    sendVersionConflict(exchange, epic.getId(), manager.findById(epic.getId()));
+                    return;
+                }
+                setETag(exchange, version);
+                sendTextOk(exchange, "tasks.Epic успешно обновлён");
+                return;
+            }
             manager.createEpic(epic);
             sendTextCreatedOk(exchange, "tasks.Epic успешно создан");
         } else if (method.equals("DELETE")) {
@@ -4,10 +4,8 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.google.gson.Gson;
 import managers.TaskManager;
-import tasks.Task;
 
 import java.io.IOException;
-import java.util.List;
 
 public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager manager;
@@ -23,8 +21,9 @@ public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
         String method = exchange.getRequestMethod();
 
         if (method.equals("GET")) {
-            List<Task> history = manager.getHistory();
-            sendTextOk(exchange, history);
+            if (!sendPageIfRequested(exchange, manager::getHistory)) {
+                sendJsonStream(exchange, manager.streamHistory());
+            }
         }
     }
 }
@@ -5,11 +5,15 @@ import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpServer;
 import managers.Managers;
 import managers.TaskManager;
+import util.IntLinkedSet;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 
 public class HttpTaskServer {
@@ -18,14 +22,28 @@ public class HttpTaskServer {
 
 
     public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, null);
+    }
+
+    // Многопоточный исполнитель можно передавать только вместе с потокобезопасным менеджером
+    public HttpTaskServer(TaskManager manager, Executor executor) throws IOException {
         this.gson = new GsonBuilder().registerTypeAdapter(LocalDateTime.class, new BaseHttpHandler.LocalDateTimeAdapter())
-                .registerTypeAdapter(Duration.class, new BaseHttpHandler.DurationAdapter()).create();
+                .registerTypeAdapter(LocalDate.class, new BaseHttpHandler.LocalDateAdapter())
+                .registerTypeAdapter(Duration.class, new BaseHttpHandler.DurationAdapter())
+                .registerTypeAdapter(IntLinkedSet.class, new BaseHttpHandler.IntLinkedSetAdapter()).create();
         this.server = HttpServer.create(new InetSocketAddress(8080), 0);
         server.createContext("/tasks", new TasksHandler(manager, gson));
         server.createContext("/subtasks", new SubtaskHandler(manager, gson));
         server.createContext("/epics", new EpicHandler(manager, gson));
         server.createContext("/history", new HistoryHandler(manager, gson));
         server.createContext("/prioritized", new PrioritizedHandler(manager, gson));
+        server.createContext("/items", new ItemsHandler(manager, gson));
+        server.createContext("/search", new SearchHandler(manager, gson));
+        server.createContext("/suggest", new SuggestHandler(manager, gson));
+        server.createContext("/batch", new BatchHandler(manager, gson));
+        server.createContext("/timeline", new TimelineHandler(manager, gson));
+        server.createContext("/dependencies", new DependencyHandler(manager, gson));
+        server.setExecutor(executor);
     }
 
     public Gson getGson() {
@@ -33,8 +51,9 @@ public class HttpTaskServer {
     }
 
     public static void main(String[] args) throws IOException {
-        TaskManager taskManager = Managers.getDefault();
-        HttpTaskServer server = new HttpTaskServer(taskManager);
+        TaskManager taskManager = Managers.getConcurrent();
+        HttpTaskServer server = new HttpTaskServer(taskManager,
+                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
         server.start();
         System.out.println("Сервер запущен!");
 
@@ -0,0 +1,44 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.google.gson.Gson;
+import managers.TaskManager;
+import tasks.Task;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ItemsHandler extends BaseHttpHandler implements HttpHandler {
+    private final TaskManager manager;
+    private final Gson gson;
+
+    public ItemsHandler(TaskManager manager, Gson gson) {
+        this.manager = manager;
+        this.gson = gson;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] pathParts = exchange.getRequestURI().getPath().split("/");
+
+        if (method.equals("GET") && pathParts.length == 3) {
+            try {
+                int id = Integer.parseInt(pathParts[2]);
+                Task item = manager.getById(id);
+                if (item != null) {
+                    Map<String, Object> response = new LinkedHashMap<>();
+                    response.put("type", item.getType());
+                    response.put("item", item);
+                    sendTextOk(exchange, response);
+                } else {
+                    sendIdNotFound(exchange, id);
+                }
+            } catch (NumberFormatException e) {
+                sendIncorrectId(exchange, pathParts[2]);
+            }
+        }
+    }
+}
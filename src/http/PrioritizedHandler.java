@@ -3,11 +3,17 @@ package http;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import managers.TaskManager;
-import tasks.Task;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager manager;
@@ -23,8 +29,104 @@ public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
         String method = exchange.getRequestMethod();
 
         if (method.equals("GET")) {
-            List<Task> prioritized = manager.getPrioritizedTasks();
-            sendTextOk(exchange, prioritized);
+            String[] pathParts = exchange.getRequestURI().getPath().split("/");
+            if (pathParts.length == 3 && pathParts[2].equals("free-slot")) {
+                sendFreeSlot(exchange);
+                return;
+            }
+            Map<String, String> params = getQueryParams(exchange);
+            if (params.containsKey("from") || params.containsKey("to")) {
+                sendWindow(exchange, params);
+                return;
+            }
+            if (sendPageIfRequested(exchange, manager::getPrioritizedTasks)) {
+                return;
+            }
+            sendJsonStream(exchange, manager.streamPrioritizedTasks());
+        } else if (method.equals("POST")) {
+            String[] pathParts = exchange.getRequestURI().getPath().split("/");
+            if (pathParts.length == 3 && pathParts[2].equals("auto-schedule")) {
+                autoSchedule(exchange);
+            } else {
+                sendBadRequest(exchange, "Неизвестный путь");
+            }
         }
     }
-}
\ No newline at end of file
+
+    // Задачи окна [from, to); с limit — страница внутри окна после записи с id after
+    private void sendWindow(HttpExchange exchange, Map<String, String> params) throws IOException {
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            from = parseTime(params.get("from"));
+            to = parseTime(params.get("to"));
+        } catch (DateTimeParseException e) {
+            sendBadRequest(exchange, "Некорректная дата: " + e.getParsedString());
+            return;
+        }
+        if (!sendPageIfRequested(exchange, (after, limit) -> manager.getPrioritizedTasks(from, to, after, limit))) {
+            sendJsonStream(exchange, manager.streamPrioritizedTasks(from, to));
+        }
+    }
+
+    // POST /prioritized/auto-schedule {"ids": [...], "notBefore": "..."} — без ids расставляются все записи без времени
+    private void autoSchedule(HttpExchange exchange) throws IOException {
+        InputStream inputStream = exchange.getRequestBody();
+        String body = new String(inputStream.readAllBytes());
+        AutoScheduleRequest request;
+        try {
+            request = body.isBlank() ? new AutoScheduleRequest() : gson.fromJson(body, AutoScheduleRequest.class);
+        } catch (JsonParseException | DateTimeParseException e) {
+            sendBadRequest(exchange, "Некорректный запрос");
+            return;
+        }
+        if (request == null) {
+            request = new AutoScheduleRequest();
+        }
+        LocalDateTime notBefore = request.notBefore != null ? request.notBefore : LocalDateTime.now();
+        sendJsonStream(exchange, manager.autoSchedule(request.ids, notBefore).stream());
+    }
+
+    // GET /prioritized/free-slot?duration=PT30M&notBefore=2024-01-01T10:00 — notBefore по умолчанию сейчас
+    private void sendFreeSlot(HttpExchange exchange) throws IOException {
+        Map<String, String> params = getQueryParams(exchange);
+        Duration duration;
+        LocalDateTime notBefore;
+        try {
+            duration = Duration.parse(params.getOrDefault("duration", ""));
+        } catch (DateTimeParseException e) {
+            sendBadRequest(exchange, "Некорректная длительность: " + params.get("duration"));
+            return;
+        }
+        if (duration.isNegative()) {
+            sendBadRequest(exchange, "Длительность не может быть отрицательной");
+            return;
+        }
+        try {
+            notBefore = parseTime(params.get("notBefore"));
+        } catch (DateTimeParseException e) {
+            sendBadRequest(exchange, "Некорректная дата: " + e.getParsedString());
+            return;
+        }
+        if (notBefore == null) {
+            notBefore = LocalDateTime.now();
+        }
+        LocalDateTime startTime = manager.findFreeSlot(duration, notBefore);
+        Map<String, LocalDateTime> response = new LinkedHashMap<>();
+        response.put("startTime", startTime);
+        response.put("endTime", startTime.plus(duration));
+        sendTextOk(exchange, response);
+    }
+
+    private LocalDateTime parseTime(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return LocalDateTime.parse(value);
+    }
+
+    static class AutoScheduleRequest {
+        List<Integer> ids;
+        LocalDateTime notBefore;
+    }
+}
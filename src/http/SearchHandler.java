@@ -0,0 +1,41 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.google.gson.Gson;
+import managers.TaskManager;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class SearchHandler extends BaseHttpHandler implements HttpHandler {
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final TaskManager manager;
+    private final Gson gson;
+
+    public SearchHandler(TaskManager manager, Gson gson) {
+        this.manager = manager;
+        this.gson = gson;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+
+        if (method.equals("GET")) {
+            Map<String, String> params = getQueryParams(exchange);
+            String query = params.get("q");
+            if (query == null || query.isBlank()) {
+                sendBadRequest(exchange, "Не задан поисковый запрос q");
+                return;
+            }
+            int limit = getLimit(params, DEFAULT_LIMIT);
+            if (limit <= 0) {
+                sendBadRequest(exchange, "Некорректный limit: " + params.get("limit"));
+                return;
+            }
+            sendJsonStream(exchange, manager.search(query, limit).stream());
+        }
+    }
+}
@@ -3,9 +3,11 @@ package http;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 import exception.TaskOverlapException;
 import managers.TaskManager;
 import tasks.Subtask;
+import tasks.TaskType;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -33,6 +35,7 @@ public class SubtaskHandler extends BaseHttpHandler implements HttpHandler {
                     int id = Integer.parseInt(pathParts[2]);
                     Subtask subtask = manager.getSubtaskById(id);
                     if (subtask != null) {
+                        setETag(exchange, subtask);
                         sendTextOk(exchange, subtask);
                     } else {
                         sendIdNotFound(exchange, id);
@@ -42,12 +45,26 @@ public class SubtaskHandler extends BaseHttpHandler implements HttpHandler {
                     sendIncorrectId(exchange, pathParts[2]);
                 }
             } else {
-                List<Subtask> subtasks = manager.getSubtasks();
-                sendTextOk(exchange, subtasks);
+                if (!sendPageIfRequested(exchange, manager::getSubtasks)) {
+                    sendAll(exchange, manager, TaskType.SUBTASK);
+                }
             }
         } else if (method.equals("POST")) {
             InputStream inputStream = exchange.getRequestBody();
             String body = new String(inputStream.readAllBytes());
+            if (body.trim().startsWith("[")) {
+                List<Subtask> subtasks = gson.fromJson(body, new TypeToken<List<Subtask>>() {
+                }.getType());
+                try {
+                    manager.createSubtasks(subtasks);
+                    sendTextCreatedOk(exchange, "Создано подзадач: " + subtasks.size());
+                } catch (TaskOverlapException e) {
+                    sendHasOverlaps(exchange);
+                } catch (IllegalArgumentException e) {
+                    sendBadRequest(exchange, e.getMessage());
+                }
+                return;
+            }
             Subtask subtask = gson.fromJson(body, Subtask.class);
             if (subtask.getId() == 0) {
                 try {
@@ -58,8 +75,25 @@ public class SubtaskHandler extends BaseHttpHandler implements HttpHandler {
                     sendHasOverlaps(exchange);
                 }
             } else {
+                Long expectedVersion;
+                try {
+                    expectedVersion = getIfMatch(exchange);
+                } catch (IllegalArgumentException e) {
+                    sendVersionConflict(exchange, subtask.getId(), manager.findById(subtask.getId()));
+                    return;
+                }
                 try {
-                    manager.updateSubtask(subtask);
+                    if (expectedVersion == null) {
+                        manager.updateSubtask(subtask);
+                        setETagIfStored(exchange, subtask, manager.findById(subtask.getId()));
+                    } else {
+                        long version = manager.updateIfVersion(subtask, expectedVersion);
+                        if (version < 0) {
+                            sendVersionConflict(exchange, subtask.getId(), manager.findById(subtask.getId()));
+                            return;
+                        }
+                        setETag(exchange, version);
+                    }
                     sendTextCreatedOk(exchange, "Задача успешно обновлена");
                 } catch (TaskOverlapException e) {
                     sendHasOverlaps(exchange);
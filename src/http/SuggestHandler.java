@@ -0,0 +1,41 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.google.gson.Gson;
+import managers.TaskManager;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class SuggestHandler extends BaseHttpHandler implements HttpHandler {
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final TaskManager manager;
+    private final Gson gson;
+
+    public SuggestHandler(TaskManager manager, Gson gson) {
+        this.manager = manager;
+        this.gson = gson;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+
+        if (method.equals("GET")) {
+            Map<String, String> params = getQueryParams(exchange);
+            String prefix = params.get("prefix");
+            if (prefix == null) {
+                sendBadRequest(exchange, "Не задан префикс prefix");
+                return;
+            }
+            int limit = getLimit(params, DEFAULT_LIMIT);
+            if (limit <= 0) {
+                sendBadRequest(exchange, "Некорректный limit: " + params.get("limit"));
+                return;
+            }
+            sendJsonStream(exchange, manager.suggest(prefix, limit).stream());
+        }
+    }
+}
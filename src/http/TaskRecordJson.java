@@ -0,0 +1,56 @@
+package http;
+
+import com.google.gson.stream.JsonWriter;
+import managers.TaskRecord;
+import tasks.Status;
+import tasks.TaskType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Пишет запись хранилища в JSON поле за полем, не собирая объект задачи.
+// Формат тот же, что у Gson для Task, Subtask и Epic: те же имена и порядок полей, null пропускаются
+public class TaskRecordJson {
+
+    public static void write(JsonWriter out, TaskRecord record) throws IOException {
+        TaskType type = record.getType();
+        out.beginObject();
+        if (type == TaskType.SUBTASK) {
+            out.name("epicId").value(record.getEpicId());
+        } else if (type == TaskType.EPIC) {
+            out.name("subtaskIds").beginArray();
+            for (int subtaskId : record.getSubtaskIds()) {
+                out.value(subtaskId);
+            }
+            out.endArray();
+        }
+        writeString(out, "name", record.getName());
+        writeString(out, "description", record.getDescription());
+        Status status = record.getStatus();
+        if (status != null) {
+            out.name("status").value(status.name());
+        }
+        out.name("id").value(record.getId());
+        Duration duration = record.getDuration();
+        if (duration != null) {
+            out.name("duration").value(duration.toString());
+        }
+        writeTime(out, "startTime", record.getStartTime());
+        writeTime(out, "endTime", record.getEndTime());
+        out.name("version").value(record.getVersion());
+        out.endObject();
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void writeTime(JsonWriter out, String name, LocalDateTime value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value.format(BaseHttpHandler.LocalDateTimeAdapter.formatter));
+        }
+    }
+}
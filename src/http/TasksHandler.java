@@ -1,11 +1,13 @@
 package http;
 
 import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import exception.TaskOverlapException;
 import managers.TaskManager;
 import tasks.Task;
+import tasks.TaskType;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -36,6 +38,7 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
                     int id = Integer.parseInt(pathParts[2]);
                     Task task = manager.getTaskById(id);
                     if (task != null) {
+                        setETag(exchange, task);
                         sendTextOk(exchange, task);
                     } else {
                         sendIdNotFound(exchange, id);
@@ -45,12 +48,24 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
                     sendIncorrectId(exchange, pathParts[2]);
                 }
             } else {
-                List<Task> tasks = manager.getTasks();
-                sendTextOk(exchange, tasks);
+                if (!sendPageIfRequested(exchange, manager::getTasks)) {
+                    sendAll(exchange, manager, TaskType.TASK);
+                }
             }
         } else if (method.equals("POST")) {
             InputStream inputStream = exchange.getRequestBody();
             String body = new String(inputStream.readAllBytes());
+            if (body.trim().startsWith("[")) {
+                List<Task> tasks = gson.fromJson(body, new TypeToken<List<Task>>() {
+                }.getType());
+                try {
+                    manager.createTasks(tasks);
+                    sendTextCreatedOk(exchange, "Создано задач: " + tasks.size());
+                } catch (TaskOverlapException e) {
+                    sendHasOverlaps(exchange);
+                }
+                return;
+            }
             Task task = gson.fromJson(body, Task.class);
             if (task.getId() == 0) {
                 try {
@@ -61,8 +76,25 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
                     sendHasOverlaps(exchange);
                 }
             } else {
+                Long expectedVersion;
+                try {
+                    expectedVersion = getIfMatch(exchange);
+                } catch (IllegalArgumentException e) {
+                    sendVersionConflict(exchange, task.getId(), manager.findById(task.getId()));
+                    return;
+                }
                 try {
-                    manager.updateTask(task);
+                    if (expectedVersion == null) {
+                        manager.updateTask(task);
+                        setETagIfStored(exchange, task, manager.findById(task.getId()));
+                    } else {
+                        long version = manager.updateIfVersion(task, expectedVersion);
+                        if (version < 0) {
+                            sendVersionConflict(exchange, task.getId(), manager.findById(task.getId()));
+                            return;
+                        }
+                        setETag(exchange, version);
+                    }
                     String response = "Задача успешно обновлена";
                     sendTextOk(exchange, response);
                 } catch (TaskOverlapException e) {
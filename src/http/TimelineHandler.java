@@ -0,0 +1,60 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.google.gson.Gson;
+import managers.TaskManager;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET /timeline?from=2024-01-01&to=2024-01-31 — занятые минуты и загрузка по дням.
+// GET /timeline?at=2024-01-01T10:15 — свободна ли минута
+public class TimelineHandler extends BaseHttpHandler implements HttpHandler {
+    private static final int MAX_DAYS = 366;
+
+    private final TaskManager manager;
+    private final Gson gson;
+
+    public TimelineHandler(TaskManager manager, Gson gson) {
+        this.manager = manager;
+        this.gson = gson;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+
+        if (method.equals("GET")) {
+            Map<String, String> params = getQueryParams(exchange);
+            try {
+                if (params.containsKey("at")) {
+                    LocalDateTime time = LocalDateTime.parse(params.get("at"));
+                    Map<String, Object> response = new LinkedHashMap<>();
+                    response.put("minute", time.truncatedTo(ChronoUnit.MINUTES));
+                    response.put("free", manager.isMinuteFree(time));
+                    sendTextOk(exchange, response);
+                    return;
+                }
+                if (!params.containsKey("from") || !params.containsKey("to")) {
+                    sendBadRequest(exchange, "Не заданы from и to");
+                    return;
+                }
+                LocalDate from = LocalDate.parse(params.get("from"));
+                LocalDate to = LocalDate.parse(params.get("to"));
+                if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+                    sendBadRequest(exchange, "Период должен быть от 1 до " + MAX_DAYS + " дней");
+                    return;
+                }
+                sendJsonStream(exchange, manager.getTimeline(from, to).stream());
+            } catch (DateTimeParseException e) {
+                sendBadRequest(exchange, "Некорректная дата: " + e.getParsedString());
+            }
+        }
+    }
+}
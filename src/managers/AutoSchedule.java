@@ -0,0 +1,84 @@
+package managers;
+
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Подготовка задач к автоматической расстановке по расписанию
+final class AutoSchedule {
+    private AutoSchedule() {
+    }
+
+    // Указанные записи в заданном порядке; пустой список — все задачи и подзадачи по возрастанию id
+    static List<Task> candidates(TaskManager manager, Collection<Integer> ids) {
+        List<Task> items = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            items.addAll(manager.getTasks(0, Integer.MAX_VALUE));
+            items.addAll(manager.getSubtasks(0, Integer.MAX_VALUE));
+            items.sort(Comparator.comparingInt(Task::getId));
+        } else {
+            for (Integer id : ids) {
+                if (id != null) {
+                    items.add(manager.findById(id));
+                }
+            }
+        }
+        return arrange(items);
+    }
+
+    // Задачи и подзадачи с длительностью, но без времени начала. Порядок сохраняется,
+    // но подзадачи одного эпика идут подряд — с места первой из них
+    private static List<Task> arrange(Iterable<? extends Task> items) {
+        Map<Integer, List<Task>> groups = new LinkedHashMap<>();
+        Set<Integer> seen = new HashSet<>();
+        for (Task item : items) {
+            if (!isUnscheduled(item) || !seen.add(item.getId())) {
+                continue;
+            }
+            int key = item.getType() == TaskType.SUBTASK ? ((Subtask) item).getEpicId() : item.getId();
+            groups.computeIfAbsent(key, id -> new ArrayList<>()).add(item);
+        }
+        List<Task> result = new ArrayList<>();
+        for (List<Task> group : groups.values()) {
+            result.addAll(group);
+        }
+        return result;
+    }
+
+    static List<Duration> durations(List<Task> tasks) {
+        List<Duration> durations = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            durations.add(task.getDuration());
+        }
+        return durations;
+    }
+
+    // Копия задачи с заданным временем начала — исходный объект не меняется
+    static Task withStartTime(Task task, LocalDateTime startTime) {
+        Task copy;
+        if (task.getType() == TaskType.SUBTASK) {
+            copy = new Subtask(task.getName(), task.getDescription(), task.getStatus(), task.getDuration(),
+                    startTime, ((Subtask) task).getEpicId());
+        } else {
+            copy = new Task(task.getName(), task.getDescription(), task.getStatus(), task.getDuration(), startTime);
+        }
+        copy.setId(task.getId());
+        return copy;
+    }
+
+    private static boolean isUnscheduled(Task item) {
+        return item != null && item.getType() != TaskType.EPIC && item.getStartTime() == null
+                && item.getDuration() != null && item.getDuration().compareTo(Duration.ZERO) > 0;
+    }
+}
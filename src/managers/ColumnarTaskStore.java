@@ -0,0 +1,316 @@
+package managers;
+
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+import util.StringPool;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+// Записи хранятся по столбцам: каждое поле — отдельный массив примитивов, строки — номера в общем пуле.
+// На запись не приходится ни одного объекта, задача собирается только в get.
+// Время хранится в секундах от эпохи (UTC), доли секунды отбрасываются. Удаление переносит последнюю
+// запись на место удалённой, поэтому порядок хранения не совпадает с порядком добавления
+public class ColumnarTaskStore implements TaskStore {
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final byte NO_STATUS = -1;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final StringPool strings;
+    private int[] ids;
+    private byte[] types;
+    private byte[] statuses;
+    private int[] names;
+    private int[] descriptions;
+    private int[] epicIds;
+    private long[] starts;
+    private long[] durations;
+    private long[] ends;
+    private long[] versions;
+    private int size;
+    // Открытая адресация id -> номер строки + 1, 0 — пустой слот
+    private int[] table;
+    private int mask;
+
+    public ColumnarTaskStore() {
+        this(new StringPool(), 16);
+    }
+
+    // Несколько хранилищ могут делить один пул строк
+    public ColumnarTaskStore(StringPool strings, int expectedSize) {
+        this.strings = strings;
+        allocate(Math.max(16, expectedSize));
+    }
+
+    @Override
+    public void put(Task item) {
+        int row = find(item.getId());
+        if (row < 0) {
+            if (size == ids.length) {
+                grow();
+            }
+            row = size++;
+            ids[row] = item.getId();
+            link(row);
+        } else {
+            strings.release(names[row]);
+            strings.release(descriptions[row]);
+        }
+        types[row] = (byte) item.getType().ordinal();
+        statuses[row] = item.getStatus() == null ? NO_STATUS : (byte) item.getStatus().ordinal();
+        names[row] = strings.acquire(item.getName());
+        descriptions[row] = strings.acquire(item.getDescription());
+        epicIds[row] = item instanceof Subtask subtask ? subtask.getEpicId() : 0;
+        starts[row] = toSeconds(item.getStartTime());
+        durations[row] = item.getDuration() == null ? NO_TIME : item.getDuration().getSeconds();
+        ends[row] = toSeconds(item.getEndTime());
+        versions[row] = item.getVersion();
+    }
+
+    @Override
+    public Task get(int id) {
+        int row = find(id);
+        return row < 0 ? null : materialize(row);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return find(id) >= 0;
+    }
+
+    @Override
+    public boolean remove(int id) {
+        int row = find(id);
+        if (row < 0) {
+            return false;
+        }
+        strings.release(names[row]);
+        strings.release(descriptions[row]);
+        unlink(id);
+        int last = --size;
+        if (row != last) {
+            table[position(ids[last])] = row + 1;
+            ids[row] = ids[last];
+            types[row] = types[last];
+            statuses[row] = statuses[last];
+            names[row] = names[last];
+            descriptions[row] = descriptions[last];
+            epicIds[row] = epicIds[last];
+            starts[row] = starts[last];
+            durations[row] = durations[last];
+            ends[row] = ends[last];
+            versions[row] = versions[last];
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int row = 0; row < size; row++) {
+            strings.release(names[row]);
+            strings.release(descriptions[row]);
+        }
+        size = 0;
+        Arrays.fill(table, 0);
+    }
+
+    @Override
+    public TaskType getType(int id) {
+        return TYPES[types[existing(id)]];
+    }
+
+    @Override
+    public String getName(int id) {
+        return strings.get(names[existing(id)]);
+    }
+
+    @Override
+    public String getDescription(int id) {
+        return strings.get(descriptions[existing(id)]);
+    }
+
+    @Override
+    public Status getStatus(int id) {
+        return status(existing(id));
+    }
+
+    @Override
+    public int getEpicId(int id) {
+        return epicIds[existing(id)];
+    }
+
+    @Override
+    public Duration getDuration(int id) {
+        return duration(existing(id));
+    }
+
+    @Override
+    public LocalDateTime getStartTime(int id) {
+        return toTime(starts[existing(id)]);
+    }
+
+    @Override
+    public LocalDateTime getEndTime(int id) {
+        return toTime(ends[existing(id)]);
+    }
+
+    @Override
+    public long getVersion(int id) {
+        return versions[existing(id)];
+    }
+
+    @Override
+    public void setStatus(int id, Status status) {
+        statuses[existing(id)] = status == null ? NO_STATUS : (byte) status.ordinal();
+    }
+
+    @Override
+    public void setTime(int id, LocalDateTime startTime, Duration duration, LocalDateTime endTime) {
+        int row = existing(id);
+        starts[row] = toSeconds(startTime);
+        durations[row] = duration == null ? NO_TIME : duration.getSeconds();
+        ends[row] = toSeconds(endTime);
+    }
+
+    @Override
+    public void setVersion(int id, long version) {
+        versions[existing(id)] = version;
+    }
+
+    private int existing(int id) {
+        int row = find(id);
+        if (row < 0) {
+            throw new IllegalArgumentException("Записи с id " + id + " нет");
+        }
+        return row;
+    }
+
+    private Status status(int row) {
+        return statuses[row] == NO_STATUS ? null : STATUSES[statuses[row]];
+    }
+
+    private Duration duration(int row) {
+        return durations[row] == NO_TIME ? null : Duration.ofSeconds(durations[row]);
+    }
+
+    private Task materialize(int row) {
+        String name = strings.get(names[row]);
+        String description = strings.get(descriptions[row]);
+        Status status = status(row);
+        Duration duration = duration(row);
+        LocalDateTime start = toTime(starts[row]);
+        Task item = switch (TYPES[types[row]]) {
+            case TASK -> new Task(name, description, status, duration, start);
+            case SUBTASK -> new Subtask(name, description, status, duration, start, epicIds[row]);
+            case EPIC -> {
+                Epic epic = new Epic(name, description);
+                epic.setStatus(status);
+                epic.setDuration(duration);
+                epic.setStartTime(start);
+                yield epic;
+            }
+        };
+        item.setId(ids[row]);
+        item.setEndTime(toTime(ends[row]));
+        item.setVersion(versions[row]);
+        return item;
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toTime(long seconds) {
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private int find(int id) {
+        int position = position(id);
+        return position < 0 ? -1 : table[position] - 1;
+    }
+
+    private int position(int id) {
+        for (int i = hash(id) & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (ids[table[i] - 1] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void link(int row) {
+        int i = hash(ids[row]) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = row + 1;
+    }
+
+    // Удаление со сдвигом назад: следующие записи кластера подтягиваются, чтобы поиск не прерывался на дыре
+    private void unlink(int id) {
+        int hole = position(id);
+        for (int i = (hole + 1) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int home = hash(ids[table[i] - 1]) & mask;
+            boolean movable = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+            if (movable) {
+                table[hole] = table[i];
+                hole = i;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        types = new byte[capacity];
+        statuses = new byte[capacity];
+        names = new int[capacity];
+        descriptions = new int[capacity];
+        epicIds = new int[capacity];
+        starts = new long[capacity];
+        durations = new long[capacity];
+        ends = new long[capacity];
+        versions = new long[capacity];
+        table = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        mask = table.length - 1;
+    }
+
+    // Столбцы растут в полтора раза: на миллионах записей незанятый хвост десяти массивов заметен
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        epicIds = Arrays.copyOf(epicIds, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) * 2;
+        if (tableSize > table.length) {
+            table = new int[tableSize];
+            mask = table.length - 1;
+            for (int row = 0; row < size; row++) {
+                link(row);
+            }
+        }
+    }
+}
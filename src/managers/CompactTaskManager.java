@@ -0,0 +1,879 @@
+package managers;
+
+import exception.TaskOverlapException;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+import util.IntHashMap;
+import util.IntLinkedSet;
+import util.LongIntSortedSet;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Менеджер без объектов задач: записи лежат в TaskStore, задачи, эпики и подзадачи собираются заново
+// при каждом чтении. Изменения полученного объекта не сохраняются, пока его не передадут в update.
+// Собственные индексы менеджера хранят только id и примитивы: подзадачи эпика, история, порядок по времени
+// начала, сводки эпиков; индекс интервалов тоже лежит в массивах примитивов.
+// Выигрыш в памяти умеренный: в куче на каждую запись остаются массивы поискового индекса и индекса имён.
+// При 1 млн записей со временем и без него: InMemoryTaskManager — около 490 и 230 байт на запись,
+// с ColumnarTaskStore — 330 и 215, с OffHeapTaskStore — 265 и 150.
+// Записи всех типов делят одно хранилище, поэтому id не может принадлежать двум записям сразу.
+// Время хранится с точностью до секунды. Без синхронизации, как InMemoryTaskManager
+public class CompactTaskManager implements TaskManager {
+    private final TaskStore store;
+    // id по типам в порядке возрастания — для обхода и постраничной выдачи
+    private final BitSet taskIds = new BitSet();
+    private final BitSet epicIds = new BitSet();
+    private final BitSet subtaskIds = new BitSet();
+    // Подзадачи каждого эпика в порядке добавления
+    private final IntHashMap<IntLinkedSet> subtasksByEpic = new IntHashMap<>();
+    // Счётчики статусов и времена подзадач каждого эпика — статус и время эпика без обхода подзадач
+    private final IntHashMap<EpicRollup> rollups = new IntHashMap<>();
+    // Просмотренные записи, последний просмотр — в конце
+    private final IntLinkedSet history = new IntLinkedSet();
+    // Пары (начало в секундах, id) задач и подзадач со временем начала — список приоритетов
+    private final LongIntSortedSet byStartTime = new LongIntSortedSet();
+    private final TimeIntervalIndex timeIndex = new TimeIntervalIndex();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final NamePrefixIndex nameIndex = new NamePrefixIndex();
+    private final DependencyGraph dependencies = new DependencyGraph();
+    private final TaskEventBus events = new TaskEventBus();
+    private int counter = 1;
+
+    public CompactTaskManager(TaskStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return streamTasks().collect(Collectors.toList());
+    }
+
+    @Override
+    public void removeTasks() {
+        inBatch(() -> {
+            taskIds.stream().forEach(id -> removeRecord(id, eventView(id)));
+            taskIds.clear();
+        });
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return viewed(find(taskIds, id));
+    }
+
+    @Override
+    public void createTask(Task task) {
+        truncateToSeconds(task);
+        if (timeIndex.overlaps(task)) {
+            throw new TaskOverlapException("Ошибка: задача пересекается по времени с другой задачей.");
+        }
+        addTask(task);
+    }
+
+    // Пакет проверяется целиком до первой вставки: либо создаются все задачи, либо ни одной
+    @Override
+    public void createTasks(Collection<Task> tasks) {
+        tasks.forEach(CompactTaskManager::truncateToSeconds);
+        if (timeIndex.overlapsAny(tasks)) {
+            throw new TaskOverlapException("Ошибка: задачи пакета пересекаются по времени.");
+        }
+        inBatch(() -> {
+            for (Task task : tasks) {
+                addTask(task);
+            }
+        });
+    }
+
+    private void addTask(Task task) {
+        task.setId(counter++);
+        storeItem(task);
+        addToSchedule(task);
+        events.created(task);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        truncateToSeconds(task);
+        checkType(task);
+        if (timeIndex.overlaps(task)) {
+            throw new TaskOverlapException("Задача пересекается по времени");
+        }
+        Task before = eventView(task.getId());
+        removeFromSchedule(task.getId());
+        storeItem(task);
+        addToSchedule(task);
+        events.updated(before, task);
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        if (contains(taskIds, id)) {
+            removeRecord(id, eventView(id));
+            taskIds.clear(id);
+        }
+        history.remove(id);
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return streamEpics().collect(Collectors.toList());
+    }
+
+    @Override
+    public void removeEpics() {
+        inBatch(() -> {
+            subtaskIds.stream().forEach(id -> removeRecord(id, eventView(id)));
+            epicIds.stream().forEach(id -> removeRecord(id, eventView(id)));
+            subtaskIds.clear();
+            epicIds.clear();
+            subtasksByEpic.clear();
+            rollups.clear();
+        });
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return (Epic) viewed(find(epicIds, id));
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        if (epic.getId() == 0) {
+            epic.setId(counter++);
+        }
+        truncateToSeconds(epic);
+        checkType(epic);
+        Task before = eventView(epic.getId());
+        storeItem(epic);
+        events.updated(before, epic);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        if (!contains(epicIds, epic.getId())) {
+            return;
+        }
+        Task before = eventView(epic.getId());
+        Task current = store.get(epic.getId());
+        current.setName(epic.getName());
+        current.setDescription(epic.getDescription());
+        store.put(current);
+        searchIndex.add(current);
+        nameIndex.add(current);
+        refreshStatus(epic.getId());
+        if (before != null) {
+            events.updated(before, view(epic.getId()));
+        }
+    }
+
+    @Override
+    public void removeEpicById(int id) {
+        if (contains(epicIds, id)) {
+            inBatch(() -> {
+                // Подзадачи уходят раньше эпика, но в событии об удалении эпика их список ещё виден
+                Task before = eventView(id);
+                subtasksOf(id).forEach(subtaskId -> {
+                    removeRecord(subtaskId, eventView(subtaskId));
+                    subtaskIds.clear(subtaskId);
+                });
+                removeRecord(id, before);
+                epicIds.clear(id);
+                subtasksByEpic.remove(id);
+                rollups.remove(id);
+            });
+        }
+        history.remove(id);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return streamSubtasks().collect(Collectors.toList());
+    }
+
+    @Override
+    public void removeSubtasks() {
+        inBatch(() -> {
+            subtaskIds.stream().forEach(id -> removeRecord(id, eventView(id)));
+            subtaskIds.clear();
+            subtasksByEpic.clear();
+            rollups.clear();
+            epicIds.stream().forEach(id -> {
+                refreshStatus(id);
+                refreshTime(id);
+            });
+        });
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return (Subtask) viewed(find(subtaskIds, id));
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) {
+        if (!contains(epicIds, subtask.getEpicId())) {
+            System.out.println("Ошибка: Эпик с ID " + subtask.getEpicId() + " не найден.");
+            return;
+        }
+        truncateToSeconds(subtask);
+        if (timeIndex.overlaps(subtask)) {
+            throw new TaskOverlapException("Ошибка: сабтакс пересекается по времени с другой задачей.");
+        }
+        subtask.setId(counter++);
+        insertSubtask(subtask);
+        refreshStatus(subtask.getEpicId());
+        refreshTime(subtask.getEpicId());
+    }
+
+    // Статус и время каждого затронутого эпика пересчитываются один раз после вставки всего пакета
+    @Override
+    public void createSubtasks(Collection<Subtask> subtasks) {
+        for (Subtask subtask : subtasks) {
+            if (!contains(epicIds, subtask.getEpicId())) {
+                throw new IllegalArgumentException("Эпик с ID " + subtask.getEpicId() + " не найден.");
+            }
+            truncateToSeconds(subtask);
+        }
+        if (timeIndex.overlapsAny(subtasks)) {
+            throw new TaskOverlapException("Ошибка: подзадачи пакета пересекаются по времени.");
+        }
+        inBatch(() -> {
+            Set<Integer> touchedEpics = new LinkedHashSet<>();
+            for (Subtask subtask : subtasks) {
+                subtask.setId(counter++);
+                insertSubtask(subtask);
+                touchedEpics.add(subtask.getEpicId());
+            }
+            for (int epicId : touchedEpics) {
+                refreshStatus(epicId);
+                refreshTime(epicId);
+            }
+        });
+    }
+
+    private void insertSubtask(Subtask subtask) {
+        storeItem(subtask);
+        addToSchedule(subtask);
+        subtasksOf(subtask.getEpicId()).add(subtask.getId());
+        addToRollup(subtask);
+        events.created(subtask);
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        int id = subtask.getId();
+        if (!contains(subtaskIds, id)) {
+            return;
+        }
+        truncateToSeconds(subtask);
+        if (timeIndex.overlaps(subtask)) {
+            throw new TaskOverlapException("Подзадача пересекается по времени");
+        }
+        int oldEpicId = store.getEpicId(id);
+        if (!contains(epicIds, subtask.getEpicId())) {
+            // Подзадача не может остаться без эпика — оставляем её в прежнем
+            subtask.setEpicId(oldEpicId);
+        }
+        Task before = eventView(id);
+        removeFromSchedule(id);
+        removeFromRollup(id);
+        storeItem(subtask);
+        addToSchedule(subtask);
+        addToRollup(subtask);
+        if (subtask.getEpicId() != oldEpicId) {
+            subtasksOf(oldEpicId).remove(id);
+            refreshStatus(oldEpicId);
+            refreshTime(oldEpicId);
+            subtasksOf(subtask.getEpicId()).add(id);
+        }
+        refreshStatus(subtask.getEpicId());
+        refreshTime(subtask.getEpicId());
+        events.updated(before, subtask);
+    }
+
+    @Override
+    public void removeSubtaskById(int id) {
+        if (!contains(subtaskIds, id)) {
+            return;
+        }
+        int epicId = store.getEpicId(id);
+        removeFromRollup(id);
+        removeRecord(id, eventView(id));
+        subtaskIds.clear(id);
+        subtasksOf(epicId).remove(id);
+        refreshStatus(epicId);
+        refreshTime(epicId);
+    }
+
+    @Override
+    public long updateIfVersion(Task item, long expectedVersion) {
+        int id = item.getId();
+        if (!store.contains(id) || store.getType(id) != item.getType() || store.getVersion(id) != expectedVersion) {
+            return -1;
+        }
+        switch (item.getType()) {
+            case TASK -> updateTask(item);
+            case SUBTASK -> updateSubtask((Subtask) item);
+            case EPIC -> updateEpic((Epic) item);
+        }
+        return store.getVersion(id);
+    }
+
+    @Override
+    public Task getById(int id) {
+        return viewed(findById(id));
+    }
+
+    @Override
+    public Task findById(int id) {
+        return store.contains(id) ? view(id) : null;
+    }
+
+    @Override
+    public void restore(Task item) {
+        counter = Math.max(counter, item.getId() + 1);
+        switch (item.getType()) {
+            case EPIC -> {
+                createEpic((Epic) item);
+                refreshStatus(item.getId());
+                refreshTime(item.getId());
+            }
+            case SUBTASK -> {
+                Subtask subtask = (Subtask) item;
+                if (!contains(epicIds, subtask.getEpicId())) {
+                    throw new IllegalArgumentException("Эпик с ID " + subtask.getEpicId() + " не найден.");
+                }
+                truncateToSeconds(subtask);
+                checkType(subtask);
+                if (timeIndex.overlaps(subtask)) {
+                    throw new TaskOverlapException("Подзадача пересекается по времени");
+                }
+                insertSubtask(subtask);
+                refreshStatus(subtask.getEpicId());
+                refreshTime(subtask.getEpicId());
+            }
+            default -> updateTask(item);
+        }
+    }
+
+    @Override
+    public void runBatch(Runnable operations) {
+        inBatch(operations);
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener) {
+        events.subscribe(listener, null);
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener, Executor executor) {
+        events.subscribe(listener, executor);
+    }
+
+    @Override
+    public void removeListener(TaskEventListener listener) {
+        events.unsubscribe(listener);
+    }
+
+    // События пакета уходят подписчикам одной пачкой после его окончания
+    private void inBatch(Runnable operations) {
+        events.beginBatch();
+        try {
+            operations.run();
+        } finally {
+            events.endBatch();
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        List<Subtask> result = new ArrayList<>();
+        if (contains(epicIds, epicId)) {
+            subtasksOf(epicId).forEach(id -> result.add((Subtask) view(id)));
+        }
+        return result;
+    }
+
+    // Подзадачи без времени начала — в конце, в порядке добавления: сортировка устойчивая
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId, boolean sortedByTime) {
+        List<Subtask> result = getSubtasksByEpicId(epicId);
+        if (sortedByTime) {
+            result.sort((s1, s2) -> s1.getStartTime() == null || s2.getStartTime() == null
+                    ? Boolean.compare(s1.getStartTime() == null, s2.getStartTime() == null)
+                    : StartTimeOrder.COMPARATOR.compare(s1, s2));
+        }
+        return result;
+    }
+
+    @Override
+    public void updateEpicStatus(Epic epic) {
+        if (contains(epicIds, epic.getId())) {
+            refreshStatus(epic.getId());
+            epic.setStatus(store.getStatus(epic.getId()));
+            epic.setVersion(store.getVersion(epic.getId()));
+        }
+    }
+
+    @Override
+    public void updateEpicTime(Epic epic) {
+        if (contains(epicIds, epic.getId())) {
+            refreshTime(epic.getId());
+            epic.setStartTime(store.getStartTime(epic.getId()));
+            epic.setEndTime(store.getEndTime(epic.getId()));
+            epic.setDuration(store.getDuration(epic.getId()));
+            epic.setVersion(store.getVersion(epic.getId()));
+        }
+    }
+
+    private void refreshStatus(int epicId) {
+        EpicRollup rollup = rollups.get(epicId);
+        store.setStatus(epicId, rollup == null ? Status.NEW : rollup.getStatus());
+        store.setVersion(epicId, store.getVersion(epicId) + 1);
+    }
+
+    // Начало — самое раннее начало подзадач, конец — самый поздний конец, как в EpicTimeline
+    private void refreshTime(int epicId) {
+        EpicRollup rollup = rollups.get(epicId);
+        LocalDateTime startTime = rollup == null ? null : rollup.getStartTime();
+        LocalDateTime endTime = rollup == null ? null : rollup.getEndTime();
+        Duration duration = Duration.ZERO;
+        if (startTime != null && endTime != null) {
+            duration = Duration.between(startTime, endTime);
+        }
+        store.setTime(epicId, startTime, duration, endTime);
+        store.setVersion(epicId, store.getVersion(epicId) + 1);
+    }
+
+    private void addToRollup(Subtask subtask) {
+        rollups.computeIfAbsent(subtask.getEpicId(), id -> new EpicRollup())
+                .add(subtask.getId(), subtask.getStatus(), subtask.getStartTime(), subtask.getDuration());
+    }
+
+    // Вызывается до того, как запись в хранилище изменится: убираются поля, с которыми подзадача добавлялась
+    private void removeFromRollup(int subtaskId) {
+        EpicRollup rollup = rollups.get(store.getEpicId(subtaskId));
+        if (rollup != null) {
+            rollup.remove(subtaskId, store.getStatus(subtaskId), store.getStartTime(subtaskId),
+                    store.getDuration(subtaskId));
+        }
+    }
+
+    private IntLinkedSet subtasksOf(int epicId) {
+        return subtasksByEpic.computeIfAbsent(epicId, id -> new IntLinkedSet());
+    }
+
+    // Версия продолжает версию заменяемой записи; восстановленная запись продолжает свою
+    private void storeItem(Task item) {
+        int id = item.getId();
+        item.setVersion((store.contains(id) ? store.getVersion(id) : item.getVersion()) + 1);
+        store.put(item);
+        idsOf(item.getType()).set(id);
+        // Следующий выданный id не должен совпасть с заданным вручную
+        counter = Math.max(counter, id + 1);
+        searchIndex.add(item);
+        if (item.getType() != TaskType.SUBTASK) {
+            nameIndex.add(item);
+        }
+        dependencies.setDuration(id, item.getDuration());
+    }
+
+    // Убирает запись из хранилища и индексов; id в списках по типам и у эпика убирает вызывающий
+    private void removeRecord(int id, Task before) {
+        removeFromSchedule(id);
+        searchIndex.remove(id);
+        nameIndex.remove(id);
+        dependencies.removeNode(id);
+        history.remove(id);
+        store.remove(id);
+        if (before != null) {
+            events.removed(before);
+        }
+    }
+
+    // Запись с тем же id другого типа заменить нельзя: у неё свои индексы и подзадачи
+    private void checkType(Task item) {
+        int id = item.getId();
+        if (store.contains(id) && store.getType(id) != item.getType()) {
+            throw new IllegalArgumentException("Запись с id " + id + " уже есть и имеет другой тип");
+        }
+    }
+
+    // Хранилище держит время с точностью до секунды — индексы должны видеть то же, что вернёт чтение
+    private static void truncateToSeconds(Task item) {
+        if (item.getStartTime() != null) {
+            item.setStartTime(item.getStartTime().truncatedTo(ChronoUnit.SECONDS));
+        }
+        if (item.getEndTime() != null) {
+            item.setEndTime(item.getEndTime().truncatedTo(ChronoUnit.SECONDS));
+        }
+        if (item.getDuration() != null) {
+            item.setDuration(Duration.ofSeconds(item.getDuration().getSeconds()));
+        }
+    }
+
+    private void addToSchedule(Task task) {
+        if (task.getStartTime() != null) {
+            byStartTime.add(seconds(task.getStartTime()), task.getId());
+        }
+        timeIndex.add(task);
+    }
+
+    // Вызывается до того, как запись в хранилище изменится: ключ в порядке приоритетов — прежнее начало
+    private void removeFromSchedule(int id) {
+        if (store.contains(id) && store.getStartTime(id) != null) {
+            byStartTime.remove(seconds(store.getStartTime(id)), id);
+        }
+        timeIndex.remove(id);
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Начало записи в целых секундах не раньше time тогда и только тогда, когда оно не раньше ceil(time)
+    private static long ceilSeconds(LocalDateTime time) {
+        return seconds(time) + (time.getNano() > 0 ? 1 : 0);
+    }
+
+    private BitSet idsOf(TaskType type) {
+        return switch (type) {
+            case EPIC -> epicIds;
+            case SUBTASK -> subtaskIds;
+            default -> taskIds;
+        };
+    }
+
+    private static boolean contains(BitSet ids, int id) {
+        return id >= 0 && ids.get(id);
+    }
+
+    private Task find(BitSet ids, int id) {
+        return contains(ids, id) ? view(id) : null;
+    }
+
+    private Task viewed(Task item) {
+        if (item != null) {
+            history.remove(item.getId());
+            history.add(item.getId());
+        }
+        return item;
+    }
+
+    // Задача из записи; у эпика — с подзадачами из индекса менеджера
+    private Task view(int id) {
+        Task item = store.get(id);
+        if (item instanceof Epic epic) {
+            IntLinkedSet subtasks = subtasksByEpic.get(id);
+            if (subtasks != null) {
+                subtasks.forEach(epic::addSubtaskId);
+            }
+        }
+        return item;
+    }
+
+    // Состояние записи для события; без подписчиков объект не собирается
+    private Task eventView(int id) {
+        return events.hasListeners() && store.contains(id) ? view(id) : null;
+    }
+
+    private Stream<Task> views(PrimitiveIterator.OfInt ids) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(ids, Spliterator.ORDERED), false)
+                .map(this::view);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return streamHistory().collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return streamPrioritizedTasks().collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return streamPrioritizedTasks(from, to).collect(Collectors.toList());
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore) {
+        return timeIndex.findFreeSlot(notBefore, duration);
+    }
+
+    @Override
+    public List<DayOccupancy> getTimeline(LocalDate from, LocalDate to) {
+        return timeIndex.occupancy(from, to);
+    }
+
+    @Override
+    public boolean isMinuteFree(LocalDateTime time) {
+        return !timeIndex.isMinuteBusy(time);
+    }
+
+    @Override
+    public void addDependency(int id, int dependsOnId) {
+        checkDependencyItem(id);
+        checkDependencyItem(dependsOnId);
+        dependencies.add(dependsOnId, store.getDuration(dependsOnId), id, store.getDuration(id));
+    }
+
+    @Override
+    public void removeDependency(int id, int dependsOnId) {
+        dependencies.remove(dependsOnId, id);
+    }
+
+    @Override
+    public List<Integer> getDependencies(int id) {
+        List<Integer> result = new ArrayList<>();
+        for (int dependsOnId : dependencies.predecessors(id)) {
+            result.add(dependsOnId);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Integer> getDependents(int id) {
+        List<Integer> result = new ArrayList<>();
+        for (int dependentId : dependencies.successors(id)) {
+            result.add(dependentId);
+        }
+        return result;
+    }
+
+    @Override
+    public CriticalPath getCriticalPath(int epicId) {
+        if (!contains(epicIds, epicId)) {
+            return null;
+        }
+        return dependencies.criticalPath(epicId, subtasksOf(epicId).toArray(), store::getDuration);
+    }
+
+    private void checkDependencyItem(int id) {
+        if (!contains(taskIds, id) && !contains(subtaskIds, id)) {
+            throw new IllegalArgumentException("Задача или подзадача с id " + id + " не найдена");
+        }
+    }
+
+    @Override
+    public List<Task> autoSchedule(Collection<Integer> ids, LocalDateTime notBefore) {
+        List<Task> candidates = AutoSchedule.candidates(this, ids);
+        List<LocalDateTime> starts = timeIndex.pack(notBefore, AutoSchedule.durations(candidates));
+        List<Task> scheduled = new ArrayList<>(candidates.size());
+        runBatch(() -> {
+            for (int i = 0; i < candidates.size(); i++) {
+                Task item = AutoSchedule.withStartTime(candidates.get(i), starts.get(i));
+                if (item.getType() == TaskType.SUBTASK) {
+                    updateSubtask((Subtask) item);
+                } else {
+                    updateTask(item);
+                }
+                scheduled.add(item);
+            }
+        });
+        return scheduled;
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        List<Task> result = new ArrayList<>();
+        for (int id : searchIndex.search(query, limit)) {
+            result.add(view(id));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> suggest(String prefix, int limit) {
+        List<Task> result = new ArrayList<>();
+        for (int id : nameIndex.suggest(prefix, limit)) {
+            result.add(view(id));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return page(taskIds, Task.class, afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return page(epicIds, Epic.class, afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return page(subtaskIds, Subtask.class, afterId, limit);
+    }
+
+    // Следующие limit записей с id больше afterId
+    private <T extends Task> List<T> page(BitSet ids, Class<T> type, int afterId, int limit) {
+        List<T> result = new ArrayList<>();
+        if (afterId == Integer.MAX_VALUE) {
+            return result;
+        }
+        int id = ids.nextSetBit(Math.max(0, afterId + 1));
+        while (id >= 0 && result.size() < limit) {
+            result.add(type.cast(view(id)));
+            id = id == Integer.MAX_VALUE ? -1 : ids.nextSetBit(id + 1);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> getHistory(int afterId, int limit) {
+        if (afterId != 0 && !history.contains(afterId)) {
+            throw new IllegalArgumentException("Задача с id " + afterId + " не найдена в истории");
+        }
+        PrimitiveIterator.OfInt ids = afterId == 0 ? history.iterator() : history.iteratorAfter(afterId);
+        return views(ids).limit(limit).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(int afterId, int limit) {
+        return getPrioritizedTasks(null, null, afterId, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int afterId, int limit) {
+        long fromKey = from == null ? Long.MIN_VALUE : ceilSeconds(from);
+        int fromId = Integer.MIN_VALUE;
+        long toKey = to == null ? Long.MAX_VALUE : ceilSeconds(to);
+        if (afterId != 0) {
+            if ((!contains(taskIds, afterId) && !contains(subtaskIds, afterId)) || store.getStartTime(afterId) == null) {
+                throw new IllegalArgumentException("Задача с id " + afterId + " не найдена в списке приоритетов");
+            }
+            StartTimeOrder.checkCursorTime(store.getStartTime(afterId), afterId, from, to);
+            fromKey = seconds(store.getStartTime(afterId));
+            fromId = afterId + 1;
+            if (afterId == Integer.MAX_VALUE) {
+                fromKey++;
+                fromId = Integer.MIN_VALUE;
+            }
+        }
+        return views(byStartTime.valuesFrom(fromKey, fromId, toKey)).limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    // Записи отдаются из хранилища через один переиспользуемый курсор — объект задачи не собирается
+    @Override
+    public void writeAll(TaskType type, TaskWriter writer) throws IOException {
+        StoredRecord record = new StoredRecord();
+        BitSet ids = idsOf(type);
+        for (int id = ids.nextSetBit(0); id >= 0; id = id == Integer.MAX_VALUE ? -1 : ids.nextSetBit(id + 1)) {
+            record.id = id;
+            writer.write(record);
+        }
+    }
+
+    private class StoredRecord implements TaskRecord {
+        int id;
+
+        @Override
+        public TaskType getType() {
+            return store.getType(id);
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return store.getName(id);
+        }
+
+        @Override
+        public String getDescription() {
+            return store.getDescription(id);
+        }
+
+        @Override
+        public Status getStatus() {
+            return store.getStatus(id);
+        }
+
+        @Override
+        public int getEpicId() {
+            return store.getEpicId(id);
+        }
+
+        @Override
+        public int[] getSubtaskIds() {
+            IntLinkedSet subtasks = subtasksByEpic.get(id);
+            return subtasks == null ? new int[0] : subtasks.toArray();
+        }
+
+        @Override
+        public Duration getDuration() {
+            return store.getDuration(id);
+        }
+
+        @Override
+        public LocalDateTime getStartTime() {
+            return store.getStartTime(id);
+        }
+
+        @Override
+        public LocalDateTime getEndTime() {
+            return store.getEndTime(id);
+        }
+
+        @Override
+        public long getVersion() {
+            return store.getVersion(id);
+        }
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+        return taskIds.stream().mapToObj(this::view);
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return epicIds.stream().mapToObj(id -> (Epic) view(id));
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return subtaskIds.stream().mapToObj(id -> (Subtask) view(id));
+    }
+
+    @Override
+    public Stream<Task> streamHistory() {
+        return views(history.iterator());
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks() {
+        return views(byStartTime.valuesFrom(Long.MIN_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return Stream.empty();
+        }
+        long fromKey = from == null ? Long.MIN_VALUE : ceilSeconds(from);
+        long toKey = to == null ? Long.MAX_VALUE : ceilSeconds(to);
+        return views(byStartTime.valuesFrom(fromKey, Integer.MIN_VALUE, toKey));
+    }
+}
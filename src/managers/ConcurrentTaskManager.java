@@ -0,0 +1,1080 @@
+package managers;
+
+import exception.TaskOverlapException;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+import util.PersistentSortedSet;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Потокобезопасный менеджер для многопоточного HTTP-сервера.
+// Сводные данные эпика (подзадачи, статус, время) меняются под блокировкой самого эпика,
+// поэтому записи в разные эпики идут параллельно. Проверка пересечения по времени и вставка
+// в расписание выполняются под одной блокировкой расписания и потому линеаризуемы.
+// Списки читаются из неизменяемого снимка: каждая запись публикует новую версию,
+// а чтение берёт текущую без блокировок и копирования.
+public class ConcurrentTaskManager implements TaskManager {
+    private static final long NO_VERSION = -1;
+
+    private final ConcurrentMap<Integer, Task> taskMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Epic> epicMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Subtask> subtaskMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Task> itemsById = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, EpicTimeline> epicTimelines = new ConcurrentHashMap<>();
+    private final AtomicInteger counter = new AtomicInteger(1);
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private final TimeIntervalIndex timeIndex = new TimeIntervalIndex();
+    // Граф зависимостей защищён собственным монитором
+    private final DependencyGraph dependencies = new DependencyGraph();
+    // Синхронные подписчики могут вызываться под монитором эпика — им нельзя ждать другие потоки
+    private final TaskEventBus events = new TaskEventBus();
+    private final ReentrantLock scheduleLock = new ReentrantLock();
+
+    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    // Оба текстовых индекса меняются под монитором searchIndex
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final NamePrefixIndex nameIndex = new NamePrefixIndex();
+    // Блокировка для подзадач, чей эпик уже удалён
+    private final Object orphanLock = new Object();
+
+    @Override
+    public List<Task> getTasks() {
+        return snapshot.get().tasks.asList();
+    }
+
+    @Override
+    public void removeTasks() {
+        inBatch(() -> {
+            for (Task task : taskMap.values()) {
+                boolean removed;
+                scheduleLock.lock();
+                try {
+                    removed = taskMap.remove(task.getId(), task);
+                    if (removed) {
+                        unpublish(task);
+                        unindexItem(task);
+                    }
+                } finally {
+                    scheduleLock.unlock();
+                }
+                if (removed) {
+                    events.removed(task);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        Task task = taskMap.get(id);
+        addToHistory(task);
+        return task;
+    }
+
+    @Override
+    public void createTask(Task task) {
+        schedule(null, task, "Ошибка: задача пересекается по времени с другой задачей.", () -> {
+            task.setId(counter.getAndIncrement());
+            taskMap.put(task.getId(), task);
+            indexItem(task);
+        });
+        events.created(task);
+    }
+
+    @Override
+    public void createTasks(Collection<Task> tasks) {
+        scheduleLock.lock();
+        try {
+            if (timeIndex.overlapsAny(tasks)) {
+                throw new TaskOverlapException("Ошибка: задачи пакета пересекаются по времени.");
+            }
+            for (Task task : tasks) {
+                task.setId(counter.getAndIncrement());
+                taskMap.put(task.getId(), task);
+                indexItem(task);
+                addToSchedule(task);
+            }
+            snapshot.updateAndGet(current -> current.putAll(tasks));
+        } finally {
+            scheduleLock.unlock();
+        }
+        inBatch(() -> {
+            for (Task task : tasks) {
+                events.created(task);
+            }
+        });
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        replaceTask(task, null);
+    }
+
+    // expectedVersion == null — обновление без условия на версию
+    private long replaceTask(Task task, Long expectedVersion) {
+        // У задачи нет эпика, поэтому замену прежней версии в расписании сериализует блокировка расписания
+        Task oldTask;
+        long version;
+        scheduleLock.lock();
+        try {
+            if (!hasVersion(taskMap.get(task.getId()), expectedVersion)) {
+                return NO_VERSION;
+            }
+            if (timeIndex.overlaps(task)) {
+                throw new TaskOverlapException("Задача пересекается по времени");
+            }
+            oldTask = taskMap.put(task.getId(), task);
+            indexItem(task);
+            version = task.getVersion();
+            if (oldTask != null) {
+                removeFromSchedule(oldTask);
+            }
+            addToSchedule(task);
+            Task replaced = oldTask;
+            snapshot.updateAndGet(current -> current.put(replaced, task));
+        } finally {
+            scheduleLock.unlock();
+        }
+        events.updated(oldTask, task);
+        return version;
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        // Та же блокировка, что у replaceTask: иначе снимок, удаляющий запись по id, может потерять
+        // только что сохранённую замену
+        Task task;
+        scheduleLock.lock();
+        try {
+            task = taskMap.remove(id);
+            if (task != null) {
+                unpublish(task);
+                unindexItem(task);
+            }
+        } finally {
+            scheduleLock.unlock();
+        }
+        removeFromHistory(id);
+        if (task != null) {
+            events.removed(task);
+        }
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return snapshot.get().epics.asList();
+    }
+
+    @Override
+    public void removeEpics() {
+        inBatch(() -> {
+            for (Epic epic : epicMap.values()) {
+                synchronized (epic) {
+                    if (epicMap.remove(epic.getId(), epic)) {
+                        removeEpicContents(epic);
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        Epic epic = epicMap.get(id);
+        addToHistory(epic);
+        return epic;
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        if (epic.getId() == 0) {
+            epic.setId(counter.getAndIncrement());
+        }
+        Epic oldEpic;
+        synchronized (epic) {
+            // Счётчики не сериализуются — у эпика, заменяющего прежний, их нужно пересчитать по подзадачам
+            recountEpicStatus(epic);
+            oldEpic = epicMap.put(epic.getId(), epic);
+            indexItem(epic);
+            publishEpic(epic);
+        }
+        events.updated(oldEpic, epic);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        replaceEpic(epic, null);
+    }
+
+    private long replaceEpic(Epic epic, Long expectedVersion) {
+        Epic existingEpic = epicMap.get(epic.getId());
+        if (existingEpic == null) {
+            return NO_VERSION;
+        }
+        synchronized (existingEpic) {
+            if (!hasVersion(existingEpic, expectedVersion)) {
+                return NO_VERSION;
+            }
+            Epic before = events.hasListeners() ? copyOf(existingEpic) : null;
+            existingEpic.setName(epic.getName());
+            existingEpic.setDescription(epic.getDescription());
+            synchronized (searchIndex) {
+                searchIndex.add(existingEpic);
+                nameIndex.add(existingEpic);
+            }
+            updateEpicStatus(existingEpic);
+            if (before != null) {
+                events.updated(before, existingEpic);
+            }
+            return existingEpic.getVersion();
+        }
+    }
+
+    private static Epic copyOf(Epic epic) {
+        Epic copy = new Epic(epic.getName(), epic.getDescription());
+        copy.setId(epic.getId());
+        copy.setVersion(epic.getVersion());
+        return copy;
+    }
+
+    @Override
+    public void removeEpicById(int id) {
+        Epic epic = epicMap.get(id);
+        if (epic != null) {
+            inBatch(() -> {
+                synchronized (epic) {
+                    if (epicMap.remove(id, epic)) {
+                        removeEpicContents(epic);
+                    }
+                }
+            });
+        }
+        removeFromHistory(id);
+    }
+
+    private void removeEpicContents(Epic epic) {
+        unindexItem(epic);
+        snapshot.updateAndGet(current -> current.remove(epic));
+        epicTimelines.remove(epic.getId());
+        epic.forEachSubtaskId(subtaskId -> {
+            Subtask subtask = subtaskMap.remove(subtaskId);
+            if (subtask != null) {
+                unpublish(subtask);
+                unindexItem(subtask);
+                events.removed(subtask);
+            }
+        });
+        events.removed(epic);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return snapshot.get().subtasks.asList();
+    }
+
+    @Override
+    public void removeSubtasks() {
+        inBatch(() -> {
+            for (Epic epic : epicMap.values()) {
+                synchronized (epic) {
+                    epic.forEachSubtaskId(subtaskId -> {
+                        Subtask subtask = subtaskMap.remove(subtaskId);
+                        if (subtask != null) {
+                            unpublish(subtask);
+                            unindexItem(subtask);
+                            events.removed(subtask);
+                        }
+                    });
+                    epic.clearSubtaskIds();
+                    epic.resetStatusCounts();
+                    epicTimelines.remove(epic.getId());
+                    updateEpicStatus(epic);
+                    updateEpicTime(epic);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        Subtask subtask = subtaskMap.get(id);
+        addToHistory(subtask);
+        return subtask;
+    }
+
+    @Override
+    public Task getById(int id) {
+        Task item = itemsById.get(id);
+        addToHistory(item);
+        return item;
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) {
+        if (!insertSubtask(subtask, true)) {
+            System.out.println("Ошибка: Эпик с ID " + subtask.getEpicId() + " не найден.");
+        }
+    }
+
+    // false — если эпик подзадачи не найден
+    private boolean insertSubtask(Subtask subtask, boolean assignId) {
+        Epic epic = epicMap.get(subtask.getEpicId());
+        if (epic == null) {
+            return false;
+        }
+        synchronized (epic) {
+            if (epicMap.get(epic.getId()) != epic) {
+                return false;
+            }
+            schedule(null, subtask, "Ошибка: сабтакс пересекается по времени с другой задачей.", () -> {
+                if (assignId) {
+                    subtask.setId(counter.getAndIncrement());
+                }
+                subtaskMap.put(subtask.getId(), subtask);
+                indexItem(subtask);
+            });
+            epic.addSubtaskId(subtask.getId());
+            epic.incrementStatusCount(subtask.getStatus());
+            timelineOf(epic).add(subtask);
+            updateEpicStatus(epic);
+            updateEpicTime(epic);
+        }
+        events.created(subtask);
+        return true;
+    }
+
+    // Мониторы всех затронутых эпиков берутся по возрастанию id, затем блокировка расписания
+    @Override
+    public void createSubtasks(Collection<Subtask> subtasks) {
+        Map<Integer, Epic> epics = new LinkedHashMap<>();
+        for (Subtask subtask : subtasks) {
+            Epic epic = epicMap.get(subtask.getEpicId());
+            if (epic == null) {
+                throw new IllegalArgumentException("Эпик с ID " + subtask.getEpicId() + " не найден.");
+            }
+            epics.put(epic.getId(), epic);
+        }
+        List<Epic> lockOrder = new ArrayList<>(epics.values());
+        lockOrder.sort(Comparator.comparingInt(Epic::getId));
+        withEpicsLocked(lockOrder, 0, () -> {
+            for (Epic epic : lockOrder) {
+                if (epicMap.get(epic.getId()) != epic) {
+                    throw new IllegalArgumentException("Эпик с ID " + epic.getId() + " не найден.");
+                }
+            }
+            scheduleLock.lock();
+            try {
+                if (timeIndex.overlapsAny(subtasks)) {
+                    throw new TaskOverlapException("Ошибка: подзадачи пакета пересекаются по времени.");
+                }
+                for (Subtask subtask : subtasks) {
+                    subtask.setId(counter.getAndIncrement());
+                    subtaskMap.put(subtask.getId(), subtask);
+                    indexItem(subtask);
+                    addToSchedule(subtask);
+                }
+                snapshot.updateAndGet(current -> current.putAll(subtasks));
+            } finally {
+                scheduleLock.unlock();
+            }
+            for (Subtask subtask : subtasks) {
+                Epic epic = epics.get(subtask.getEpicId());
+                epic.addSubtaskId(subtask.getId());
+                epic.incrementStatusCount(subtask.getStatus());
+                timelineOf(epic).add(subtask);
+            }
+            for (Epic epic : lockOrder) {
+                updateEpicStatus(epic);
+                updateEpicTime(epic);
+            }
+        });
+        inBatch(() -> {
+            for (Subtask subtask : subtasks) {
+                events.created(subtask);
+            }
+        });
+    }
+
+    private void withEpicsLocked(List<Epic> epics, int index, Runnable action) {
+        if (index == epics.size()) {
+            action.run();
+            return;
+        }
+        synchronized (epics.get(index)) {
+            withEpicsLocked(epics, index + 1, action);
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        replaceSubtask(subtask, null);
+    }
+
+    private long replaceSubtask(Subtask subtask, Long expectedVersion) {
+        int id = subtask.getId();
+        Subtask replaced;
+        long version;
+        while (true) {
+            Subtask oldSubtask = subtaskMap.get(id);
+            if (oldSubtask == null) {
+                return NO_VERSION;
+            }
+            Epic oldEpic = epicMap.get(oldSubtask.getEpicId());
+            Epic epic = epicMap.get(subtask.getEpicId());
+            if (epic == null) {
+                epic = oldEpic;
+            }
+            // Два эпика блокируются в порядке id, чтобы не было взаимоблокировки
+            Object first = lockOf(oldEpic);
+            Object second = lockOf(epic);
+            if (oldEpic != null && epic != null && epic.getId() < oldEpic.getId()) {
+                first = lockOf(epic);
+                second = lockOf(oldEpic);
+            }
+            synchronized (first) {
+                synchronized (second) {
+                    if (subtaskMap.get(id) != oldSubtask) {
+                        continue;
+                    }
+                    if (!hasVersion(oldSubtask, expectedVersion)) {
+                        return NO_VERSION;
+                    }
+                    if (epic != null) {
+                        subtask.setEpicId(epic.getId());
+                    }
+                    schedule(oldSubtask, subtask, "Подзадача пересекается по времени", () -> {
+                        subtaskMap.put(id, subtask);
+                        indexItem(subtask);
+                    });
+                    version = subtask.getVersion();
+                    if (oldEpic != null) {
+                        oldEpic.decrementStatusCount(oldSubtask.getStatus());
+                        timelineOf(oldEpic).remove(id);
+                        if (oldEpic != epic) {
+                            oldEpic.removeSubtaskId(id);
+                            updateEpicStatus(oldEpic);
+                            updateEpicTime(oldEpic);
+                        }
+                    }
+                    if (epic != null) {
+                        if (oldEpic != epic) {
+                            epic.addSubtaskId(id);
+                        }
+                        if (oldSubtask == subtask) {
+                            recountEpicStatus(epic);
+                        } else {
+                            epic.incrementStatusCount(subtask.getStatus());
+                        }
+                        timelineOf(epic).add(subtask);
+                        updateEpicStatus(epic);
+                        updateEpicTime(epic);
+                    }
+                    replaced = oldSubtask;
+                    break;
+                }
+            }
+        }
+        events.updated(replaced, subtask);
+        return version;
+    }
+
+    // Сравнение и замена выполняются под той же блокировкой, что и обычное обновление записи
+    @Override
+    public long updateIfVersion(Task item, long expectedVersion) {
+        return switch (item.getType()) {
+            case TASK -> replaceTask(item, expectedVersion);
+            case SUBTASK -> replaceSubtask((Subtask) item, expectedVersion);
+            case EPIC -> replaceEpic((Epic) item, expectedVersion);
+        };
+    }
+
+    // Любое число от клиента — это условие: даже -1 сравнивается с версией записи и не совпадает
+    private static boolean hasVersion(Task current, Long expectedVersion) {
+        return expectedVersion == null || (current != null && current.getVersion() == expectedVersion);
+    }
+
+    @Override
+    public void removeSubtaskById(int id) {
+        while (true) {
+            Subtask subtask = subtaskMap.get(id);
+            if (subtask == null) {
+                break;
+            }
+            Epic epic = epicMap.get(subtask.getEpicId());
+            synchronized (lockOf(epic)) {
+                if (!subtaskMap.remove(id, subtask)) {
+                    continue;
+                }
+                unpublish(subtask);
+                unindexItem(subtask);
+                if (epic != null) {
+                    epic.removeSubtaskId(id);
+                    epic.decrementStatusCount(subtask.getStatus());
+                    timelineOf(epic).remove(id);
+                    updateEpicStatus(epic);
+                    updateEpicTime(epic);
+                }
+                events.removed(subtask);
+                break;
+            }
+        }
+        removeFromHistory(id);
+    }
+
+    @Override
+    public Task findById(int id) {
+        return itemsById.get(id);
+    }
+
+    @Override
+    public void restore(Task item) {
+        counter.accumulateAndGet(item.getId() + 1, Math::max);
+        switch (item.getType()) {
+            case EPIC -> {
+                Epic epic = (Epic) item;
+                synchronized (epic) {
+                    epic.clearSubtaskIds();
+                    epic.resetStatusCounts();
+                    createEpic(epic);
+                    updateEpicStatus(epic);
+                    updateEpicTime(epic);
+                }
+            }
+            case SUBTASK -> {
+                if (!insertSubtask((Subtask) item, false)) {
+                    throw new IllegalArgumentException("Эпик с ID " + ((Subtask) item).getEpicId() + " не найден.");
+                }
+            }
+            default -> updateTask(item);
+        }
+    }
+
+    // Пакет не изолирован от других потоков: операции видны по мере выполнения
+    @Override
+    public void runBatch(Runnable operations) {
+        inBatch(operations);
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener) {
+        events.subscribe(listener, null);
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener, Executor executor) {
+        events.subscribe(listener, executor);
+    }
+
+    @Override
+    public void removeListener(TaskEventListener listener) {
+        events.unsubscribe(listener);
+    }
+
+    private void inBatch(Runnable operations) {
+        events.beginBatch();
+        try {
+            operations.run();
+        } finally {
+            events.endBatch();
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        return getSubtasksByEpicId(epicId, false);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId, boolean sortedByTime) {
+        Epic epic = epicMap.get(epicId);
+        if (epic == null) {
+            return new ArrayList<>();
+        }
+        synchronized (epic) {
+            List<Subtask> result = new ArrayList<>(epic.getSubtaskCount());
+            EpicTimeline timeline = timelineOf(epic);
+            if (sortedByTime) {
+                timeline.forEachInTimeOrder(subtaskId -> result.add(subtaskMap.get(subtaskId)));
+            }
+            epic.forEachSubtaskId(subtaskId -> {
+                if (!sortedByTime || !timeline.contains(subtaskId)) {
+                    Subtask subtask = subtaskMap.get(subtaskId);
+                    if (subtask != null) {
+                        result.add(subtask);
+                    }
+                }
+            });
+            return result;
+        }
+    }
+
+    @Override
+    public void updateEpicStatus(Epic epic) {
+        synchronized (epic) {
+            epic.setStatus(epic.calculateStatus());
+            epic.setVersion(epic.getVersion() + 1);
+            publishEpic(epic);
+        }
+    }
+
+    @Override
+    public void updateEpicTime(Epic epic) {
+        synchronized (epic) {
+            EpicTimeline timeline = timelineOf(epic);
+            LocalDateTime startTime = timeline.getStartTime();
+            LocalDateTime endTime = timeline.getEndTime();
+            epic.setStartTime(startTime);
+            epic.setEndTime(endTime);
+            epic.setDuration(startTime != null && endTime != null ? Duration.between(startTime, endTime) : Duration.ZERO);
+            epic.setVersion(epic.getVersion() + 1);
+            publishEpic(epic);
+        }
+    }
+
+    // Эпик меняется на месте под своим монитором, поэтому в снимок кладётся копия, снятая под тем же монитором.
+    // Удалённый или заменённый эпик в снимок не возвращается
+    private void publishEpic(Epic epic) {
+        if (epicMap.get(epic.getId()) == epic) {
+            Epic copy = new Epic(epic);
+            snapshot.updateAndGet(current -> current.put(null, copy));
+        }
+    }
+
+    private void recountEpicStatus(Epic epic) {
+        epic.resetStatusCounts();
+        epic.forEachSubtaskId(subtaskId -> {
+            Subtask subtask = subtaskMap.get(subtaskId);
+            if (subtask != null) {
+                epic.incrementStatusCount(subtask.getStatus());
+            }
+        });
+    }
+
+    private void indexItem(Task item) {
+        Task previous = itemsById.get(item.getId());
+        item.setVersion((previous != null ? previous : item).getVersion() + 1);
+        itemsById.put(item.getId(), item);
+        synchronized (searchIndex) {
+            searchIndex.add(item);
+            if (item.getType() != TaskType.SUBTASK) {
+                nameIndex.add(item);
+            }
+        }
+        synchronized (dependencies) {
+            dependencies.setDuration(item.getId(), item.getDuration());
+        }
+    }
+
+    // Вершина графа удаляется после записи в itemsById, поэтому addDependency не может вернуть её обратно
+    private void unindexItem(Task item) {
+        if (itemsById.remove(item.getId(), item)) {
+            synchronized (searchIndex) {
+                searchIndex.remove(item.getId());
+                nameIndex.remove(item.getId());
+            }
+            synchronized (dependencies) {
+                dependencies.removeNode(item.getId());
+            }
+        }
+    }
+
+    private EpicTimeline timelineOf(Epic epic) {
+        return epicTimelines.computeIfAbsent(epic.getId(), id -> new EpicTimeline());
+    }
+
+    private Object lockOf(Epic epic) {
+        return epic != null ? epic : orphanLock;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        synchronized (historyManager) {
+            return historyManager.getHistory();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return snapshot.get().prioritized.asList();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return List.of();
+        }
+        return snapshot.get().prioritized.range(from != null ? StartTimeOrder.probe(from) : null,
+                to != null ? StartTimeOrder.probe(to) : null);
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore) {
+        scheduleLock.lock();
+        try {
+            return timeIndex.findFreeSlot(notBefore, duration);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    // Индекс мог опередить удаление — такие id пропускаются
+    @Override
+    public void addDependency(int id, int dependsOnId) {
+        synchronized (dependencies) {
+            Task item = dependencyItem(id);
+            Task dependsOn = dependencyItem(dependsOnId);
+            dependencies.add(dependsOnId, dependsOn.getDuration(), id, item.getDuration());
+        }
+    }
+
+    @Override
+    public void removeDependency(int id, int dependsOnId) {
+        synchronized (dependencies) {
+            dependencies.remove(dependsOnId, id);
+        }
+    }
+
+    @Override
+    public List<Integer> getDependencies(int id) {
+        int[] predecessors;
+        synchronized (dependencies) {
+            predecessors = dependencies.predecessors(id);
+        }
+        List<Integer> result = new ArrayList<>(predecessors.length);
+        for (int dependsOnId : predecessors) {
+            result.add(dependsOnId);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Integer> getDependents(int id) {
+        int[] successors;
+        synchronized (dependencies) {
+            successors = dependencies.successors(id);
+        }
+        List<Integer> result = new ArrayList<>(successors.length);
+        for (int dependentId : successors) {
+            result.add(dependentId);
+        }
+        return result;
+    }
+
+    @Override
+    public CriticalPath getCriticalPath(int epicId) {
+        if (!epicMap.containsKey(epicId)) {
+            return null;
+        }
+        Map<Integer, Duration> durations = new LinkedHashMap<>();
+        for (Subtask subtask : getSubtasksByEpicId(epicId, false)) {
+            durations.put(subtask.getId(), subtask.getDuration());
+        }
+        int[] subtaskIds = durations.keySet().stream().mapToInt(Integer::intValue).toArray();
+        synchronized (dependencies) {
+            return dependencies.criticalPath(epicId, subtaskIds, durations::get);
+        }
+    }
+
+    private Task dependencyItem(int id) {
+        Task item = itemsById.get(id);
+        if (item == null || item.getType() == TaskType.EPIC) {
+            throw new IllegalArgumentException("Задача или подзадача с id " + id + " не найдена");
+        }
+        return item;
+    }
+
+    @Override
+    public List<DayOccupancy> getTimeline(LocalDate from, LocalDate to) {
+        scheduleLock.lock();
+        try {
+            return timeIndex.occupancy(from, to);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isMinuteFree(LocalDateTime time) {
+        scheduleLock.lock();
+        try {
+            return !timeIndex.isMinuteBusy(time);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    // План строится под блокировкой расписания, а применяется уже без неё: подзадаче нужна блокировка эпика,
+    // которая берётся раньше блокировки расписания. Запись, чей интервал успел занять другой поток, пропускается
+    @Override
+    public List<Task> autoSchedule(Collection<Integer> ids, LocalDateTime notBefore) {
+        List<Task> candidates = AutoSchedule.candidates(this, ids);
+        List<LocalDateTime> starts;
+        scheduleLock.lock();
+        try {
+            starts = timeIndex.pack(notBefore, AutoSchedule.durations(candidates));
+        } finally {
+            scheduleLock.unlock();
+        }
+        List<Task> scheduled = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Task item = AutoSchedule.withStartTime(candidates.get(i), starts.get(i));
+            try {
+                if (item.getType() == TaskType.SUBTASK) {
+                    updateSubtask((Subtask) item);
+                } else {
+                    updateTask(item);
+                }
+                scheduled.add(item);
+            } catch (TaskOverlapException e) {
+                // Остаётся без времени начала
+            }
+        }
+        return scheduled;
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        int[] ids;
+        synchronized (searchIndex) {
+            ids = searchIndex.search(query, limit);
+        }
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task item = itemsById.get(id);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> suggest(String prefix, int limit) {
+        int[] ids;
+        synchronized (searchIndex) {
+            ids = nameIndex.suggest(prefix, limit);
+        }
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task item = itemsById.get(id);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return snapshot.get().tasks.after(withId(new Task(null, null, null), afterId), limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return snapshot.get().epics.after(withId(new Epic(null, null), afterId), limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return snapshot.get().subtasks.after(withId(new Subtask(null, null, null, 0), afterId), limit);
+    }
+
+    @Override
+    public List<Task> getHistory(int afterId, int limit) {
+        synchronized (historyManager) {
+            return historyManager.getHistory(afterId, limit);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(int afterId, int limit) {
+        return getPrioritizedTasks(null, null, afterId, limit);
+    }
+
+    // Без курсора страница начинается с первой задачи не раньше from: пробник from меньше любой такой задачи
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int afterId, int limit) {
+        Snapshot current = snapshot.get();
+        Task after = from != null ? StartTimeOrder.probe(from) : null;
+        if (afterId != 0) {
+            after = itemsById.get(afterId);
+            StartTimeOrder.checkCursor(after, afterId, from, to);
+        }
+        return current.prioritized.after(after, to != null ? StartTimeOrder.probe(to) : null, limit);
+    }
+
+    private static <T extends Task> T withId(T probe, int id) {
+        probe.setId(id);
+        return probe;
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+        return getTasks().stream();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return getEpics().stream();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return getSubtasks().stream();
+    }
+
+    // История меняется при каждом чтении задачи, поэтому обходить её без блокировки нельзя — отдаётся копия
+    @Override
+    public Stream<Task> streamHistory() {
+        return getHistory().stream();
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks() {
+        return getPrioritizedTasks().stream();
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return getPrioritizedTasks(from, to).stream();
+    }
+
+    // Проверяет пересечение, публикует запись и заменяет её в расписании — атомарно для задач со временем.
+    // Без блокировки проходят только записи, где ни старая, ни новая версия не имеют времени начала
+    private void schedule(Task oldTask, Task newTask, String overlapMessage, Runnable publish) {
+        if (!hasStartTime(oldTask) && !hasStartTime(newTask)) {
+            publish.run();
+            snapshot.updateAndGet(current -> current.put(oldTask, newTask));
+            return;
+        }
+        scheduleLock.lock();
+        try {
+            if (timeIndex.overlaps(newTask)) {
+                throw new TaskOverlapException(overlapMessage);
+            }
+            publish.run();
+            if (oldTask != null) {
+                removeFromSchedule(oldTask);
+            }
+            addToSchedule(newTask);
+            snapshot.updateAndGet(current -> current.put(oldTask, newTask));
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    // Убирает запись из снимка и расписания
+    private void unpublish(Task task) {
+        if (!hasStartTime(task)) {
+            snapshot.updateAndGet(current -> current.remove(task));
+            return;
+        }
+        scheduleLock.lock();
+        try {
+            removeFromSchedule(task);
+            snapshot.updateAndGet(current -> current.remove(task));
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    private void addToSchedule(Task task) {
+        timeIndex.add(task);
+    }
+
+    private void removeFromSchedule(Task task) {
+        timeIndex.remove(task.getId());
+    }
+
+    private static boolean hasStartTime(Task task) {
+        return task != null && task.getStartTime() != null;
+    }
+
+    private void addToHistory(Task task) {
+        if (task != null) {
+            synchronized (historyManager) {
+                historyManager.add(task);
+            }
+        }
+    }
+
+    private void removeFromHistory(int id) {
+        synchronized (historyManager) {
+            historyManager.remove(id);
+        }
+    }
+
+    // Версия списков менеджера. Не изменяется после создания, новые версии делят с ней нетронутые узлы
+    private static final class Snapshot {
+        private static final Comparator<Task> BY_ID = Comparator.comparingInt(Task::getId);
+        static final Snapshot EMPTY = new Snapshot(PersistentSortedSet.empty(BY_ID), PersistentSortedSet.empty(BY_ID),
+                PersistentSortedSet.empty(BY_ID), PersistentSortedSet.empty(StartTimeOrder.COMPARATOR));
+
+        final PersistentSortedSet<Task> tasks;
+        final PersistentSortedSet<Epic> epics;
+        final PersistentSortedSet<Subtask> subtasks;
+        final PersistentSortedSet<Task> prioritized;
+
+        Snapshot(PersistentSortedSet<Task> tasks, PersistentSortedSet<Epic> epics,
+                 PersistentSortedSet<Subtask> subtasks, PersistentSortedSet<Task> prioritized) {
+            this.tasks = tasks;
+            this.epics = epics;
+            this.subtasks = subtasks;
+            this.prioritized = prioritized;
+        }
+
+        // Заменяет прежнюю версию записи или добавляет новую
+        Snapshot put(Task oldItem, Task item) {
+            return switch (item.getType()) {
+                case EPIC -> new Snapshot(tasks, epics.with((Epic) item), subtasks, prioritized);
+                case SUBTASK -> new Snapshot(tasks, epics, subtasks.with((Subtask) item), reschedule(oldItem, item));
+                default -> new Snapshot(tasks.with(item), epics, subtasks, reschedule(oldItem, item));
+            };
+        }
+
+        Snapshot putAll(Collection<? extends Task> items) {
+            Snapshot result = this;
+            for (Task item : items) {
+                result = result.put(null, item);
+            }
+            return result;
+        }
+
+        Snapshot remove(Task item) {
+            return switch (item.getType()) {
+                case EPIC -> new Snapshot(tasks, epics.without((Epic) item), subtasks, prioritized);
+                case SUBTASK -> new Snapshot(tasks, epics, subtasks.without((Subtask) item), reschedule(item, null));
+                default -> new Snapshot(tasks.without(item), epics, subtasks, reschedule(item, null));
+            };
+        }
+
+        private PersistentSortedSet<Task> reschedule(Task oldItem, Task item) {
+            PersistentSortedSet<Task> result = prioritized;
+            if (hasStartTime(oldItem)) {
+                result = result.without(oldItem);
+            }
+            if (hasStartTime(item)) {
+                result = result.with(item);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package managers;
+
+import java.time.Duration;
+import java.util.List;
+
+// Критический путь эпика: самая длинная по суммарной длительности цепочка зависимостей,
+// которая заканчивается подзадачей эпика (в цепочку могут входить и задачи вне эпика)
+public class CriticalPath {
+    private final int epicId;
+    private final Duration length;
+    private final List<Integer> path;
+    // Подзадачи эпика в порядке, совместимом с зависимостями
+    private final List<Integer> order;
+
+    public CriticalPath(int epicId, Duration length, List<Integer> path, List<Integer> order) {
+        this.epicId = epicId;
+        this.length = length;
+        this.path = path;
+        this.order = order;
+    }
+
+    public int getEpicId() {
+        return epicId;
+    }
+
+    public Duration getLength() {
+        return length;
+    }
+
+    public List<Integer> getPath() {
+        return path;
+    }
+
+    public List<Integer> getOrder() {
+        return order;
+    }
+}
@@ -0,0 +1,28 @@
+package managers;
+
+import java.time.LocalDate;
+
+// Занятость одного дня: сколько минут заняты задачами и какая это доля суток
+public class DayOccupancy {
+    private final LocalDate date;
+    private final int bookedMinutes;
+    private final double utilization;
+
+    public DayOccupancy(LocalDate date, int bookedMinutes) {
+        this.date = date;
+        this.bookedMinutes = bookedMinutes;
+        this.utilization = (double) bookedMinutes / OccupancyCalendar.MINUTES_PER_DAY;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getBookedMinutes() {
+        return bookedMinutes;
+    }
+
+    public double getUtilization() {
+        return utilization;
+    }
+}
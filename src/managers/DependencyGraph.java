@@ -0,0 +1,284 @@
+package managers;
+
+import exception.DependencyCycleException;
+import util.IntHashMap;
+import util.IntLinkedSet;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+
+// Граф зависимостей «задача B начинается только после окончания A» (ребро A → B).
+// Топологический порядок поддерживается при вставке ребра алгоритмом Пирса — Келли: переставляются только
+// вершины между концами ребра. Для каждой вершины хранится самый ранний конец с учётом всех предшественников
+// (длина самой длинной цепочки, которая на ней заканчивается) — пересчитывается только то, что изменилось.
+// В графе хранятся только вершины, у которых есть рёбра
+public class DependencyGraph {
+    private final IntHashMap<Node> nodes = new IntHashMap<>();
+    private int nextOrder;
+
+    // Ребро from → to; бросает DependencyCycleException, если to уже предшествует from
+    public void add(int from, Duration fromDuration, int to, Duration toDuration) {
+        if (from == to) {
+            throw new DependencyCycleException("Задача " + from + " не может зависеть от самой себя");
+        }
+        Node source = nodes.computeIfAbsent(from, id -> new Node(id, nextOrder++, seconds(fromDuration)));
+        Node target = nodes.computeIfAbsent(to, id -> new Node(id, nextOrder++, seconds(toDuration)));
+        if (source.successors.contains(to)) {
+            return;
+        }
+        if (source.order > target.order) {
+            try {
+                reorder(source, target);
+            } catch (DependencyCycleException e) {
+                dropIfIsolated(source);
+                dropIfIsolated(target);
+                throw e;
+            }
+        }
+        source.successors.add(to);
+        target.predecessors.add(from);
+        propagate(target);
+    }
+
+    public void remove(int from, int to) {
+        Node source = nodes.get(from);
+        Node target = nodes.get(to);
+        if (source == null || target == null || !source.successors.remove(to)) {
+            return;
+        }
+        target.predecessors.remove(from);
+        dropIfIsolated(source);
+        dropIfIsolated(target);
+        if (nodes.get(to) == target) {
+            propagate(target);
+        }
+    }
+
+    // Удаляет вершину вместе со всеми её рёбрами
+    public void removeNode(int id) {
+        Node node = nodes.remove(id);
+        if (node == null) {
+            return;
+        }
+        for (int predecessor : node.predecessors.toArray()) {
+            Node other = nodes.get(predecessor);
+            other.successors.remove(id);
+            dropIfIsolated(other);
+        }
+        List<Node> affected = new ArrayList<>();
+        for (int successor : node.successors.toArray()) {
+            Node other = nodes.get(successor);
+            other.predecessors.remove(id);
+            if (!dropIfIsolated(other)) {
+                affected.add(other);
+            }
+        }
+        // Пересчёт только после того, как вершина отцеплена от всех преемников
+        for (Node other : affected) {
+            propagate(other);
+        }
+    }
+
+    public void setDuration(int id, Duration duration) {
+        Node node = nodes.get(id);
+        if (node != null && node.weight != seconds(duration)) {
+            node.weight = seconds(duration);
+            propagate(node);
+        }
+    }
+
+    public void clear() {
+        nodes.clear();
+        nextOrder = 0;
+    }
+
+    // От кого зависит задача
+    public int[] predecessors(int id) {
+        Node node = nodes.get(id);
+        return node != null ? node.predecessors.toArray() : new int[0];
+    }
+
+    // Кто зависит от задачи
+    public int[] successors(int id) {
+        Node node = nodes.get(id);
+        return node != null ? node.successors.toArray() : new int[0];
+    }
+
+    // Позиция в топологическом порядке; у вершин без рёбер — -1
+    public int order(int id) {
+        Node node = nodes.get(id);
+        return node != null ? node.order : -1;
+    }
+
+    // Самый ранний конец задачи относительно начала всей цепочки, в секундах
+    public long finish(int id, Duration ownDuration) {
+        Node node = nodes.get(id);
+        return node != null ? node.finish : seconds(ownDuration);
+    }
+
+    // Критический путь по подзадачам эпика: O(k log k) от числа подзадач, весь граф не обходится
+    public CriticalPath criticalPath(int epicId, int[] subtaskIds, IntFunction<Duration> durationOf) {
+        long longest = 0;
+        int last = Node.NONE;
+        List<Integer> order = new ArrayList<>(subtaskIds.length);
+        for (int id : subtaskIds) {
+            long finish = finish(id, durationOf.apply(id));
+            if (last == Node.NONE || finish > longest || finish == longest && id < last) {
+                longest = finish;
+                last = id;
+            }
+            order.add(id);
+        }
+        order.sort(Comparator.comparingInt(this::order).thenComparingInt(id -> id));
+        List<Integer> path = last != Node.NONE ? chainTo(last) : List.of();
+        return new CriticalPath(epicId, Duration.ofSeconds(longest), path, order);
+    }
+
+    // Самая длинная цепочка, заканчивающаяся задачей id, от первой задачи к последней
+    public List<Integer> chainTo(int id) {
+        Deque<Integer> chain = new ArrayDeque<>();
+        chain.push(id);
+        for (Node node = nodes.get(id); node != null && node.via != Node.NONE; node = nodes.get(node.via)) {
+            chain.push(node.via);
+        }
+        return new ArrayList<>(chain);
+    }
+
+    // Ребро source → target нарушает порядок: переставляем вершины, достижимые из target и ведущие в source,
+    // внутри отрезка [target.order, source.order]
+    private void reorder(Node source, Node target) {
+        List<Node> forward = new ArrayList<>();
+        collect(target, source.order, true, forward, source);
+        List<Node> backward = new ArrayList<>();
+        collect(source, target.order, false, backward, null);
+        Comparator<Node> byOrder = Comparator.comparingInt(node -> node.order);
+        forward.sort(byOrder);
+        backward.sort(byOrder);
+
+        int[] orders = new int[forward.size() + backward.size()];
+        int i = 0;
+        for (Node node : backward) {
+            orders[i++] = node.order;
+        }
+        for (Node node : forward) {
+            orders[i++] = node.order;
+        }
+        Arrays.sort(orders);
+        i = 0;
+        for (Node node : backward) {
+            node.order = orders[i++];
+        }
+        for (Node node : forward) {
+            node.order = orders[i++];
+        }
+        for (Node node : forward) {
+            node.visited = false;
+        }
+        for (Node node : backward) {
+            node.visited = false;
+        }
+    }
+
+    // Обход вперёд (по преемникам, не дальше bound) или назад (по предшественникам, не раньше bound)
+    private void collect(Node start, int bound, boolean forward, List<Node> found, Node forbidden) {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(start);
+        start.visited = true;
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            found.add(node);
+            for (int id : (forward ? node.successors : node.predecessors).toArray()) {
+                Node next = nodes.get(id);
+                if (next == forbidden) {
+                    for (Node visited : found) {
+                        visited.visited = false;
+                    }
+                    for (Node pending : stack) {
+                        pending.visited = false;
+                    }
+                    throw new DependencyCycleException("Зависимость " + forbidden.id + " → " + start.id
+                            + " образует цикл");
+                }
+                if (!next.visited && (forward ? next.order <= bound : next.order >= bound)) {
+                    next.visited = true;
+                    stack.push(next);
+                }
+            }
+        }
+    }
+
+    // Пересчёт самого раннего конца: вершины обрабатываются в топологическом порядке,
+    // дальше идут только преемники вершин, у которых значение изменилось
+    private void propagate(Node start) {
+        PriorityQueue<Node> queue = new PriorityQueue<>(Comparator.comparingInt(node -> node.order));
+        queue.add(start);
+        start.queued = true;
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            node.queued = false;
+            long best = 0;
+            int via = Node.NONE;
+            for (int id : node.predecessors.toArray()) {
+                Node predecessor = nodes.get(id);
+                if (via == Node.NONE || predecessor.finish > best
+                        || predecessor.finish == best && predecessor.id < via) {
+                    best = predecessor.finish;
+                    via = predecessor.id;
+                }
+            }
+            long finish = best + node.weight;
+            boolean changed = finish != node.finish || via != node.via;
+            node.finish = finish;
+            node.via = via;
+            if (changed) {
+                for (int id : node.successors.toArray()) {
+                    Node successor = nodes.get(id);
+                    if (!successor.queued) {
+                        successor.queued = true;
+                        queue.add(successor);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean dropIfIsolated(Node node) {
+        if (node.successors.isEmpty() && node.predecessors.isEmpty()) {
+            nodes.remove(node.id);
+            return true;
+        }
+        return false;
+    }
+
+    private static long seconds(Duration duration) {
+        return duration != null ? duration.getSeconds() : 0;
+    }
+
+    private static class Node {
+        static final int NONE = Integer.MIN_VALUE;
+
+        final int id;
+        final IntLinkedSet successors = new IntLinkedSet();
+        final IntLinkedSet predecessors = new IntLinkedSet();
+        int order;
+        long weight;
+        long finish;
+        int via = NONE;
+        boolean visited;
+        boolean queued;
+
+        Node(int id, int order, long weight) {
+            this.id = id;
+            this.order = order;
+            this.weight = weight;
+            this.finish = weight;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package managers;
+
+import tasks.Status;
+import util.LongIntSortedSet;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Сводка эпика для CompactTaskManager без объектов на подзадачу: счётчики статусов и пары
+// (секунды, id) начал и концов подзадач. Статус, начало и конец эпика — без обхода подзадач,
+// изменение одной подзадачи — O(log k). Время хранится с точностью до секунды, как в TaskStore
+final class EpicRollup {
+    private int newCount;
+    private int inProgressCount;
+    private int doneCount;
+    private final LongIntSortedSet starts = new LongIntSortedSet();
+    private final LongIntSortedSet ends = new LongIntSortedSet();
+
+    void add(int subtaskId, Status status, LocalDateTime start, Duration duration) {
+        change(status, 1);
+        if (start != null) {
+            starts.add(seconds(start), subtaskId);
+            if (duration != null) {
+                ends.add(seconds(start) + duration.getSeconds(), subtaskId);
+            }
+        }
+    }
+
+    // Значения полей — те, с которыми подзадача была добавлена
+    void remove(int subtaskId, Status status, LocalDateTime start, Duration duration) {
+        change(status, -1);
+        if (start != null) {
+            starts.remove(seconds(start), subtaskId);
+            if (duration != null) {
+                ends.remove(seconds(start) + duration.getSeconds(), subtaskId);
+            }
+        }
+    }
+
+    // То же правило, что в Epic.calculateStatus
+    Status getStatus() {
+        if (inProgressCount > 0 || (newCount > 0 && doneCount > 0)) {
+            return Status.IN_PROGRESS;
+        } else if (doneCount > 0) {
+            return Status.DONE;
+        }
+        return Status.NEW;
+    }
+
+    LocalDateTime getStartTime() {
+        return starts.isEmpty() ? null : time(starts.firstKey());
+    }
+
+    LocalDateTime getEndTime() {
+        return ends.isEmpty() ? null : time(ends.lastKey());
+    }
+
+    private void change(Status status, int delta) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+            case NEW -> newCount += delta;
+            case IN_PROGRESS -> inProgressCount += delta;
+            case DONE -> doneCount += delta;
+        }
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime time(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
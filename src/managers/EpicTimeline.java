@@ -0,0 +1,79 @@
+package managers;
+
+import tasks.Subtask;
+import util.IntHashMap;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+// Упорядоченные времена подзадач одного эпика: начало, конец и длительность эпика — за O(log k)
+public class EpicTimeline {
+    private static final Comparator<Entry> BY_START = (e1, e2) -> {
+        int result = e1.start.compareTo(e2.start);
+        return result != 0 ? result : Integer.compare(e1.id, e2.id);
+    };
+
+    private final NavigableSet<Entry> byStart = new TreeSet<>(BY_START);
+    private final NavigableMap<LocalDateTime, Integer> endCounts = new TreeMap<>();
+    private final IntHashMap<Entry> entries = new IntHashMap<>();
+
+    public void add(Subtask subtask) {
+        remove(subtask.getId());
+        LocalDateTime start = subtask.getStartTime();
+        if (start == null) {
+            return;
+        }
+        Entry entry = new Entry(subtask.getId(), start, subtask.calculateEndTime());
+        entries.put(entry.id, entry);
+        byStart.add(entry);
+        if (entry.end != null) {
+            endCounts.merge(entry.end, 1, Integer::sum);
+        }
+    }
+
+    public void remove(int subtaskId) {
+        Entry entry = entries.remove(subtaskId);
+        if (entry == null) {
+            return;
+        }
+        byStart.remove(entry);
+        if (entry.end != null) {
+            endCounts.computeIfPresent(entry.end, (end, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    public boolean contains(int subtaskId) {
+        return entries.containsKey(subtaskId);
+    }
+
+    public LocalDateTime getStartTime() {
+        return byStart.isEmpty() ? null : byStart.first().start;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endCounts.isEmpty() ? null : endCounts.lastKey();
+    }
+
+    public void forEachInTimeOrder(IntConsumer action) {
+        for (Entry entry : byStart) {
+            action.accept(entry.id);
+        }
+    }
+
+    private static class Entry {
+        final int id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        Entry(int id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
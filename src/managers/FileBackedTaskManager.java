@@ -10,10 +10,14 @@ import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class FileBackedTaskManager extends InMemoryTaskManager {
     private File taskFile;
+    // Внутри пакета сохранение откладывается до его конца
+    private int batchDepth;
+    private boolean saveDeferred;
 
     public FileBackedTaskManager(File file) {
         this.taskFile = file;
@@ -97,6 +101,10 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     public void save() {
+        if (batchDepth > 0) {
+            saveDeferred = true;
+            return;
+        }
         ArrayList<String> listForFile = new ArrayList<>();
         listForFile.add("id,type,name,status,description,epic,duration,startTime");
 
@@ -195,4 +203,38 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         super.createTask(task);
         save();
     }
+
+    @Override
+    public void runBatch(Runnable operations) {
+        batchDepth++;
+        try {
+            super.runBatch(operations);
+        } finally {
+            batchDepth--;
+            if (batchDepth == 0 && saveDeferred) {
+                saveDeferred = false;
+                save();
+            }
+        }
+    }
+
+    // Файл перезаписывается один раз на весь пакет
+    @Override
+    public void createTasks(Collection<Task> tasks) {
+        super.createTasks(tasks);
+        save();
+    }
+
+    @Override
+    public void createSubtasks(Collection<Subtask> subtasks) {
+        super.createSubtasks(subtasks);
+        save();
+    }
+
+    @Override
+    public List<Task> autoSchedule(Collection<Integer> ids, LocalDateTime notBefore) {
+        List<Task> scheduled = super.autoSchedule(ids, notBefore);
+        save();
+        return scheduled;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package managers;
 import tasks.Task;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 
 public interface HistoryManager {
@@ -11,5 +12,9 @@ public interface HistoryManager {
 
     List<Task> getHistory();
 
+    Stream<Task> streamHistory();
+
+    List<Task> getHistory(int afterId, int limit);
+
     void remove(int id);
 }
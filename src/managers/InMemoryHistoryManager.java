@@ -1,15 +1,16 @@
 package managers;
 
 import tasks.Task;
+import util.IntHashMap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 public class InMemoryHistoryManager implements HistoryManager {
 
-    private final Map<Integer, Node> nodeMap = new HashMap<>();
+    private final IntHashMap<Node> nodeMap = new IntHashMap<>();
     private Node tail = null;
     private Node head = null;
 
@@ -30,6 +31,30 @@ public class InMemoryHistoryManager implements HistoryManager {
         return getTasks();
     }
 
+    @Override
+    public List<Task> getHistory(int afterId, int limit) {
+        Node current = head;
+        if (afterId != 0) {
+            Node after = nodeMap.get(afterId);
+            if (after == null) {
+                throw new IllegalArgumentException("Задача с id " + afterId + " не найдена в истории");
+            }
+            current = after.next;
+        }
+        List<Task> result = new ArrayList<>();
+        while (current != null && result.size() < limit) {
+            result.add(current.task);
+            current = current.next;
+        }
+        return result;
+    }
+
+    // Обход списка просмотров без копирования
+    @Override
+    public Stream<Task> streamHistory() {
+        return Stream.iterate(head, Objects::nonNull, node -> node.next).map(node -> node.task);
+    }
+
     @Override
     public void remove(int id) {
         if (!nodeMap.containsKey(id)) {
@@ -2,32 +2,64 @@ package managers;
 
 import exception.TaskOverlapException;
 import tasks.Epic;
-import tasks.Status;
 import tasks.Subtask;
 import tasks.Task;
+import tasks.TaskType;
+import util.IntHashMap;
+import util.StringInterner;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 public class InMemoryTaskManager implements TaskManager {
-    private final Map<Integer, Task> taskMap = new HashMap<>();
-    private final Map<Integer, Epic> epicMap = new HashMap<>();
-    private final Map<Integer, Subtask> subtaskMap = new HashMap<>();
+    private static final int STRING_POOL_SIZE = 10_000;
+
+    private final IntHashMap<Task> taskMap = new IntHashMap<>();
+    private final IntHashMap<Epic> epicMap = new IntHashMap<>();
+    private final IntHashMap<Subtask> subtaskMap = new IntHashMap<>();
+    // Общий индекс id → задача любого типа
+    private final IntHashMap<Task> itemsById = new IntHashMap<>();
+    // id по типам в порядке возрастания — для постраничной выдачи
+    private final BitSet taskIds = new BitSet();
+    private final BitSet epicIds = new BitSet();
+    private final BitSet subtaskIds = new BitSet();
+    // Без индексов (см. конструктор) поиск, подсказки, история, расписание и зависимости равны null
+    private final boolean indexed;
+    private final SearchIndex searchIndex;
+    // Названия задач и эпиков для автодополнения
+    private final NamePrefixIndex nameIndex;
     private final HistoryManager historyManager;
+    // Общие экземпляры одинаковых названий и описаний
+    private final StringInterner strings = new StringInterner(STRING_POOL_SIZE);
     private int counter = 1;
 
 
     public InMemoryTaskManager() {
-        this.historyManager = Managers.getDefaultHistory();
+        this(true);
     }
 
-    private final Comparator<Task> comparator = (t1, t2) -> {
-        int result = t1.getStartTime().compareTo(t2.getStartTime());
-        return result != 0 ? result : Integer.compare(t1.getId(), t2.getId());
-    };
-    private final Set<Task> prioritizedTasks = new TreeSet<>(comparator);
+    // Шард ShardedTaskManager хранит только записи, списки по id и по времени и время эпиков:
+    // пересечения, поиск, подсказки, историю и зависимости владелец ведёт по всем шардам сразу.
+    // Пул строк остаётся: он ограничен по размеру и экономит память на повторяющихся названиях.
+    // Запросы к остальным индексам у менеджера без индексов не поддерживаются
+    InMemoryTaskManager(boolean indexed) {
+        this.indexed = indexed;
+        this.searchIndex = indexed ? new SearchIndex() : null;
+        this.nameIndex = indexed ? new NamePrefixIndex() : null;
+        this.historyManager = indexed ? Managers.getDefaultHistory() : null;
+        this.timeIndex = indexed ? new TimeIntervalIndex() : null;
+        this.dependencies = indexed ? new DependencyGraph() : null;
+    }
+
+    private final NavigableSet<Task> prioritizedTasks = new TreeSet<>(StartTimeOrder.COMPARATOR);
+    private final TimeIntervalIndex timeIndex;
+    private final DependencyGraph dependencies;
+    private final TaskEventBus events = new TaskEventBus();
+    private final IntHashMap<EpicTimeline> epicTimelines = new IntHashMap<>();
 
 
     @Override
@@ -41,15 +73,19 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void removeTasks() {
-        for (Task task : taskMap.values()) {
-            prioritizedTasks.remove(task);
-        }
-        taskMap.clear();
+        inBatch(() -> {
+            for (Task task : taskMap.values()) {
+                removeFromSchedule(task);
+                unindexItem(task);
+                events.removed(task);
+            }
+            taskMap.clear();
+        });
     }
 
     @Override
     public Task getTaskById(int id) {
-        historyManager.add(taskMap.get(id));
+        addToHistory(taskMap.get(id));
         return taskMap.get(id);
     }
 
@@ -58,38 +94,56 @@ public class InMemoryTaskManager implements TaskManager {
         if (isTaskTimeOverlapping(task)) {
             throw new TaskOverlapException("Ошибка: задача пересекается по времени с другой задачей.");
         }
+        addTask(task);
+    }
+
+    // Пакет проверяется целиком до первой вставки: либо создаются все задачи, либо ни одной
+    @Override
+    public void createTasks(Collection<Task> tasks) {
+        if (indexed && timeIndex.overlapsAny(tasks)) {
+            throw new TaskOverlapException("Ошибка: задачи пакета пересекаются по времени.");
+        }
+        inBatch(() -> {
+            for (Task task : tasks) {
+                addTask(task);
+            }
+        });
+    }
+
+    private void addTask(Task task) {
         task.setId(counter++);
         taskMap.put(task.getId(), task);
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        indexItem(task);
+        addToSchedule(task);
+        events.created(task);
     }
 
 
     @Override
     public void updateTask(Task task) {
-        Task oldTask = taskMap.get(task.getId());
-        if (oldTask != null) {
-            prioritizedTasks.remove(oldTask);
-        }
         if (isTaskTimeOverlapping(task)) {
-            if (oldTask != null && oldTask.getStartTime() != null) {
-                prioritizedTasks.add(oldTask);
-            }
             throw new TaskOverlapException("Задача пересекается по времени");
         }
-        taskMap.put(task.getId(), task);
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
+        Task oldTask = taskMap.get(task.getId());
+        if (oldTask != null) {
+            removeFromSchedule(oldTask);
         }
+        taskMap.put(task.getId(), task);
+        indexItem(task);
+        addToSchedule(task);
+        events.updated(oldTask, task);
     }
 
 
     @Override
     public void removeTaskById(int id) {
         Task task = taskMap.remove(id);
-        historyManager.remove(id);
-        prioritizedTasks.remove(task);
+        removeFromHistory(id);
+        if (task != null) {
+            removeFromSchedule(task);
+            unindexItem(task);
+            events.removed(task);
+        }
     }
 
     @Override
@@ -99,16 +153,25 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void removeEpics() {
-        for (Subtask subtask : subtaskMap.values()) {
-            prioritizedTasks.remove(subtask);
-        }
-        epicMap.clear();
-        subtaskMap.clear();
+        inBatch(() -> {
+            for (Subtask subtask : subtaskMap.values()) {
+                removeFromSchedule(subtask);
+                unindexItem(subtask);
+                events.removed(subtask);
+            }
+            for (Epic epic : epicMap.values()) {
+                unindexItem(epic);
+                events.removed(epic);
+            }
+            epicMap.clear();
+            subtaskMap.clear();
+            epicTimelines.clear();
+        });
     }
 
     @Override
     public Epic getEpicById(int id) {
-        historyManager.add(epicMap.get(id));
+        addToHistory(epicMap.get(id));
         return epicMap.get(id);
     }
 
@@ -117,33 +180,59 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic.getId() == 0) { // Предполагаем, что 0 — значение по умолчанию для нового объекта
             epic.setId(counter++);
         }
-        epicMap.put(epic.getId(), epic);
+        // Счётчики не сериализуются — у эпика, заменяющего прежний, их нужно пересчитать по подзадачам
+        recountEpicStatus(epic);
+        Epic oldEpic = epicMap.put(epic.getId(), epic);
+        indexItem(epic);
+        events.updated(oldEpic, epic);
     }
 
     @Override
     public void updateEpic(Epic epic) {
         if (epicMap.containsKey(epic.getId())) {
             Epic existingEpic = epicMap.get(epic.getId());
+            Epic before = events.hasListeners() ? copyOf(existingEpic) : null;
             existingEpic.setName(epic.getName());
             existingEpic.setDescription(epic.getDescription());
+            deduplicate(existingEpic);
+            if (indexed) {
+                searchIndex.add(existingEpic);
+                nameIndex.add(existingEpic);
+            }
             updateEpicStatus(existingEpic);
+            if (before != null) {
+                events.updated(before, existingEpic);
+            }
         }
     }
 
+    private static Epic copyOf(Epic epic) {
+        Epic copy = new Epic(epic.getName(), epic.getDescription());
+        copy.setId(epic.getId());
+        copy.setVersion(epic.getVersion());
+        return copy;
+    }
+
 
     @Override
     public void removeEpicById(int id) {
         Epic epic = epicMap.remove(id);
+        epicTimelines.remove(id);
         if (epic != null) {
-            for (Integer subtaskId : epic.getSubtaskIds()) {
-                Subtask subtask = subtaskMap.get(subtaskId);
-                if (subtask != null) {
-                    prioritizedTasks.remove(subtask);
-                    subtaskMap.remove(subtaskId);
-                }
-            }
+            inBatch(() -> {
+                unindexItem(epic);
+                epic.forEachSubtaskId(subtaskId -> {
+                    Subtask subtask = subtaskMap.remove(subtaskId);
+                    if (subtask != null) {
+                        removeFromSchedule(subtask);
+                        unindexItem(subtask);
+                        events.removed(subtask);
+                    }
+                });
+                events.removed(epic);
+            });
         }
-        historyManager.remove(id);
+        removeFromHistory(id);
     }
 
     @Override
@@ -153,20 +242,33 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void removeSubtasks() {
-        for (Subtask subtask : subtaskMap.values()) {
-            prioritizedTasks.remove(subtask);
-        }
-        subtaskMap.clear();
-        for (Epic epic : epicMap.values()) {
-            epic.clearSubtaskIds();
-            updateEpicStatus(epic);
-            updateEpicTime(epic);
-        }
+        inBatch(() -> {
+            for (Subtask subtask : subtaskMap.values()) {
+                removeFromSchedule(subtask);
+                unindexItem(subtask);
+                events.removed(subtask);
+            }
+            subtaskMap.clear();
+            epicTimelines.clear();
+            for (Epic epic : epicMap.values()) {
+                epic.clearSubtaskIds();
+                epic.resetStatusCounts();
+                updateEpicStatus(epic);
+                updateEpicTime(epic);
+            }
+        });
+    }
+
+    @Override
+    public Task getById(int id) {
+        Task item = itemsById.get(id);
+        addToHistory(item);
+        return item;
     }
 
     @Override
     public Subtask getSubtaskById(int id) {
-        historyManager.add(subtaskMap.get(id));
+        addToHistory(subtaskMap.get(id));
         return subtaskMap.get(id);
     }
 
@@ -182,41 +284,101 @@ public class InMemoryTaskManager implements TaskManager {
             throw new TaskOverlapException("Ошибка: сабтакс пересекается по времени с другой задачей.");
         }
 
+        addSubtask(epic, subtask);
+        updateEpicStatus(epic);
+        updateEpicTime(epic);
+    }
+
+    // Статус и время каждого затронутого эпика пересчитываются один раз после вставки всего пакета
+    @Override
+    public void createSubtasks(Collection<Subtask> subtasks) {
+        for (Subtask subtask : subtasks) {
+            if (!epicMap.containsKey(subtask.getEpicId())) {
+                throw new IllegalArgumentException("Эпик с ID " + subtask.getEpicId() + " не найден.");
+            }
+        }
+        if (indexed && timeIndex.overlapsAny(subtasks)) {
+            throw new TaskOverlapException("Ошибка: подзадачи пакета пересекаются по времени.");
+        }
+        inBatch(() -> {
+            Map<Integer, Epic> touchedEpics = new LinkedHashMap<>();
+            for (Subtask subtask : subtasks) {
+                Epic epic = epicMap.get(subtask.getEpicId());
+                addSubtask(epic, subtask);
+                touchedEpics.put(epic.getId(), epic);
+            }
+            for (Epic epic : touchedEpics.values()) {
+                updateEpicStatus(epic);
+                updateEpicTime(epic);
+            }
+        });
+    }
+
+    private void addSubtask(Epic epic, Subtask subtask) {
         subtask.setId(counter++);
+        insertSubtask(epic, subtask);
+    }
+
+    private void insertSubtask(Epic epic, Subtask subtask) {
         subtaskMap.put(subtask.getId(), subtask);
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
-        }
+        indexItem(subtask);
+        addToSchedule(subtask);
         epic.addSubtaskId(subtask.getId());
-        updateEpicStatus(epic);
-        updateEpicTime(epic);
+        epic.incrementStatusCount(subtask.getStatus());
+        timelineOf(epic).add(subtask);
+        events.created(subtask);
     }
 
 
     @Override
     public void updateSubtask(Subtask subtask) {
         if (subtaskMap.containsKey(subtask.getId())) {
-            Subtask oldSubtask = subtaskMap.get(subtask.getId());
-            if (oldSubtask != null) {
-                prioritizedTasks.remove(oldSubtask);
-            }
-
             if (isTaskTimeOverlapping(subtask)) {
-                if (oldSubtask != null && oldSubtask.getStartTime() != null) {
-                    prioritizedTasks.add(oldSubtask);
-                }
                 throw new TaskOverlapException("Подзадача пересекается по времени");
             }
 
+            Subtask oldSubtask = subtaskMap.get(subtask.getId());
+            Epic oldEpic = epicMap.get(oldSubtask.getEpicId());
+            Epic epic = epicMap.get(subtask.getEpicId());
+            if (epic == null && oldEpic != null) {
+                // Подзадача не может остаться без эпика — оставляем её в прежнем
+                epic = oldEpic;
+                subtask.setEpicId(oldEpic.getId());
+            }
+
+            removeFromSchedule(oldSubtask);
             subtaskMap.put(subtask.getId(), subtask);
-            if (subtask.getStartTime() != null) {
-                prioritizedTasks.add(subtask);
+            indexItem(subtask);
+            addToSchedule(subtask);
+
+            if (oldSubtask == subtask) {
+                // Объект изменён на месте — прежний статус неизвестен, пересчитываем эпик целиком
+                if (epic != null) {
+                    recountEpicStatus(epic);
+                }
+            } else {
+                if (oldEpic != null) {
+                    oldEpic.decrementStatusCount(oldSubtask.getStatus());
+                    if (oldEpic != epic) {
+                        oldEpic.removeSubtaskId(subtask.getId());
+                        timelineOf(oldEpic).remove(subtask.getId());
+                        updateEpicStatus(oldEpic);
+                        updateEpicTime(oldEpic);
+                    }
+                }
+                if (epic != null) {
+                    if (oldEpic != epic) {
+                        epic.addSubtaskId(subtask.getId());
+                    }
+                    epic.incrementStatusCount(subtask.getStatus());
+                }
             }
-            Epic epic = epicMap.get(subtask.getEpicId());
             if (epic != null) {
+                timelineOf(epic).add(subtask);
                 updateEpicStatus(epic);
                 updateEpicTime(epic);
             }
+            events.updated(oldSubtask, subtask);
         }
     }
 
@@ -225,16 +387,98 @@ public class InMemoryTaskManager implements TaskManager {
     public void removeSubtaskById(int id) {
         Subtask subtask = subtaskMap.remove(id);
         if (subtask == null) return;
-        prioritizedTasks.remove(subtask);
+        removeFromSchedule(subtask);
+        unindexItem(subtask);
 
         Epic epic = epicMap.get(subtask.getEpicId());
         if (epic != null) {
             epic.removeSubtaskId(id);
+            epic.decrementStatusCount(subtask.getStatus());
+            timelineOf(epic).remove(id);
             updateEpicStatus(epic);
             updateEpicTime(epic);
         }
-        historyManager.remove(id);
+        removeFromHistory(id);
+        events.removed(subtask);
+
+    }
+
+    @Override
+    public long updateIfVersion(Task item, long expectedVersion) {
+        Task current = itemsById.get(item.getId());
+        if (current == null || current.getType() != item.getType() || current.getVersion() != expectedVersion) {
+            return -1;
+        }
+        switch (item.getType()) {
+            case TASK -> updateTask(item);
+            case SUBTASK -> updateSubtask((Subtask) item);
+            case EPIC -> updateEpic((Epic) item);
+        }
+        return itemsById.get(item.getId()).getVersion();
+    }
+
+    @Override
+    public Task findById(int id) {
+        return itemsById.get(id);
+    }
+
+    @Override
+    public void restore(Task item) {
+        counter = Math.max(counter, item.getId() + 1);
+        switch (item.getType()) {
+            case EPIC -> {
+                Epic epic = (Epic) item;
+                epic.clearSubtaskIds();
+                epic.resetStatusCounts();
+                createEpic(epic);
+                updateEpicStatus(epic);
+                updateEpicTime(epic);
+            }
+            case SUBTASK -> {
+                Subtask subtask = (Subtask) item;
+                Epic epic = epicMap.get(subtask.getEpicId());
+                if (epic == null) {
+                    throw new IllegalArgumentException("Эпик с ID " + subtask.getEpicId() + " не найден.");
+                }
+                if (isTaskTimeOverlapping(subtask)) {
+                    throw new TaskOverlapException("Подзадача пересекается по времени");
+                }
+                insertSubtask(epic, subtask);
+                updateEpicStatus(epic);
+                updateEpicTime(epic);
+            }
+            default -> updateTask(item);
+        }
+    }
+
+    @Override
+    public void runBatch(Runnable operations) {
+        inBatch(operations);
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener) {
+        events.subscribe(listener, null);
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener, Executor executor) {
+        events.subscribe(listener, executor);
+    }
+
+    @Override
+    public void removeListener(TaskEventListener listener) {
+        events.unsubscribe(listener);
+    }
 
+    // События пакета уходят подписчикам одной пачкой после его окончания
+    private void inBatch(Runnable operations) {
+        events.beginBatch();
+        try {
+            operations.run();
+        } finally {
+            events.endBatch();
+        }
     }
 
     @Override
@@ -243,99 +487,170 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) {
             return new ArrayList<>();
         }
-        return epic.getSubtaskIds().stream().map(subtaskMap::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<Subtask> result = new ArrayList<>(epic.getSubtaskCount());
+        epic.forEachSubtaskId(subtaskId -> {
+            Subtask subtask = subtaskMap.get(subtaskId);
+            if (subtask != null) {
+                result.add(subtask);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId, boolean sortedByTime) {
+        if (!sortedByTime) {
+            return getSubtasksByEpicId(epicId);
+        }
+        Epic epic = epicMap.get(epicId);
+        if (epic == null) {
+            return new ArrayList<>();
+        }
+        List<Subtask> result = new ArrayList<>(epic.getSubtaskCount());
+        EpicTimeline timeline = timelineOf(epic);
+        timeline.forEachInTimeOrder(subtaskId -> result.add(subtaskMap.get(subtaskId)));
+        // Подзадачи без времени начала — в конце, в порядке добавления
+        epic.forEachSubtaskId(subtaskId -> {
+            if (!timeline.contains(subtaskId)) {
+                Subtask subtask = subtaskMap.get(subtaskId);
+                if (subtask != null) {
+                    result.add(subtask);
+                }
+            }
+        });
+        return result;
     }
 
     @Override
     public void updateEpicStatus(Epic epic) {
-        boolean hasInProgress = false;
-        boolean hasNew = false;
-        boolean hasDone = false;
+        epic.setStatus(epic.calculateStatus());
+        epic.setVersion(epic.getVersion() + 1);
+    }
 
-        for (Integer subtaskId : epic.getSubtaskIds()) {
+    private void recountEpicStatus(Epic epic) {
+        epic.resetStatusCounts();
+        epic.forEachSubtaskId(subtaskId -> {
             Subtask subtask = subtaskMap.get(subtaskId);
-            if (subtask == null) continue;
-
-            switch (subtask.getStatus()) {
-                case IN_PROGRESS:
-                    epic.setStatus(Status.IN_PROGRESS);
-                    return;
-                case NEW:
-                    hasNew = true;
-                    break;
-                case DONE:
-                    hasDone = true;
-                    break;
+            if (subtask != null) {
+                epic.incrementStatusCount(subtask.getStatus());
             }
-        }
-
-        if (hasNew && hasDone) {
-            epic.setStatus(Status.IN_PROGRESS);
-        } else if (hasDone) {
-            epic.setStatus(Status.DONE);
-        } else {
-            epic.setStatus(Status.NEW);
-        }
+        });
     }
 
     @Override
     public void updateEpicTime(Epic epic) {
-        List<Integer> subtaskIds = epic.getSubtaskIds();
-        if (subtaskIds.isEmpty()) {
-            epic.setStartTime(null);
-            epic.setEndTime(null);
-            epic.setDuration(Duration.ZERO);
-            return;
-        }
-
-        Optional<LocalDateTime> startTime = subtaskIds.stream()
-                .map(subtaskMap::get)
-                .filter(Objects::nonNull)
-                .map(Subtask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo);
-
-        Optional<LocalDateTime> endTime = subtaskIds.stream()
-                .map(subtaskMap::get)
-                .filter(Objects::nonNull)
-                .map(Subtask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo);
+        EpicTimeline timeline = timelineOf(epic);
+        LocalDateTime startTime = timeline.getStartTime();
+        LocalDateTime endTime = timeline.getEndTime();
 
         Duration duration = Duration.ZERO;
-        if (startTime.isPresent() && endTime.isPresent()) {
-            duration = Duration.between(startTime.get(), endTime.get());
+        if (startTime != null && endTime != null) {
+            duration = Duration.between(startTime, endTime);
         }
 
-        epic.setStartTime(startTime.orElse(null));
-        epic.setEndTime(endTime.orElse(null));
+        epic.setStartTime(startTime);
+        epic.setEndTime(endTime);
         epic.setDuration(duration);
+        epic.setVersion(epic.getVersion() + 1);
+    }
+
+    private EpicTimeline timelineOf(Epic epic) {
+        return epicTimelines.computeIfAbsent(epic.getId(), id -> new EpicTimeline());
     }
 
     private boolean isTaskTimeOverlapping(Task newTask) {
-        if (newTask.getStartTime() == null || newTask.getDuration() == null) {
-            return false;
+        return indexed && timeIndex.overlaps(newTask);
+    }
+
+    // Версия продолжает версию заменяемой записи; восстановленная запись продолжает свою
+    private void indexItem(Task item) {
+        Task previous = itemsById.get(item.getId());
+        item.setVersion((previous != null ? previous : item).getVersion() + 1);
+        deduplicate(item);
+        itemsById.put(item.getId(), item);
+        idsOf(item).set(item.getId());
+        if (indexed) {
+            searchIndex.add(item);
+            if (item.getType() != TaskType.SUBTASK) {
+                nameIndex.add(item);
+            }
+            dependencies.setDuration(item.getId(), item.getDuration());
+        }
+    }
+
+    private void deduplicate(Task item) {
+        item.setName(strings.intern(item.getName()));
+        item.setDescription(strings.intern(item.getDescription()));
+    }
+
+    // Счётчики попаданий и промахов пула строк
+    public StringInterner getStringPool() {
+        return strings;
+    }
+
+    // id эпика задаётся вручную и может совпасть с чужим — удаляем из общего индекса только свою запись
+    private void unindexItem(Task item) {
+        idsOf(item).clear(item.getId());
+        if (itemsById.get(item.getId()) == item) {
+            itemsById.remove(item.getId());
+            if (indexed) {
+                searchIndex.remove(item.getId());
+                nameIndex.remove(item.getId());
+                dependencies.removeNode(item.getId());
+            }
         }
+    }
 
-        LocalDateTime newStart = newTask.getStartTime();
-        LocalDateTime newEnd = newTask.calculateEndTime();
+    private void addToHistory(Task item) {
+        if (indexed) {
+            historyManager.add(item);
+        }
+    }
 
-        for (Task existingTask : prioritizedTasks) {
-            if (existingTask.getId() == newTask.getId()) continue;
-            if (existingTask.getStartTime() == null || existingTask.getDuration() == null) continue;
+    private void removeFromHistory(int id) {
+        if (indexed) {
+            historyManager.remove(id);
+        }
+    }
 
-            LocalDateTime existingStart = existingTask.getStartTime();
-            LocalDateTime existingEnd = existingTask.calculateEndTime();
+    private BitSet idsOf(Task item) {
+        return switch (item.getType()) {
+            case EPIC -> epicIds;
+            case SUBTASK -> subtaskIds;
+            default -> taskIds;
+        };
+    }
 
+    // Следующие limit записей с id больше afterId
+    private static <T extends Task> List<T> page(BitSet ids, IntHashMap<T> items, int afterId, int limit) {
+        List<T> result = new ArrayList<>();
+        if (afterId == Integer.MAX_VALUE) {
+            return result;
+        }
+        int id = ids.nextSetBit(Math.max(0, afterId + 1));
+        while (id >= 0 && result.size() < limit) {
+            result.add(items.get(id));
+            id = id == Integer.MAX_VALUE ? -1 : ids.nextSetBit(id + 1);
+        }
+        return result;
+    }
 
-            boolean isOverlapping = newStart.isBefore(existingEnd) && existingStart.isBefore(newEnd);
-            if (isOverlapping) {
-                return true;
-            }
+    private void addToSchedule(Task task) {
+        if (task.getStartTime() != null) {
+            prioritizedTasks.add(task);
+        }
+        if (indexed) {
+            timeIndex.add(task);
+        }
+    }
+
+    private void removeFromSchedule(Task task) {
+        if (task.getStartTime() != null) {
+            prioritizedTasks.remove(task);
+        }
+        if (indexed) {
+            timeIndex.remove(task.getId());
         }
-        return false;
     }
 
 
@@ -348,4 +663,181 @@ public class InMemoryTaskManager implements TaskManager {
     public List<Task> getPrioritizedTasks() {
         return new ArrayList<>(prioritizedTasks);
     }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return new ArrayList<>(StartTimeOrder.range(prioritizedTasks, from, to));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore) {
+        return timeIndex.findFreeSlot(notBefore, duration);
+    }
+
+    @Override
+    public void addDependency(int id, int dependsOnId) {
+        Task item = dependencyItem(id);
+        Task dependsOn = dependencyItem(dependsOnId);
+        dependencies.add(dependsOnId, dependsOn.getDuration(), id, item.getDuration());
+    }
+
+    @Override
+    public void removeDependency(int id, int dependsOnId) {
+        dependencies.remove(dependsOnId, id);
+    }
+
+    @Override
+    public List<Integer> getDependencies(int id) {
+        List<Integer> result = new ArrayList<>();
+        for (int dependsOnId : dependencies.predecessors(id)) {
+            result.add(dependsOnId);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Integer> getDependents(int id) {
+        List<Integer> result = new ArrayList<>();
+        for (int dependentId : dependencies.successors(id)) {
+            result.add(dependentId);
+        }
+        return result;
+    }
+
+    @Override
+    public CriticalPath getCriticalPath(int epicId) {
+        Epic epic = epicMap.get(epicId);
+        if (epic == null) {
+            return null;
+        }
+        return dependencies.criticalPath(epicId, epic.getSubtaskIds(), id -> subtaskMap.get(id).getDuration());
+    }
+
+    private Task dependencyItem(int id) {
+        Task item = itemsById.get(id);
+        if (item == null || item.getType() == TaskType.EPIC) {
+            throw new IllegalArgumentException("Задача или подзадача с id " + id + " не найдена");
+        }
+        return item;
+    }
+
+    @Override
+    public List<DayOccupancy> getTimeline(LocalDate from, LocalDate to) {
+        return timeIndex.occupancy(from, to);
+    }
+
+    @Override
+    public boolean isMinuteFree(LocalDateTime time) {
+        return !timeIndex.isMinuteBusy(time);
+    }
+
+    @Override
+    public List<Task> autoSchedule(Collection<Integer> ids, LocalDateTime notBefore) {
+        List<Task> candidates = AutoSchedule.candidates(this, ids);
+        List<LocalDateTime> starts = timeIndex.pack(notBefore, AutoSchedule.durations(candidates));
+        List<Task> scheduled = new ArrayList<>(candidates.size());
+        runBatch(() -> {
+            for (int i = 0; i < candidates.size(); i++) {
+                Task item = AutoSchedule.withStartTime(candidates.get(i), starts.get(i));
+                if (item.getType() == TaskType.SUBTASK) {
+                    updateSubtask((Subtask) item);
+                } else {
+                    updateTask(item);
+                }
+                scheduled.add(item);
+            }
+        });
+        return scheduled;
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        List<Task> result = new ArrayList<>();
+        for (int id : searchIndex.search(query, limit)) {
+            result.add(itemsById.get(id));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> suggest(String prefix, int limit) {
+        List<Task> result = new ArrayList<>();
+        for (int id : nameIndex.suggest(prefix, limit)) {
+            result.add(itemsById.get(id));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return page(taskIds, taskMap, afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return page(epicIds, epicMap, afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return page(subtaskIds, subtaskMap, afterId, limit);
+    }
+
+    @Override
+    public List<Task> getHistory(int afterId, int limit) {
+        return historyManager.getHistory(afterId, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(int afterId, int limit) {
+        return getPrioritizedTasks(null, null, afterId, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int afterId, int limit) {
+        NavigableSet<Task> tail = StartTimeOrder.range(prioritizedTasks, from, to);
+        if (afterId != 0) {
+            Task after = itemsById.get(afterId);
+            StartTimeOrder.checkCursor(after, afterId, from, to);
+            tail = tail.tailSet(after, false);
+        }
+        List<Task> result = new ArrayList<>();
+        for (Task task : tail) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+        return taskMap.values().stream();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return epicMap.values().stream();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return subtaskMap.values().stream();
+    }
+
+    @Override
+    public Stream<Task> streamHistory() {
+        return historyManager.streamHistory();
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks() {
+        return prioritizedTasks.stream();
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return StartTimeOrder.range(prioritizedTasks, from, to).stream();
+    }
 }
@@ -6,6 +6,24 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static TaskManager getSharded(int shardCount) {
+        return new ShardedTaskManager(shardCount);
+    }
+
+    // Записи хранятся по столбцам, задачи собираются при чтении
+    public static TaskManager getCompact() {
+        return new CompactTaskManager(new ColumnarTaskStore());
+    }
+
+    // То же, но записи лежат в памяти вне кучи
+    public static TaskManager getOffHeap() {
+        return new CompactTaskManager(new OffHeapTaskStore());
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
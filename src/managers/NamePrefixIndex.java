@@ -0,0 +1,75 @@
+package managers;
+
+import tasks.Task;
+import util.IntHashMap;
+import util.IntLinkedSet;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PrimitiveIterator;
+import java.util.TreeMap;
+
+// Упорядоченный индекс названий для автодополнения: название в нижнем регистре → id задач с таким названием.
+// Совпадения по префиксу лежат подряд, поэтому первые N находятся за O(log n + N).
+public class NamePrefixIndex {
+    private final NavigableMap<String, IntLinkedSet> idsByName = new TreeMap<>();
+    private final IntHashMap<String> nameById = new IntHashMap<>();
+
+    public void add(Task task) {
+        remove(task.getId());
+        if (task.getName() == null) {
+            return;
+        }
+        String key = normalize(task.getName());
+        IntLinkedSet ids = idsByName.get(key);
+        if (ids == null) {
+            ids = new IntLinkedSet(1);
+            idsByName.put(key, ids);
+        } else {
+            // Одинаковые названия делят одну строку — ключ дерева
+            key = idsByName.ceilingKey(key);
+        }
+        ids.add(task.getId());
+        nameById.put(task.getId(), key);
+    }
+
+    public void remove(int id) {
+        String key = nameById.remove(id);
+        if (key == null) {
+            return;
+        }
+        IntLinkedSet ids = idsByName.get(key);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            idsByName.remove(key);
+        }
+    }
+
+    public void clear() {
+        idsByName.clear();
+        nameById.clear();
+    }
+
+    // id первых limit задач, чьё название начинается с prefix, в алфавитном порядке названий
+    public int[] suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        int[] result = new int[Math.min(limit, nameById.size())];
+        int count = 0;
+        for (Map.Entry<String, IntLinkedSet> entry : idsByName.tailMap(key, true).entrySet()) {
+            if (count == result.length || !entry.getKey().startsWith(key)) {
+                break;
+            }
+            PrimitiveIterator.OfInt ids = entry.getValue().iterator();
+            while (count < result.length && ids.hasNext()) {
+                result[count++] = ids.nextInt();
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
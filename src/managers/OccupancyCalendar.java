@@ -0,0 +1,165 @@
+package managers;
+
+import util.IntHashMap;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Занятость по дням с точностью до минуты. Для каждого дня с задачами хранится битовая карта
+// на 1440 минут и число занятых минут, поэтому отчёт стоит O(число дней), а проверка минуты — O(1).
+// Минута занята, если её задевает хотя бы одна задача. Интервалы не пересекаются, поэтому полную минуту
+// занимает одна задача, а неполную могут задевать несколько (A кончается в 10:00:30, B начинается
+// в 10:00:30). Для неполных минут хранится число задевающих их интервалов: минута освобождается
+// вместе с последним из них
+public class OccupancyCalendar {
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final Map<LocalDate, Day> days = new HashMap<>();
+
+    // Отмечает минуты [start, end), неполные крайние минуты тоже
+    void mark(LocalDateTime start, LocalDateTime end) {
+        update(start, end, true);
+    }
+
+    void unmark(LocalDateTime start, LocalDateTime end) {
+        update(start, end, false);
+    }
+
+    void clear() {
+        days.clear();
+    }
+
+    public boolean isBusy(LocalDateTime time) {
+        Day day = days.get(time.toLocalDate());
+        if (day == null) {
+            return false;
+        }
+        int minute = minuteOfDay(time);
+        return (day.bits[minute >>> 6] & 1L << minute) != 0;
+    }
+
+    // По одной записи на каждый день из [from, to], включая свободные
+    public List<DayOccupancy> report(LocalDate from, LocalDate to) {
+        List<DayOccupancy> result = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Day day = days.get(date);
+            result.add(new DayOccupancy(date, day != null ? day.booked : 0));
+        }
+        return result;
+    }
+
+    private void update(LocalDateTime start, LocalDateTime end, boolean busy) {
+        LocalDateTime first = start.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime last = end.truncatedTo(ChronoUnit.MINUTES);
+        if (last.isBefore(end)) {
+            last = last.plusMinutes(1);
+        }
+        if (!first.isBefore(last)) {
+            return;
+        }
+        int delta = busy ? 1 : -1;
+        if (first.plusMinutes(1).equals(last) && (first.isBefore(start) || last.isAfter(end))) {
+            updatePartial(first, delta);
+            return;
+        }
+        if (first.isBefore(start)) {
+            updatePartial(first, delta);
+            first = first.plusMinutes(1);
+        }
+        if (last.isAfter(end)) {
+            last = last.minusMinutes(1);
+            updatePartial(last, delta);
+        }
+        updateRange(first, last, busy);
+    }
+
+    // Минуты [first, last), целиком занятые одним интервалом
+    private void updateRange(LocalDateTime first, LocalDateTime last, boolean busy) {
+        for (LocalDate date = first.toLocalDate(); date.atStartOfDay().isBefore(last); date = date.plusDays(1)) {
+            int from = date.equals(first.toLocalDate()) ? minuteOfDay(first) : 0;
+            int to = date.equals(last.toLocalDate()) ? minuteOfDay(last) : MINUTES_PER_DAY;
+            if (from >= to) {
+                continue;
+            }
+            if (busy) {
+                days.computeIfAbsent(date, key -> new Day()).set(from, to);
+            } else {
+                Day day = days.get(date);
+                if (day != null && day.clear(from, to) == 0) {
+                    days.remove(date);
+                }
+            }
+        }
+    }
+
+    private void updatePartial(LocalDateTime minute, int delta) {
+        Day day = delta > 0 ? days.computeIfAbsent(minute.toLocalDate(), key -> new Day())
+                : days.get(minute.toLocalDate());
+        if (day == null) {
+            return;
+        }
+        int minuteOfDay = minuteOfDay(minute);
+        if (day.changeShared(minuteOfDay, delta) > 0) {
+            day.set(minuteOfDay, minuteOfDay + 1);
+        } else if (day.clear(minuteOfDay, minuteOfDay + 1) == 0) {
+            days.remove(minute.toLocalDate());
+        }
+    }
+
+    private static int minuteOfDay(LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static class Day {
+        final long[] bits = new long[MINUTES_PER_DAY / 64 + 1];
+        int booked;
+        // Минута дня -> число интервалов, задевающих её частично; создаётся по первой такой минуте
+        IntHashMap<Integer> shared;
+
+        // Возвращает новое число интервалов, задевающих минуту
+        int changeShared(int minute, int delta) {
+            if (shared == null) {
+                shared = new IntHashMap<>();
+            }
+            Integer current = shared.get(minute);
+            int count = Math.max((current != null ? current : 0) + delta, 0);
+            if (count == 0) {
+                shared.remove(minute);
+            } else {
+                shared.put(minute, count);
+            }
+            return count;
+        }
+
+        void set(int from, int to) {
+            for (int word = from >>> 6; word <= (to - 1) >>> 6; word++) {
+                long mask = mask(word, from, to);
+                booked += Long.bitCount(mask & ~bits[word]);
+                bits[word] |= mask;
+            }
+        }
+
+        // Возвращает оставшееся число занятых минут
+        int clear(int from, int to) {
+            for (int word = from >>> 6; word <= (to - 1) >>> 6; word++) {
+                long mask = mask(word, from, to);
+                booked -= Long.bitCount(mask & bits[word]);
+                bits[word] &= ~mask;
+            }
+            return booked;
+        }
+
+        // Биты минут [from, to), попадающие в слово word
+        private static long mask(int word, int from, int to) {
+            int low = Math.max(from - (word << 6), 0);
+            int high = Math.min(to - (word << 6), 64);
+            long mask = -1L << low;
+            return high == 64 ? mask : mask & ~(-1L << high);
+        }
+    }
+}
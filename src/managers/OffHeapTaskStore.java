@@ -0,0 +1,382 @@
+package managers;
+
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+// Записи лежат вне кучи, в direct-буферах: записи фиксированной длины подряд в одном буфере,
+// строки в UTF-8 — в отдельной области, запись хранит их смещение и длину. Само хранилище держит в куче
+// только таблицу id -> номер записи (int[], 8–16 байт на запись) и объектов на запись не создаёт.
+// Кучу менеджера это не обнуляет: за CompactTaskManager на каждую запись остаются его индексы —
+// поиск, префиксы имён, интервалы, порядок по времени, — около 150 байт на запись без времени и 265 со временем.
+// Поля читаются прямо из буфера (name, startTime, ...), полная задача собирается только в get.
+// Удалённые строки остаются мусором в области строк, область уплотняется, когда кончается место
+public class OffHeapTaskStore implements TaskStore {
+    private static final int ID = 0;
+    private static final int TYPE = 4;
+    private static final int STATUS = 5;
+    private static final int EPIC_ID = 8;
+    private static final int NAME_OFFSET = 12;
+    private static final int NAME_LENGTH = 16;
+    private static final int DESCRIPTION_OFFSET = 20;
+    private static final int DESCRIPTION_LENGTH = 24;
+    private static final int START = 32;
+    private static final int DURATION = 40;
+    private static final int END = 48;
+    private static final int VERSION = 56;
+    private static final int RECORD_SIZE = 64;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final byte NO_STATUS = -1;
+    private static final int NO_STRING = -1;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private ByteBuffer records;
+    private ByteBuffer strings;
+    private int size;
+    private int stringsEnd;
+    private int garbage;
+    // Открытая адресация id -> номер записи + 1, 0 — пустой слот
+    private int[] table;
+    private int mask;
+
+    public OffHeapTaskStore() {
+        this(1024);
+    }
+
+    public OffHeapTaskStore(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        records = ByteBuffer.allocateDirect(capacity * RECORD_SIZE);
+        strings = ByteBuffer.allocateDirect(capacity * 32);
+        table = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        mask = table.length - 1;
+    }
+
+    @Override
+    public void put(Task item) {
+        byte[] name = encode(item.getName());
+        byte[] description = encode(item.getDescription());
+        ensureStrings(length(name) + length(description));
+
+        int row = find(item.getId());
+        int oldStrings = 0;
+        if (row < 0) {
+            if ((size + 1) * RECORD_SIZE > records.capacity()) {
+                grow();
+            }
+            row = size++;
+            records.putInt(row * RECORD_SIZE + ID, item.getId());
+            link(row);
+        } else {
+            oldStrings = length(row, NAME_LENGTH) + length(row, DESCRIPTION_LENGTH);
+        }
+        int base = row * RECORD_SIZE;
+        records.put(base + TYPE, (byte) item.getType().ordinal());
+        records.put(base + STATUS, item.getStatus() == null ? NO_STATUS : (byte) item.getStatus().ordinal());
+        records.putInt(base + EPIC_ID, item instanceof Subtask subtask ? subtask.getEpicId() : 0);
+        writeString(base + NAME_OFFSET, name);
+        writeString(base + DESCRIPTION_OFFSET, description);
+        records.putLong(base + START, toSeconds(item.getStartTime()));
+        records.putLong(base + DURATION, item.getDuration() == null ? NO_TIME : item.getDuration().getSeconds());
+        records.putLong(base + END, toSeconds(item.getEndTime()));
+        records.putLong(base + VERSION, item.getVersion());
+        garbage += oldStrings;
+    }
+
+    @Override
+    public Task get(int id) {
+        int row = find(id);
+        if (row < 0) {
+            return null;
+        }
+        String name = readString(row, NAME_OFFSET);
+        String description = readString(row, DESCRIPTION_OFFSET);
+        Status status = status(row);
+        Duration duration = duration(row);
+        LocalDateTime start = time(row, START);
+        Task item = switch (type(row)) {
+            case TASK -> new Task(name, description, status, duration, start);
+            case SUBTASK -> new Subtask(name, description, status, duration, start, epicId(row));
+            case EPIC -> {
+                Epic epic = new Epic(name, description);
+                epic.setStatus(status);
+                epic.setDuration(duration);
+                epic.setStartTime(start);
+                yield epic;
+            }
+        };
+        item.setId(id);
+        item.setEndTime(time(row, END));
+        item.setVersion(records.getLong(row * RECORD_SIZE + VERSION));
+        return item;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return find(id) >= 0;
+    }
+
+    @Override
+    public boolean remove(int id) {
+        int row = find(id);
+        if (row < 0) {
+            return false;
+        }
+        garbage += length(row, NAME_LENGTH) + length(row, DESCRIPTION_LENGTH);
+        unlink(id);
+        int last = --size;
+        if (row != last) {
+            table[position(idAt(last))] = row + 1;
+            records.put(row * RECORD_SIZE, records, last * RECORD_SIZE, RECORD_SIZE);
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        stringsEnd = 0;
+        garbage = 0;
+        Arrays.fill(table, 0);
+    }
+
+    @Override
+    public TaskType getType(int id) {
+        return type(existing(id));
+    }
+
+    @Override
+    public String getName(int id) {
+        return readString(existing(id), NAME_OFFSET);
+    }
+
+    @Override
+    public String getDescription(int id) {
+        return readString(existing(id), DESCRIPTION_OFFSET);
+    }
+
+    @Override
+    public Status getStatus(int id) {
+        return status(existing(id));
+    }
+
+    @Override
+    public int getEpicId(int id) {
+        return epicId(existing(id));
+    }
+
+    @Override
+    public Duration getDuration(int id) {
+        return duration(existing(id));
+    }
+
+    @Override
+    public LocalDateTime getStartTime(int id) {
+        return time(existing(id), START);
+    }
+
+    @Override
+    public LocalDateTime getEndTime(int id) {
+        return time(existing(id), END);
+    }
+
+    @Override
+    public long getVersion(int id) {
+        return records.getLong(existing(id) * RECORD_SIZE + VERSION);
+    }
+
+    @Override
+    public void setStatus(int id, Status status) {
+        records.put(existing(id) * RECORD_SIZE + STATUS, status == null ? NO_STATUS : (byte) status.ordinal());
+    }
+
+    @Override
+    public void setTime(int id, LocalDateTime startTime, Duration duration, LocalDateTime endTime) {
+        int base = existing(id) * RECORD_SIZE;
+        records.putLong(base + START, toSeconds(startTime));
+        records.putLong(base + DURATION, duration == null ? NO_TIME : duration.getSeconds());
+        records.putLong(base + END, toSeconds(endTime));
+    }
+
+    @Override
+    public void setVersion(int id, long version) {
+        records.putLong(existing(id) * RECORD_SIZE + VERSION, version);
+    }
+
+    // Сколько байт вне кучи занято записями и строками
+    public long offHeapBytes() {
+        return (long) records.capacity() + strings.capacity();
+    }
+
+    private int existing(int id) {
+        int row = find(id);
+        if (row < 0) {
+            throw new IllegalArgumentException("Записи с id " + id + " нет");
+        }
+        return row;
+    }
+
+    private int idAt(int row) {
+        return records.getInt(row * RECORD_SIZE + ID);
+    }
+
+    private TaskType type(int row) {
+        return TYPES[records.get(row * RECORD_SIZE + TYPE)];
+    }
+
+    private Status status(int row) {
+        byte status = records.get(row * RECORD_SIZE + STATUS);
+        return status == NO_STATUS ? null : STATUSES[status];
+    }
+
+    private int epicId(int row) {
+        return records.getInt(row * RECORD_SIZE + EPIC_ID);
+    }
+
+    private Duration duration(int row) {
+        long seconds = records.getLong(row * RECORD_SIZE + DURATION);
+        return seconds == NO_TIME ? null : Duration.ofSeconds(seconds);
+    }
+
+    private LocalDateTime time(int row, int field) {
+        long seconds = records.getLong(row * RECORD_SIZE + field);
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private int length(int row, int lengthField) {
+        return Math.max(0, records.getInt(row * RECORD_SIZE + lengthField));
+    }
+
+    // Поле длины идёт сразу за полем смещения
+    private void writeString(int offsetField, byte[] bytes) {
+        if (bytes == null) {
+            records.putInt(offsetField + 4, NO_STRING);
+            return;
+        }
+        strings.put(stringsEnd, bytes);
+        records.putInt(offsetField, stringsEnd);
+        records.putInt(offsetField + 4, bytes.length);
+        stringsEnd += bytes.length;
+    }
+
+    private String readString(int row, int offsetField) {
+        int base = row * RECORD_SIZE + offsetField;
+        int length = records.getInt(base + 4);
+        if (length == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        strings.get(records.getInt(base), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Если места нет, живые строки переписываются подряд в новую область хотя бы вдвое больше нужного
+    private void ensureStrings(int needed) {
+        if (stringsEnd + needed <= strings.capacity()) {
+            return;
+        }
+        int live = stringsEnd - garbage;
+        int capacity = strings.capacity();
+        while (capacity < (live + needed) * 2) {
+            capacity *= 2;
+        }
+        ByteBuffer compacted = ByteBuffer.allocateDirect(capacity);
+        int end = 0;
+        for (int row = 0; row < size; row++) {
+            end = moveString(compacted, end, row * RECORD_SIZE + NAME_OFFSET);
+            end = moveString(compacted, end, row * RECORD_SIZE + DESCRIPTION_OFFSET);
+        }
+        strings = compacted;
+        stringsEnd = end;
+        garbage = 0;
+    }
+
+    private int moveString(ByteBuffer target, int end, int offsetField) {
+        int length = records.getInt(offsetField + 4);
+        if (length == NO_STRING) {
+            return end;
+        }
+        target.put(end, strings, records.getInt(offsetField), length);
+        records.putInt(offsetField, end);
+        return end + length;
+    }
+
+    private void grow() {
+        ByteBuffer larger = ByteBuffer.allocateDirect(records.capacity() * 2);
+        larger.put(0, records, 0, size * RECORD_SIZE);
+        records = larger;
+        table = new int[table.length * 2];
+        mask = table.length - 1;
+        for (int row = 0; row < size; row++) {
+            link(row);
+        }
+    }
+
+    private int find(int id) {
+        int position = position(id);
+        return position < 0 ? -1 : table[position] - 1;
+    }
+
+    private int position(int id) {
+        for (int i = hash(id) & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (idAt(table[i] - 1) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void link(int row) {
+        int i = hash(idAt(row)) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = row + 1;
+    }
+
+    // Удаление со сдвигом назад: следующие записи кластера подтягиваются, чтобы поиск не прерывался на дыре
+    private void unlink(int id) {
+        int hole = position(id);
+        for (int i = (hole + 1) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int home = hash(idAt(table[i] - 1)) & mask;
+            boolean movable = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+            if (movable) {
+                table[hole] = table[i];
+                hole = i;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,142 @@
+package managers;
+
+import tasks.Task;
+import util.IntHashMap;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Инвертированный индекс по словам из названия и описания задач.
+// Для каждого слова хранится список id с весом: слово в названии весит больше, чем в описании.
+// Результаты ранжируются по сумме вес × idf совпавших слов.
+public class SearchIndex {
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    // Слова каждой задачи — чтобы удалять её из индекса без повторного разбора текста.
+    // Ссылки на строки из postings: одно слово хранится один раз, сколько бы задач его ни содержали
+    private final IntHashMap<String[]> termsById = new IntHashMap<>();
+
+    public void add(Task task) {
+        remove(task.getId());
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(task.getName())) {
+            weights.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(task.getDescription())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        if (weights.isEmpty()) {
+            return;
+        }
+        String[] terms = new String[weights.size()];
+        int index = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            Postings term = postings.computeIfAbsent(entry.getKey(), Postings::new);
+            term.ids.put(task.getId(), entry.getValue());
+            terms[index++] = term.term;
+        }
+        termsById.put(task.getId(), terms);
+    }
+
+    public void remove(int id) {
+        String[] terms = termsById.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            IntHashMap<Integer> ids = postings.get(term).ids;
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        termsById.clear();
+    }
+
+    // id не более limit лучших совпадений, по убыванию релевантности (при равенстве — по возрастанию id)
+    public int[] search(String query, int limit) {
+        Set<String> terms = tokenize(query);
+        IntHashMap<double[]> scores = new IntHashMap<>();
+        for (String term : terms) {
+            Postings posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            IntHashMap<Integer> ids = posting.ids;
+            double idf = Math.log(1 + (double) termsById.size() / ids.size());
+            ids.forEachEntry((id, weight) -> scores.computeIfAbsent(id, key -> new double[1])[0] += weight * idf);
+        }
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(Hit::compareTo);
+        scores.forEachEntry((id, score) -> {
+            Hit hit = new Hit(id, score[0]);
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (limit > 0 && hit.compareTo(best.peek()) > 0) {
+                best.poll();
+                best.add(hit);
+            }
+        });
+        int[] result = new int[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = best.poll().id;
+        }
+        return result;
+    }
+
+    // Слова в нижнем регистре: последовательности букв и цифр
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static class Postings {
+        final String term;
+        // id задачи → вес слова в ней
+        final IntHashMap<Integer> ids = new IntHashMap<>();
+
+        Postings(String term) {
+            this.term = term;
+        }
+    }
+
+    private static class Hit implements Comparable<Hit> {
+        final int id;
+        final double score;
+
+        Hit(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        // Больше — лучше: выше релевантность, при равенстве меньший id
+        @Override
+        public int compareTo(Hit other) {
+            int result = Double.compare(score, other.score);
+            return result != 0 ? result : Integer.compare(other.id, id);
+        }
+    }
+}
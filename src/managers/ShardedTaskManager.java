@@ -0,0 +1,846 @@
+package managers;
+
+import exception.TaskOverlapException;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Менеджер, разделённый на несколько InMemoryTaskManager без индексов (шардов). Задача и эпик попадают
+// в шард по своему id, подзадача — в шард своего эпика, поэтому статус и время эпика считаются внутри шарда.
+// Каждый шард защищён своим монитором, и записи в разные шарды идут параллельно.
+// Общими остаются только индексы, которым нужны все записи сразу: расписание, поиск, подсказки,
+// зависимости и история. Их обновляют события шардов. Списки собираются слиянием упорядоченных списков шардов.
+// Порядок блокировок: мониторы шардов по возрастанию номера, затем блокировка расписания
+public class ShardedTaskManager implements TaskManager {
+    private final InMemoryTaskManager[] shards;
+    private final AtomicInteger counter = new AtomicInteger(1);
+    // В каком шарде лежит запись
+    private final ConcurrentMap<Integer, InMemoryTaskManager> owners = new ConcurrentHashMap<>();
+    // Подзадачи, которые сейчас переезжают в другой шард: их зависимости сохраняются
+    private final Set<Integer> moving = ConcurrentHashMap.newKeySet();
+    // Общее расписание: проверка пересечения и вставка в шард выполняются под одной блокировкой
+    private final TimeIntervalIndex timeIndex = new TimeIntervalIndex();
+    private final ReentrantLock scheduleLock = new ReentrantLock();
+    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    // Оба текстовых индекса меняются под монитором searchIndex
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final NamePrefixIndex nameIndex = new NamePrefixIndex();
+    private final DependencyGraph dependencies = new DependencyGraph();
+    // Синхронные подписчики вызываются под монитором шарда — им нельзя ждать другие потоки
+    private final TaskEventBus events = new TaskEventBus();
+
+    public ShardedTaskManager(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Число шардов должно быть положительным: " + shardCount);
+        }
+        shards = new InMemoryTaskManager[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            InMemoryTaskManager shard = new InMemoryTaskManager(false);
+            shard.addListener(batch -> onShardEvents(shard, batch));
+            shards[i] = shard;
+        }
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return getTasks(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void removeTasks() {
+        inBatch(() -> {
+            for (InMemoryTaskManager shard : shards) {
+                synchronized (shard) {
+                    removeFromHistory(shard.getTasks());
+                    shard.removeTasks();
+                }
+            }
+        });
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        Task task = find(id, TaskType.TASK);
+        addToHistory(task);
+        return task;
+    }
+
+    @Override
+    public void createTask(Task task) {
+        task.setId(counter.getAndIncrement());
+        InMemoryTaskManager shard = shardFor(task.getId());
+        write(shard, task, "Ошибка: задача пересекается по времени с другой задачей.", () -> shard.restore(task));
+    }
+
+    // Пакет проверяется целиком до первой вставки: либо создаются все задачи, либо ни одной
+    @Override
+    public void createTasks(Collection<Task> tasks) {
+        Map<InMemoryTaskManager, List<Task>> byShard = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            task.setId(counter.getAndIncrement());
+            byShard.computeIfAbsent(shardFor(task.getId()), shard -> new ArrayList<>()).add(task);
+        }
+        try {
+            writeAll(byShard, tasks, "Ошибка: задачи пакета пересекаются по времени.");
+        } catch (RuntimeException e) {
+            for (Task task : tasks) {
+                task.setId(0);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        InMemoryTaskManager shard = shardFor(task.getId());
+        write(shard, task, "Задача пересекается по времени", () -> shard.updateTask(task));
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        InMemoryTaskManager shard = shardFor(id);
+        synchronized (shard) {
+            shard.removeTaskById(id);
+        }
+        removeFromHistory(id);
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return getEpics(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void removeEpics() {
+        inBatch(() -> {
+            for (InMemoryTaskManager shard : shards) {
+                synchronized (shard) {
+                    removeFromHistory(shard.getSubtasks());
+                    removeFromHistory(shard.getEpics());
+                    shard.removeEpics();
+                }
+            }
+        });
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        Epic epic = (Epic) find(id, TaskType.EPIC);
+        addToHistory(epic);
+        return epic;
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        if (epic.getId() == 0) {
+            epic.setId(counter.getAndIncrement());
+        } else {
+            counter.accumulateAndGet(epic.getId() + 1, Math::max);
+        }
+        InMemoryTaskManager shard = shardFor(epic.getId());
+        synchronized (shard) {
+            shard.createEpic(epic);
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        InMemoryTaskManager shard = shardFor(epic.getId());
+        synchronized (shard) {
+            shard.updateEpic(epic);
+        }
+    }
+
+    @Override
+    public void removeEpicById(int id) {
+        InMemoryTaskManager shard = shardFor(id);
+        synchronized (shard) {
+            removeFromHistory(shard.getSubtasksByEpicId(id));
+            shard.removeEpicById(id);
+        }
+        removeFromHistory(id);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return getSubtasks(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void removeSubtasks() {
+        inBatch(() -> {
+            for (InMemoryTaskManager shard : shards) {
+                synchronized (shard) {
+                    removeFromHistory(shard.getSubtasks());
+                    shard.removeSubtasks();
+                }
+            }
+        });
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        Subtask subtask = (Subtask) find(id, TaskType.SUBTASK);
+        addToHistory(subtask);
+        return subtask;
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) {
+        InMemoryTaskManager shard = shardFor(subtask.getEpicId());
+        subtask.setId(counter.getAndIncrement());
+        try {
+            write(shard, subtask, "Ошибка: сабтакс пересекается по времени с другой задачей.",
+                    () -> shard.restore(subtask));
+        } catch (IllegalArgumentException e) {
+            subtask.setId(0);
+            System.out.println("Ошибка: Эпик с ID " + subtask.getEpicId() + " не найден.");
+        }
+    }
+
+    @Override
+    public void createSubtasks(Collection<Subtask> subtasks) {
+        Map<InMemoryTaskManager, List<Task>> byShard = new LinkedHashMap<>();
+        for (Subtask subtask : subtasks) {
+            byShard.computeIfAbsent(shardFor(subtask.getEpicId()), shard -> new ArrayList<>()).add(subtask);
+        }
+        for (Subtask subtask : subtasks) {
+            subtask.setId(counter.getAndIncrement());
+        }
+        try {
+            writeAll(byShard, subtasks, "Ошибка: подзадачи пакета пересекаются по времени.");
+        } catch (RuntimeException e) {
+            for (Subtask subtask : subtasks) {
+                subtask.setId(0);
+            }
+            throw e;
+        }
+    }
+
+    // Подзадача, перенесённая в эпик другого шарда, удаляется из прежнего шарда и создаётся в новом —
+    // подписчики получают REMOVED и CREATED вместо UPDATED
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        InMemoryTaskManager current = owners.get(subtask.getId());
+        if (current == null) {
+            return;
+        }
+        InMemoryTaskManager target = shardFor(subtask.getEpicId());
+        if (target == current) {
+            write(current, subtask, "Подзадача пересекается по времени", () -> current.updateSubtask(subtask));
+            return;
+        }
+        withShardsLocked(sorted(List.of(current, target)), 0, () -> {
+            Task old = current.findById(subtask.getId());
+            if (old == null || old.getType() != TaskType.SUBTASK) {
+                return;
+            }
+            if (target.findById(subtask.getEpicId()) == null) {
+                // Эпика нет — подзадача остаётся в прежнем
+                subtask.setEpicId(((Subtask) old).getEpicId());
+                write(current, subtask, "Подзадача пересекается по времени", () -> current.updateSubtask(subtask));
+                return;
+            }
+            // Версия продолжается в новом шарде
+            subtask.setVersion(old.getVersion());
+            moving.add(subtask.getId());
+            try {
+                write(target, subtask, "Подзадача пересекается по времени", () -> {
+                    current.removeSubtaskById(subtask.getId());
+                    target.restore(subtask);
+                });
+            } finally {
+                moving.remove(subtask.getId());
+            }
+        });
+    }
+
+    // Шард записи (и шард нового эпика подзадачи) держится от проверки версии до конца обновления
+    @Override
+    public long updateIfVersion(Task item, long expectedVersion) {
+        InMemoryTaskManager current = owners.get(item.getId());
+        if (current == null) {
+            return -1;
+        }
+        List<InMemoryTaskManager> locked = item instanceof Subtask subtask
+                ? sorted(List.of(current, shardFor(subtask.getEpicId()))) : List.of(current);
+        long[] stored = {-1};
+        withShardsLocked(locked, 0, () -> {
+            Task existing = current.findById(item.getId());
+            if (owners.get(item.getId()) != current || existing == null || existing.getType() != item.getType()
+                    || existing.getVersion() != expectedVersion) {
+                return;
+            }
+            switch (item.getType()) {
+                case TASK -> updateTask(item);
+                case SUBTASK -> updateSubtask((Subtask) item);
+                case EPIC -> updateEpic((Epic) item);
+            }
+            // Подзадача могла переехать во второй заблокированный шард
+            stored[0] = owners.get(item.getId()).findById(item.getId()).getVersion();
+        });
+        return stored[0];
+    }
+
+    @Override
+    public void removeSubtaskById(int id) {
+        InMemoryTaskManager shard = owners.get(id);
+        if (shard != null) {
+            synchronized (shard) {
+                shard.removeSubtaskById(id);
+            }
+        }
+        removeFromHistory(id);
+    }
+
+    @Override
+    public Task getById(int id) {
+        Task item = findById(id);
+        addToHistory(item);
+        return item;
+    }
+
+    @Override
+    public Task findById(int id) {
+        InMemoryTaskManager shard = owners.get(id);
+        if (shard == null) {
+            return null;
+        }
+        synchronized (shard) {
+            return shard.findById(id);
+        }
+    }
+
+    @Override
+    public void restore(Task item) {
+        counter.accumulateAndGet(item.getId() + 1, Math::max);
+        InMemoryTaskManager shard = shardFor(item.getType() == TaskType.SUBTASK
+                ? ((Subtask) item).getEpicId() : item.getId());
+        write(shard, item, "Подзадача пересекается по времени", () -> shard.restore(item));
+    }
+
+    // Пакет не изолирован от других потоков: операции видны по мере выполнения
+    @Override
+    public void runBatch(Runnable operations) {
+        inBatch(operations);
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener) {
+        events.subscribe(listener, null);
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener, Executor executor) {
+        events.subscribe(listener, executor);
+    }
+
+    @Override
+    public void removeListener(TaskEventListener listener) {
+        events.unsubscribe(listener);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        return getSubtasksByEpicId(epicId, false);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId, boolean sortedByTime) {
+        InMemoryTaskManager shard = shardFor(epicId);
+        synchronized (shard) {
+            return shard.getSubtasksByEpicId(epicId, sortedByTime);
+        }
+    }
+
+    @Override
+    public void updateEpicStatus(Epic epic) {
+        InMemoryTaskManager shard = shardFor(epic.getId());
+        synchronized (shard) {
+            shard.updateEpicStatus(epic);
+        }
+    }
+
+    @Override
+    public void updateEpicTime(Epic epic) {
+        InMemoryTaskManager shard = shardFor(epic.getId());
+        synchronized (shard) {
+            shard.updateEpicTime(epic);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        synchronized (historyManager) {
+            return historyManager.getHistory();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return merge(collect(InMemoryTaskManager::getPrioritizedTasks), StartTimeOrder.COMPARATOR,
+                Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return merge(collect(shard -> shard.getPrioritizedTasks(from, to)), StartTimeOrder.COMPARATOR,
+                Integer.MAX_VALUE);
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore) {
+        scheduleLock.lock();
+        try {
+            return timeIndex.findFreeSlot(notBefore, duration);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    @Override
+    public List<DayOccupancy> getTimeline(LocalDate from, LocalDate to) {
+        scheduleLock.lock();
+        try {
+            return timeIndex.occupancy(from, to);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isMinuteFree(LocalDateTime time) {
+        scheduleLock.lock();
+        try {
+            return !timeIndex.isMinuteBusy(time);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    // Вершины удалённых записей убирает обработчик событий шарда после того, как запись исчезла из owners
+    @Override
+    public void addDependency(int id, int dependsOnId) {
+        Task item = dependencyItem(id);
+        Task dependsOn = dependencyItem(dependsOnId);
+        synchronized (dependencies) {
+            if (!owners.containsKey(id) || !owners.containsKey(dependsOnId)) {
+                throw new IllegalArgumentException("Задача или подзадача не найдена");
+            }
+            dependencies.add(dependsOnId, dependsOn.getDuration(), id, item.getDuration());
+        }
+    }
+
+    @Override
+    public void removeDependency(int id, int dependsOnId) {
+        synchronized (dependencies) {
+            dependencies.remove(dependsOnId, id);
+        }
+    }
+
+    @Override
+    public List<Integer> getDependencies(int id) {
+        int[] predecessors;
+        synchronized (dependencies) {
+            predecessors = dependencies.predecessors(id);
+        }
+        List<Integer> result = new ArrayList<>(predecessors.length);
+        for (int dependsOnId : predecessors) {
+            result.add(dependsOnId);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Integer> getDependents(int id) {
+        int[] successors;
+        synchronized (dependencies) {
+            successors = dependencies.successors(id);
+        }
+        List<Integer> result = new ArrayList<>(successors.length);
+        for (int dependentId : successors) {
+            result.add(dependentId);
+        }
+        return result;
+    }
+
+    @Override
+    public CriticalPath getCriticalPath(int epicId) {
+        if (find(epicId, TaskType.EPIC) == null) {
+            return null;
+        }
+        Map<Integer, Duration> durations = new LinkedHashMap<>();
+        for (Subtask subtask : getSubtasksByEpicId(epicId)) {
+            durations.put(subtask.getId(), subtask.getDuration());
+        }
+        int[] subtaskIds = durations.keySet().stream().mapToInt(Integer::intValue).toArray();
+        synchronized (dependencies) {
+            return dependencies.criticalPath(epicId, subtaskIds, durations::get);
+        }
+    }
+
+    // Как у ConcurrentTaskManager: план строится под блокировкой расписания, записи, чей интервал успел
+    // занять другой поток, пропускаются
+    @Override
+    public List<Task> autoSchedule(Collection<Integer> ids, LocalDateTime notBefore) {
+        List<Task> candidates = AutoSchedule.candidates(this, ids);
+        List<LocalDateTime> starts;
+        scheduleLock.lock();
+        try {
+            starts = timeIndex.pack(notBefore, AutoSchedule.durations(candidates));
+        } finally {
+            scheduleLock.unlock();
+        }
+        List<Task> scheduled = new ArrayList<>(candidates.size());
+        inBatch(() -> {
+            for (int i = 0; i < candidates.size(); i++) {
+                Task item = AutoSchedule.withStartTime(candidates.get(i), starts.get(i));
+                try {
+                    if (item.getType() == TaskType.SUBTASK) {
+                        updateSubtask((Subtask) item);
+                    } else {
+                        updateTask(item);
+                    }
+                    scheduled.add(item);
+                } catch (TaskOverlapException e) {
+                    // Остаётся без времени начала
+                }
+            }
+        });
+        return scheduled;
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        int[] ids;
+        synchronized (searchIndex) {
+            ids = searchIndex.search(query, limit);
+        }
+        return itemsOf(ids);
+    }
+
+    @Override
+    public List<Task> suggest(String prefix, int limit) {
+        int[] ids;
+        synchronized (searchIndex) {
+            ids = nameIndex.suggest(prefix, limit);
+        }
+        return itemsOf(ids);
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return merge(collect(shard -> shard.getTasks(afterId, limit)), BY_ID, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return merge(collect(shard -> shard.getEpics(afterId, limit)), BY_ID, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return merge(collect(shard -> shard.getSubtasks(afterId, limit)), BY_ID, limit);
+    }
+
+    @Override
+    public List<Task> getHistory(int afterId, int limit) {
+        synchronized (historyManager) {
+            return historyManager.getHistory(afterId, limit);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(int afterId, int limit) {
+        return getPrioritizedTasks(null, null, afterId, limit);
+    }
+
+    // Курсор ищется по времени начала в каждом шарде, а не по id: в других шардах его нет
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int afterId, int limit) {
+        if (afterId == 0) {
+            return merge(collect(shard -> shard.getPrioritizedTasks(from, to, 0, limit)), StartTimeOrder.COMPARATOR,
+                    limit);
+        }
+        Task after = findById(afterId);
+        StartTimeOrder.checkCursor(after, afterId, from, to);
+        return merge(collect(shard -> shard.streamPrioritizedTasks(after.getStartTime(), to)
+                .filter(task -> StartTimeOrder.COMPARATOR.compare(task, after) > 0)
+                .limit(limit)
+                .collect(Collectors.toList())), StartTimeOrder.COMPARATOR, limit);
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+        return getTasks().stream();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return getEpics().stream();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return getSubtasks().stream();
+    }
+
+    @Override
+    public Stream<Task> streamHistory() {
+        return getHistory().stream();
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks() {
+        return getPrioritizedTasks().stream();
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return getPrioritizedTasks(from, to).stream();
+    }
+
+    private static final Comparator<Task> BY_ID = Comparator.comparingInt(Task::getId);
+
+    private InMemoryTaskManager shardFor(int id) {
+        return shards[Math.floorMod(id, shards.length)];
+    }
+
+    private Task find(int id, TaskType type) {
+        Task item = findById(id);
+        return item != null && item.getType() == type ? item : null;
+    }
+
+    private Task dependencyItem(int id) {
+        Task item = findById(id);
+        if (item == null || item.getType() == TaskType.EPIC) {
+            throw new IllegalArgumentException("Задача или подзадача с id " + id + " не найдена");
+        }
+        return item;
+    }
+
+    private List<Task> itemsOf(int[] ids) {
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task item = findById(id);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    // Запись в шард. Для записи со временем начала пересечение проверяется по общему расписанию,
+    // и до конца вставки расписание никто другой не меняет
+    private void write(InMemoryTaskManager shard, Task item, String overlapMessage, Runnable action) {
+        synchronized (shard) {
+            if (item.getType() == TaskType.EPIC || item.getStartTime() == null) {
+                action.run();
+                return;
+            }
+            scheduleLock.lock();
+            try {
+                if (timeIndex.overlaps(item)) {
+                    throw new TaskOverlapException(overlapMessage);
+                }
+                action.run();
+            } finally {
+                scheduleLock.unlock();
+            }
+        }
+    }
+
+    // Пакетная вставка: все затронутые шарды блокируются разом, пакет проверяется целиком
+    private void writeAll(Map<InMemoryTaskManager, List<Task>> byShard, Collection<? extends Task> items,
+                          String overlapMessage) {
+        withShardsLocked(sorted(byShard.keySet()), 0, () -> {
+            for (Task item : items) {
+                if (item.getType() == TaskType.SUBTASK
+                        && shardFor(((Subtask) item).getEpicId()).findById(((Subtask) item).getEpicId()) == null) {
+                    throw new IllegalArgumentException("Эпик с ID " + ((Subtask) item).getEpicId() + " не найден.");
+                }
+            }
+            scheduleLock.lock();
+            try {
+                if (timeIndex.overlapsAny(items)) {
+                    throw new TaskOverlapException(overlapMessage);
+                }
+                inBatch(() -> byShard.forEach((shard, shardItems) -> {
+                    for (Task item : shardItems) {
+                        shard.restore(item);
+                    }
+                }));
+            } finally {
+                scheduleLock.unlock();
+            }
+        });
+    }
+
+    private List<InMemoryTaskManager> sorted(Collection<InMemoryTaskManager> touched) {
+        List<InMemoryTaskManager> result = new ArrayList<>();
+        for (InMemoryTaskManager shard : shards) {
+            if (touched.contains(shard)) {
+                result.add(shard);
+            }
+        }
+        return result;
+    }
+
+    private void withShardsLocked(List<InMemoryTaskManager> locked, int index, Runnable action) {
+        if (index == locked.size()) {
+            action.run();
+            return;
+        }
+        synchronized (locked.get(index)) {
+            withShardsLocked(locked, index + 1, action);
+        }
+    }
+
+    // Списки шардов, снятые под их мониторами
+    private <T> List<List<T>> collect(Function<InMemoryTaskManager, List<T>> read) {
+        List<List<T>> lists = new ArrayList<>(shards.length);
+        for (InMemoryTaskManager shard : shards) {
+            synchronized (shard) {
+                lists.add(read.apply(shard));
+            }
+        }
+        return lists;
+    }
+
+    // Слияние упорядоченных списков шардов: O(n log k), не больше limit элементов
+    private static <T> List<T> merge(List<List<T>> lists, Comparator<? super T> comparator, int limit) {
+        PriorityQueue<MergeCursor<T>> heads = new PriorityQueue<>(
+                (a, b) -> comparator.compare(a.head(), b.head()));
+        int total = 0;
+        for (List<T> list : lists) {
+            if (!list.isEmpty()) {
+                heads.add(new MergeCursor<>(list));
+                total += list.size();
+            }
+        }
+        List<T> result = new ArrayList<>(Math.min(total, limit));
+        while (!heads.isEmpty() && result.size() < limit) {
+            MergeCursor<T> cursor = heads.poll();
+            result.add(cursor.head());
+            if (++cursor.index < cursor.list.size()) {
+                heads.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    // Общие индексы следуют за шардами. Обработчик вызывается под монитором шарда
+    private void onShardEvents(InMemoryTaskManager shard, List<TaskEvent> batch) {
+        inBatch(() -> {
+            for (TaskEvent event : batch) {
+                int id = event.getId();
+                Task before = event.getBefore();
+                Task after = event.getAfter();
+                if (after != null) {
+                    owners.put(id, shard);
+                } else {
+                    owners.remove(id, shard);
+                }
+                if (event.getType() != TaskType.EPIC && (hasStartTime(before) || hasStartTime(after))) {
+                    scheduleLock.lock();
+                    try {
+                        timeIndex.remove(id);
+                        if (after != null) {
+                            timeIndex.add(after);
+                        }
+                    } finally {
+                        scheduleLock.unlock();
+                    }
+                }
+                synchronized (searchIndex) {
+                    if (after != null) {
+                        searchIndex.add(after);
+                        if (after.getType() != TaskType.SUBTASK) {
+                            nameIndex.add(after);
+                        }
+                    } else {
+                        searchIndex.remove(id);
+                        nameIndex.remove(id);
+                    }
+                }
+                synchronized (dependencies) {
+                    if (after != null) {
+                        dependencies.setDuration(id, after.getDuration());
+                    } else if (!moving.contains(id)) {
+                        dependencies.removeNode(id);
+                    }
+                }
+                events.publish(event);
+            }
+        });
+    }
+
+    private void inBatch(Runnable operations) {
+        events.beginBatch();
+        try {
+            operations.run();
+        } finally {
+            events.endBatch();
+        }
+    }
+
+    private static boolean hasStartTime(Task task) {
+        return task != null && task.getStartTime() != null;
+    }
+
+    private void addToHistory(Task task) {
+        if (task != null) {
+            synchronized (historyManager) {
+                historyManager.add(task);
+            }
+        }
+    }
+
+    private void removeFromHistory(int id) {
+        synchronized (historyManager) {
+            historyManager.remove(id);
+        }
+    }
+
+    private void removeFromHistory(List<? extends Task> items) {
+        synchronized (historyManager) {
+            for (Task item : items) {
+                historyManager.remove(item.getId());
+            }
+        }
+    }
+
+    private static final class MergeCursor<T> {
+        final List<T> list;
+        int index;
+
+        MergeCursor(List<T> list) {
+            this.list = list;
+        }
+
+        T head() {
+            return list.get(index);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package managers;
+
+import tasks.Epic;
+import tasks.Task;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.NavigableSet;
+
+// Порядок задач по времени начала (при равенстве — по id) и выборка диапазона из упорядоченного набора
+final class StartTimeOrder {
+    static final Comparator<Task> COMPARATOR = (t1, t2) -> {
+        int result = t1.getStartTime().compareTo(t2.getStartTime());
+        return result != 0 ? result : Integer.compare(t1.getId(), t2.getId());
+    };
+
+    private StartTimeOrder() {
+    }
+
+    // Задачи с началом в интервале [from, to); null — граница не задана
+    static NavigableSet<Task> range(NavigableSet<Task> tasks, LocalDateTime from, LocalDateTime to) {
+        NavigableSet<Task> range = tasks;
+        if (from != null) {
+            range = range.tailSet(probe(from), true);
+        }
+        if (to != null) {
+            if (from != null && !from.isBefore(to)) {
+                return Collections.emptyNavigableSet();
+            }
+            range = range.headSet(probe(to), false);
+        }
+        return range;
+    }
+
+    // Курсор страницы окна [from, to): задача или подзадача со временем начала внутри окна
+    static void checkCursor(Task after, int afterId, LocalDateTime from, LocalDateTime to) {
+        if (after == null || after instanceof Epic || after.getStartTime() == null) {
+            throw new IllegalArgumentException("Задача с id " + afterId + " не найдена в списке приоритетов");
+        }
+        checkCursorTime(after.getStartTime(), afterId, from, to);
+    }
+
+    static void checkCursorTime(LocalDateTime start, int afterId, LocalDateTime from, LocalDateTime to) {
+        if ((from != null && start.isBefore(from)) || (to != null && !start.isBefore(to))) {
+            throw new IllegalArgumentException("Задача с id " + afterId + " вне окна списка приоритетов");
+        }
+    }
+
+    static Task probe(LocalDateTime time) {
+        Task probe = new Task(null, null, null, null, time);
+        probe.setId(Integer.MIN_VALUE);
+        return probe;
+    }
+}
@@ -0,0 +1,69 @@
+package managers;
+
+import tasks.Task;
+import tasks.TaskType;
+
+// Изменение одной записи менеджера. before — состояние до изменения (null у CREATED),
+// after — после (null у REMOVED). Эпик изменяется на месте, поэтому у его UPDATED before — копия
+// с прежними названием и описанием. Пересчёт статуса и времени эпика отдельных событий не порождает:
+// он следует из событий его подзадач
+public class TaskEvent {
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        REMOVED
+    }
+
+    private final Kind kind;
+    private final TaskType type;
+    private final int id;
+    private final Task before;
+    private final Task after;
+
+    private TaskEvent(Kind kind, Task before, Task after) {
+        Task item = after != null ? after : before;
+        this.kind = kind;
+        this.type = item.getType();
+        this.id = item.getId();
+        this.before = before;
+        this.after = after;
+    }
+
+    public static TaskEvent created(Task after) {
+        return new TaskEvent(Kind.CREATED, null, after);
+    }
+
+    // Без прежнего состояния запись считается созданной
+    public static TaskEvent updated(Task before, Task after) {
+        return before != null ? new TaskEvent(Kind.UPDATED, before, after) : created(after);
+    }
+
+    public static TaskEvent removed(Task before) {
+        return new TaskEvent(Kind.REMOVED, before, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Task getBefore() {
+        return before;
+    }
+
+    public Task getAfter() {
+        return after;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + type + " " + id;
+    }
+}
@@ -0,0 +1,133 @@
+package managers;
+
+import tasks.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Рассылка событий менеджера подписчикам. Синхронный подписчик вызывается в потоке, который изменил данные,
+// асинхронный — на своём исполнителе, но пачки приходят ему по одной и в порядке публикации.
+// Пакет открывается отдельно в каждом потоке: события копятся до закрытия внешнего пакета
+class TaskEventBus {
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Batch> batch = ThreadLocal.withInitial(Batch::new);
+
+    void subscribe(TaskEventListener listener, Executor executor) {
+        subscriptions.add(new Subscription(listener, executor));
+    }
+
+    void unsubscribe(TaskEventListener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    // Без подписчиков события не создаются вовсе
+    boolean hasListeners() {
+        return !subscriptions.isEmpty();
+    }
+
+    // Событие строится только при наличии подписчиков
+    void created(Task after) {
+        if (hasListeners()) {
+            publish(TaskEvent.created(after));
+        }
+    }
+
+    void updated(Task before, Task after) {
+        if (hasListeners()) {
+            publish(TaskEvent.updated(before, after));
+        }
+    }
+
+    void removed(Task before) {
+        if (hasListeners()) {
+            publish(TaskEvent.removed(before));
+        }
+    }
+
+    void publish(TaskEvent event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        Batch current = batch.get();
+        if (current.depth > 0) {
+            current.events.add(event);
+        } else {
+            dispatch(List.of(event));
+        }
+    }
+
+    void beginBatch() {
+        batch.get().depth++;
+    }
+
+    void endBatch() {
+        Batch current = batch.get();
+        if (--current.depth == 0 && !current.events.isEmpty()) {
+            List<TaskEvent> events = List.copyOf(current.events);
+            current.events.clear();
+            dispatch(events);
+        }
+    }
+
+    private void dispatch(List<TaskEvent> events) {
+        for (Subscription subscription : subscriptions) {
+            subscription.deliver(events);
+        }
+    }
+
+    private static class Batch {
+        int depth;
+        final List<TaskEvent> events = new ArrayList<>();
+    }
+
+    private static class Subscription {
+        final TaskEventListener listener;
+        final Executor executor;
+        final Queue<List<TaskEvent>> pending = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscription(TaskEventListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        void deliver(List<TaskEvent> events) {
+            if (executor == null) {
+                notifyListener(events);
+                return;
+            }
+            pending.add(events);
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        // Одна задача на исполнителе разбирает очередь, пока та не опустеет
+        private void drain() {
+            while (true) {
+                List<TaskEvent> events;
+                while ((events = pending.poll()) != null) {
+                    notifyListener(events);
+                }
+                draining.set(false);
+                if (pending.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+
+        // Ошибка одного подписчика не должна откатывать уже выполненное изменение и мешать остальным
+        private void notifyListener(List<TaskEvent> events) {
+            try {
+                listener.onEvents(events);
+            } catch (RuntimeException e) {
+                System.out.println("Ошибка в обработчике событий: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package managers;
+
+import java.util.List;
+
+// Получает события пачками: одиночное изменение — пачка из одного события,
+// пакетная операция (runBatch, createTasks, удаление всех задач) — одна пачка на весь пакет
+@FunctionalInterface
+public interface TaskEventListener {
+    void onEvents(List<TaskEvent> events);
+}
@@ -3,8 +3,18 @@ package managers;
 import tasks.Epic;
 import tasks.Subtask;
 import tasks.Task;
+import tasks.TaskType;
 
+import java.io.IOException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 public interface TaskManager {
     List<Task> getTasks();
@@ -15,6 +25,9 @@ public interface TaskManager {
 
     void createTask(Task task);
 
+    // Пакетное создание: все задачи или ни одной
+    void createTasks(Collection<Task> tasks);
+
     void updateTask(Task task);
 
     void removeTaskById(int id);
@@ -39,12 +52,39 @@ public interface TaskManager {
 
     void createSubtask(Subtask subtask);
 
+    void createSubtasks(Collection<Subtask> subtasks);
+
     void updateSubtask(Subtask subtask);
 
     void removeSubtaskById(int id);
 
+    // Обновляет задачу, подзадачу или эпик, только если текущая версия записи равна expectedVersion.
+    // Возвращает версию, под которой сохранено обновление, или -1, если записи нет или её уже изменили
+    long updateIfVersion(Task item, long expectedVersion);
+
+    Task getById(int id);
+
+    // Поиск по id без записи в историю
+    Task findById(int id);
+
+    // Возвращает удалённую запись под её прежним id — для отката пакетных операций
+    void restore(Task item);
+
+    // Выполняет набор операций как один пакет: файловый менеджер сохраняется один раз в конце
+    void runBatch(Runnable operations);
+
+    // Синхронный подписчик на изменения: вызывается в потоке, который изменил данные
+    void addListener(TaskEventListener listener);
+
+    // Асинхронный подписчик: пачки событий приходят на executor по одной, в порядке изменений
+    void addListener(TaskEventListener listener, Executor executor);
+
+    void removeListener(TaskEventListener listener);
+
     List<Subtask> getSubtasksByEpicId(int epicId);
 
+    List<Subtask> getSubtasksByEpicId(int epicId, boolean sortedByTime);
+
     void updateEpicStatus(Epic epic);
 
     void updateEpicTime(Epic epic);
@@ -53,5 +93,81 @@ public interface TaskManager {
 
     List<Task> getPrioritizedTasks();
 
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    // Самое раннее время начала не раньше notBefore, в которое задача длины duration ни с чем не пересечётся
+    LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore);
+
+    // Занятость каждого дня из [from, to] с точностью до минуты
+    List<DayOccupancy> getTimeline(LocalDate from, LocalDate to);
+
+    // Не задета ли задачами минута, в которую попадает time
+    boolean isMinuteFree(LocalDateTime time);
+
+    // Задача id начнётся только после окончания dependsOnId. Зависимости бывают у задач и подзадач;
+    // бросает IllegalArgumentException для неизвестных id и DependencyCycleException при цикле
+    void addDependency(int id, int dependsOnId);
+
+    void removeDependency(int id, int dependsOnId);
+
+    // От каких задач зависит задача id
+    List<Integer> getDependencies(int id);
+
+    // Какие задачи зависят от задачи id
+    List<Integer> getDependents(int id);
+
+    // null, если эпика нет
+    CriticalPath getCriticalPath(int epicId);
+
+    // Расставляет задачи и подзадачи без времени начала подряд в свободное время не раньше notBefore.
+    // Пустой список id — все такие записи; подзадачи одного эпика ставятся друг за другом.
+    // Возвращает расставленные записи в порядке времени начала
+    List<Task> autoSchedule(Collection<Integer> ids, LocalDateTime notBefore);
+
+    // Поиск по словам из названия и описания, лучшие совпадения первыми
+    List<Task> search(String query, int limit);
+
+    // Задачи и эпики, чьё название начинается с prefix, в алфавитном порядке
+    List<Task> suggest(String prefix, int limit);
+
+    // Постраничная выдача: afterId — id последней записи предыдущей страницы, 0 — с начала.
+    // Задачи, эпики и подзадачи идут по возрастанию id, история и приоритеты — в своём порядке
+    List<Task> getTasks(int afterId, int limit);
+
+    List<Epic> getEpics(int afterId, int limit);
+
+    List<Subtask> getSubtasks(int afterId, int limit);
+
+    List<Task> getHistory(int afterId, int limit);
+
+    List<Task> getPrioritizedTasks(int afterId, int limit);
+
+    // Страница окна [from, to) списка приоритетов (null — граница не задана): не более limit задач после afterId.
+    // Курсор ищется по времени начала и id, а не перебором окна; если его нет в окне — IllegalArgumentException
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int afterId, int limit);
+
+    // Обход без копирования в новый список
+    Stream<Task> streamTasks();
+
+    Stream<Epic> streamEpics();
+
+    Stream<Subtask> streamSubtasks();
+
+    Stream<Task> streamHistory();
+
+    Stream<Task> streamPrioritizedTasks();
+
+    Stream<Task> streamPrioritizedTasks(LocalDateTime from, LocalDateTime to);
 
+    // Все записи типа по возрастанию id, как в streamTasks, streamEpics и streamSubtasks, — по одной в writer
+    default void writeAll(TaskType type, TaskWriter writer) throws IOException {
+        Iterator<? extends Task> items = switch (type) {
+            case TASK -> streamTasks().iterator();
+            case EPIC -> streamEpics().iterator();
+            case SUBTASK -> streamSubtasks().iterator();
+        };
+        while (items.hasNext()) {
+            writer.write(items.next());
+        }
+    }
 }
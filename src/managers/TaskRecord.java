@@ -0,0 +1,35 @@
+package managers;
+
+import tasks.Status;
+import tasks.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Запись, чьи поля читаются по одному прямо из хранилища, без сборки объекта задачи.
+// Действительна только внутри вызова TaskWriter.write: менеджер может переиспользовать её для следующей записи
+public interface TaskRecord {
+    TaskType getType();
+
+    int getId();
+
+    String getName();
+
+    String getDescription();
+
+    Status getStatus();
+
+    // Только у подзадачи
+    int getEpicId();
+
+    // Только у эпика: подзадачи в порядке добавления, как в Epic.getSubtaskIds
+    int[] getSubtaskIds();
+
+    Duration getDuration();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+
+    long getVersion();
+}
@@ -0,0 +1,53 @@
+package managers;
+
+import tasks.Status;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Хранилище записей без объектов Task: задача собирается заново при каждом чтении,
+// поэтому изменения полученного объекта в хранилище не попадают — нужно снова вызвать put.
+// Время хранится с точностью до секунды
+public interface TaskStore {
+    // Добавляет или заменяет запись с тем же id
+    void put(Task item);
+
+    // null, если записи нет. Эпик возвращается без списка подзадач — его ведёт менеджер
+    Task get(int id);
+
+    boolean contains(int id);
+
+    boolean remove(int id);
+
+    int size();
+
+    void clear();
+
+    // Отдельные поля без сборки задачи; запись должна существовать
+    TaskType getType(int id);
+
+    String getName(int id);
+
+    String getDescription(int id);
+
+    Status getStatus(int id);
+
+    int getEpicId(int id);
+
+    Duration getDuration(int id);
+
+    LocalDateTime getStartTime(int id);
+
+    LocalDateTime getEndTime(int id);
+
+    long getVersion(int id);
+
+    // Поля эпика, которые менеджер пересчитывает по подзадачам, меняются без перезаписи строк
+    void setStatus(int id, Status status);
+
+    void setTime(int id, LocalDateTime startTime, Duration duration, LocalDateTime endTime);
+
+    void setVersion(int id, long version);
+}
@@ -0,0 +1,13 @@
+package managers;
+
+import tasks.Task;
+
+import java.io.IOException;
+
+// Получатель записей списка из TaskManager.writeAll: менеджер с объектами задач отдаёт сами задачи,
+// менеджер без них — записи хранилища
+public interface TaskWriter {
+    void write(Task item) throws IOException;
+
+    void write(TaskRecord record) throws IOException;
+}
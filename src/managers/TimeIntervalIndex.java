@@ -0,0 +1,435 @@
+package managers;
+
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+// Дерево интервалов (декартово дерево по времени начала), в каждом узле хранится
+// максимальное время окончания в поддереве. Поиск пересечения — O(log n).
+// Узлы лежат в параллельных массивах примитивов, узел — номер в них; время — секунды от эпохи по UTC
+// и наносекунды. Объектов на интервал нет, номера удалённых узлов переиспользуются
+public class TimeIntervalIndex {
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] startSeconds = new long[INITIAL_CAPACITY];
+    private int[] startNanos = new int[INITIAL_CAPACITY];
+    private long[] endSeconds = new long[INITIAL_CAPACITY];
+    private int[] endNanos = new int[INITIAL_CAPACITY];
+    private long[] maxEndSeconds = new long[INITIAL_CAPACITY];
+    private int[] maxEndNanos = new int[INITIAL_CAPACITY];
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] priorities = new int[INITIAL_CAPACITY];
+    private int[] lefts = new int[INITIAL_CAPACITY];
+    private int[] rights = new int[INITIAL_CAPACITY];
+    // Узлы [0, used) когда-либо выдавались; свободные связаны в список через lefts
+    private int used;
+    private int free = NONE;
+    private int size;
+    // Открытая адресация id -> номер узла + 1, 0 — пустой слот
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    private int mask = table.length - 1;
+    private final OccupancyCalendar occupancy = new OccupancyCalendar();
+    private int root = NONE;
+    private int seed = 0x2545F491;
+
+    public void add(Task task) {
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.calculateEndTime();
+        if (start == null || end == null) {
+            return;
+        }
+        remove(task.getId());
+        int node = allocate(task.getId(), start, end, nextPriority());
+        root = insert(root, node);
+        link(node);
+        occupancy.mark(start, end);
+    }
+
+    public void remove(int id) {
+        int node = find(id);
+        if (node == NONE) {
+            return;
+        }
+        unlink(id);
+        root = delete(root, startSeconds[node], startNanos[node], id);
+        LocalDateTime start = startOf(node);
+        LocalDateTime end = endOf(node);
+        release(node);
+        occupancy.unmark(start, end);
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        root = NONE;
+        used = 0;
+        free = NONE;
+        size = 0;
+        occupancy.clear();
+    }
+
+    // Занята ли минута, в которую попадает time
+    public boolean isMinuteBusy(LocalDateTime time) {
+        return occupancy.isBusy(time);
+    }
+
+    public List<DayOccupancy> occupancy(LocalDate from, LocalDate to) {
+        return occupancy.report(from, to);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Пересекается ли задача с уже сохранёнными (запись с тем же id не учитывается)
+    public boolean overlaps(Task task) {
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.calculateEndTime();
+        if (start == null || end == null) {
+            return false;
+        }
+        return findFirstOverlap(start, end, task.getId()) != NONE;
+    }
+
+    // Самое раннее начало не раньше notBefore, с которого интервал длины duration ни с чем не пересекается.
+    // Сохранённые интервалы не пересекаются друг с другом, поэтому каждый шаг перепрыгивает ровно через
+    // один занятый интервал: O(log n) на каждый пропущенный интервал
+    public LocalDateTime findFreeSlot(LocalDateTime notBefore, Duration duration) {
+        LocalDateTime start = notBefore;
+        while (true) {
+            int blocking = findFirstOverlap(start, start.plus(duration), Integer.MIN_VALUE);
+            if (blocking == NONE) {
+                return start;
+            }
+            start = endOf(blocking);
+        }
+    }
+
+    // Раскладывает интервалы заданных длительностей по порядку в свободные промежутки после notBefore.
+    // Занятые интервалы обходятся по возрастанию начала один раз: O(log n + пропущенные интервалы + k)
+    public List<LocalDateTime> pack(LocalDateTime notBefore, List<Duration> durations) {
+        List<LocalDateTime> starts = new ArrayList<>(durations.size());
+        LocalDateTime cursor = findFreeSlot(notBefore, Duration.ZERO);
+        InOrder busyNodes = new InOrder(seconds(cursor), cursor.getNano());
+        int busy = busyNodes.next();
+        for (Duration duration : durations) {
+            while (busy != NONE && cursor.plus(duration).isAfter(startOf(busy))) {
+                LocalDateTime end = endOf(busy);
+                if (end.isAfter(cursor)) {
+                    cursor = end;
+                }
+                busy = busyNodes.next();
+            }
+            starts.add(cursor);
+            cursor = cursor.plus(duration);
+        }
+        return starts;
+    }
+
+    // Пересекается ли хоть одна задача пакета с сохранёнными или с другой задачей того же пакета
+    public boolean overlapsAny(Collection<? extends Task> tasks) {
+        List<Task> timed = new ArrayList<>();
+        for (Task task : tasks) {
+            if (overlaps(task)) {
+                return true;
+            }
+            if (task.getStartTime() != null && task.calculateEndTime() != null) {
+                timed.add(task);
+            }
+        }
+        // При равном начале сначала более короткие — так задачи нулевой длины проверяются так же, как в overlaps
+        timed.sort(Comparator.comparing(Task::getStartTime).thenComparing(Task::calculateEndTime));
+        LocalDateTime maxEnd = null;
+        for (Task task : timed) {
+            if (maxEnd != null && task.getStartTime().isBefore(maxEnd)) {
+                return true;
+            }
+            LocalDateTime end = task.calculateEndTime();
+            if (maxEnd == null || end.isAfter(maxEnd)) {
+                maxEnd = end;
+            }
+        }
+        return false;
+    }
+
+    private int findFirstOverlap(LocalDateTime start, LocalDateTime end, int excludeId) {
+        return findFirstOverlap(root, seconds(start), start.getNano(), seconds(end), end.getNano(), excludeId);
+    }
+
+    private int findFirstOverlap(int node, long fromSeconds, int fromNanos, long toSeconds, int toNanos,
+                                 int excludeId) {
+        if (node == NONE || compare(fromSeconds, fromNanos, maxEndSeconds[node], maxEndNanos[node]) >= 0) {
+            return NONE;
+        }
+        int found = findFirstOverlap(lefts[node], fromSeconds, fromNanos, toSeconds, toNanos, excludeId);
+        if (found != NONE) {
+            return found;
+        }
+        if (compare(startSeconds[node], startNanos[node], toSeconds, toNanos) >= 0) {
+            return NONE;
+        }
+        if (ids[node] != excludeId && compare(fromSeconds, fromNanos, endSeconds[node], endNanos[node]) < 0) {
+            return node;
+        }
+        return findFirstOverlap(rights[node], fromSeconds, fromNanos, toSeconds, toNanos, excludeId);
+    }
+
+    private int insert(int node, int newNode) {
+        if (node == NONE) {
+            return newNode;
+        }
+        if (compareKey(startSeconds[newNode], startNanos[newNode], ids[newNode], node) < 0) {
+            lefts[node] = insert(lefts[node], newNode);
+            if (priorities[lefts[node]] > priorities[node]) {
+                node = rotateRight(node);
+            }
+        } else {
+            rights[node] = insert(rights[node], newNode);
+            if (priorities[rights[node]] > priorities[node]) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private int delete(int node, long seconds, int nanos, int id) {
+        if (node == NONE) {
+            return NONE;
+        }
+        int cmp = compareKey(seconds, nanos, id, node);
+        if (cmp < 0) {
+            lefts[node] = delete(lefts[node], seconds, nanos, id);
+        } else if (cmp > 0) {
+            rights[node] = delete(rights[node], seconds, nanos, id);
+        } else {
+            return merge(lefts[node], rights[node]);
+        }
+        update(node);
+        return node;
+    }
+
+    private int merge(int left, int right) {
+        if (left == NONE) {
+            return right;
+        }
+        if (right == NONE) {
+            return left;
+        }
+        if (priorities[left] > priorities[right]) {
+            rights[left] = merge(rights[left], right);
+            update(left);
+            return left;
+        }
+        lefts[right] = merge(left, lefts[right]);
+        update(right);
+        return right;
+    }
+
+    private int rotateRight(int node) {
+        int left = lefts[node];
+        lefts[node] = rights[left];
+        rights[left] = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private int rotateLeft(int node) {
+        int right = rights[node];
+        rights[node] = lefts[right];
+        lefts[right] = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private void update(int node) {
+        maxEndSeconds[node] = endSeconds[node];
+        maxEndNanos[node] = endNanos[node];
+        raiseMaxEnd(node, lefts[node]);
+        raiseMaxEnd(node, rights[node]);
+    }
+
+    private void raiseMaxEnd(int node, int child) {
+        if (child != NONE
+                && compare(maxEndSeconds[child], maxEndNanos[child], maxEndSeconds[node], maxEndNanos[node]) > 0) {
+            maxEndSeconds[node] = maxEndSeconds[child];
+            maxEndNanos[node] = maxEndNanos[child];
+        }
+    }
+
+    private static int compare(long seconds1, int nanos1, long seconds2, int nanos2) {
+        int result = Long.compare(seconds1, seconds2);
+        return result != 0 ? result : Integer.compare(nanos1, nanos2);
+    }
+
+    // Порядок узлов: по началу, при равном начале — по id
+    private int compareKey(long seconds, int nanos, int id, int node) {
+        int result = compare(seconds, nanos, startSeconds[node], startNanos[node]);
+        return result != 0 ? result : Integer.compare(id, ids[node]);
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private LocalDateTime startOf(int node) {
+        return LocalDateTime.ofEpochSecond(startSeconds[node], startNanos[node], ZoneOffset.UTC);
+    }
+
+    private LocalDateTime endOf(int node) {
+        return LocalDateTime.ofEpochSecond(endSeconds[node], endNanos[node], ZoneOffset.UTC);
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private int allocate(int id, LocalDateTime start, LocalDateTime end, int priority) {
+        int node;
+        if (free != NONE) {
+            node = free;
+            free = lefts[node];
+        } else {
+            if (used == ids.length) {
+                growNodes();
+            }
+            node = used++;
+        }
+        startSeconds[node] = seconds(start);
+        startNanos[node] = start.getNano();
+        endSeconds[node] = seconds(end);
+        endNanos[node] = end.getNano();
+        maxEndSeconds[node] = endSeconds[node];
+        maxEndNanos[node] = endNanos[node];
+        ids[node] = id;
+        priorities[node] = priority;
+        lefts[node] = NONE;
+        rights[node] = NONE;
+        size++;
+        return node;
+    }
+
+    private void release(int node) {
+        lefts[node] = free;
+        free = node;
+        size--;
+    }
+
+    private void growNodes() {
+        int capacity = ids.length * 2;
+        startSeconds = Arrays.copyOf(startSeconds, capacity);
+        startNanos = Arrays.copyOf(startNanos, capacity);
+        endSeconds = Arrays.copyOf(endSeconds, capacity);
+        endNanos = Arrays.copyOf(endNanos, capacity);
+        maxEndSeconds = Arrays.copyOf(maxEndSeconds, capacity);
+        maxEndNanos = Arrays.copyOf(maxEndNanos, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        lefts = Arrays.copyOf(lefts, capacity);
+        rights = Arrays.copyOf(rights, capacity);
+    }
+
+    private int find(int id) {
+        int position = position(id);
+        return position < 0 ? NONE : table[position] - 1;
+    }
+
+    private int position(int id) {
+        for (int i = hash(id) & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (ids[table[i] - 1] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Таблица заполнена не больше чем наполовину
+    private void link(int node) {
+        if (size * 2 > table.length) {
+            int[] old = table;
+            table = new int[table.length * 2];
+            mask = table.length - 1;
+            for (int entry : old) {
+                if (entry != 0) {
+                    place(entry);
+                }
+            }
+        }
+        place(node + 1);
+    }
+
+    private void place(int entry) {
+        int i = hash(ids[entry - 1]) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = entry;
+    }
+
+    // Удаление со сдвигом назад: следующие записи кластера подтягиваются, чтобы поиск не прерывался на дыре
+    private void unlink(int id) {
+        int hole = position(id);
+        for (int i = (hole + 1) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int home = hash(ids[table[i] - 1]) & mask;
+            boolean movable = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+            if (movable) {
+                table[hole] = table[i];
+                hole = i;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Обход узлов по возрастанию начала, начиная с первого, чьё начало не раньше заданного
+    private class InOrder {
+        private int[] stack = new int[32];
+        private int depth;
+
+        InOrder(long fromSeconds, int fromNanos) {
+            for (int node = root; node != NONE; ) {
+                if (compare(startSeconds[node], startNanos[node], fromSeconds, fromNanos) < 0) {
+                    node = rights[node];
+                } else {
+                    push(node);
+                    node = lefts[node];
+                }
+            }
+        }
+
+        int next() {
+            if (depth == 0) {
+                return NONE;
+            }
+            int node = stack[--depth];
+            for (int child = rights[node]; child != NONE; child = lefts[child]) {
+                push(child);
+            }
+            return node;
+        }
+
+        private void push(int node) {
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            stack[depth++] = node;
+        }
+    }
+}
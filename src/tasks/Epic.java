@@ -1,31 +1,114 @@
 package tasks;
 
-import java.util.ArrayList;
-import java.util.List;
+import util.IntLinkedSet;
 
-public class Epic extends Task {
-    private List<Integer> subtaskIds;
+import java.util.function.IntConsumer;
 
+public class Epic extends Task {
+    private IntLinkedSet subtaskIds;
+    // Счётчики подзадач по статусам, из них статус эпика считается за O(1)
+    private transient int newCount;
+    private transient int inProgressCount;
+    private transient int doneCount;
 
     public Epic(String name, String description) {
         super(name, description, Status.NEW);
-        this.subtaskIds = new ArrayList<>();
+        this.subtaskIds = new IntLinkedSet();
+    }
+
+    // Независимая копия со всеми полями, списком подзадач и счётчиками статусов
+    public Epic(Epic other) {
+        super(other.getName(), other.getDescription(), other.getStatus(), other.getDuration(), other.getStartTime());
+        setId(other.getId());
+        setEndTime(other.getEndTime());
+        setVersion(other.getVersion());
+        this.subtaskIds = new IntLinkedSet(other.getSubtaskCount());
+        other.forEachSubtaskId(subtaskIds::add);
+        this.newCount = other.newCount;
+        this.inProgressCount = other.inProgressCount;
+        this.doneCount = other.doneCount;
     }
 
     public void addSubtaskId(int subtaskId) {
-        subtaskIds.add(subtaskId);
+        subtaskIds().add(subtaskId);
     }
 
-    public List<Integer> getSubtaskIds() {
-        return subtaskIds;
+    public int[] getSubtaskIds() {
+        return subtaskIds().toArray();
+    }
+
+    public void forEachSubtaskId(IntConsumer action) {
+        subtaskIds().forEach(action);
+    }
+
+    public boolean containsSubtaskId(int subtaskId) {
+        return subtaskIds().contains(subtaskId);
+    }
+
+    public int getSubtaskCount() {
+        return subtaskIds().size();
     }
 
     public void removeSubtaskId(int subtaskId) {
-        subtaskIds.remove((Integer) subtaskId);
+        subtaskIds().remove(subtaskId);
     }
 
     public void clearSubtaskIds() {
-        subtaskIds.clear();
+        subtaskIds().clear();
+    }
+
+    // Gson создаёт объект без вызова конструктора, поэтому поле может быть не инициализировано
+    private IntLinkedSet subtaskIds() {
+        if (subtaskIds == null) {
+            subtaskIds = new IntLinkedSet();
+        }
+        return subtaskIds;
+    }
+
+    public void incrementStatusCount(Status status) {
+        changeStatusCount(status, 1);
+    }
+
+    public void decrementStatusCount(Status status) {
+        changeStatusCount(status, -1);
+    }
+
+    public void resetStatusCounts() {
+        newCount = 0;
+        inProgressCount = 0;
+        doneCount = 0;
+    }
+
+    public int getStatusCount(Status status) {
+        if (status == null) {
+            return 0;
+        }
+        return switch (status) {
+            case NEW -> newCount;
+            case IN_PROGRESS -> inProgressCount;
+            case DONE -> doneCount;
+        };
+    }
+
+    // Статус эпика по счётчикам подзадач
+    public Status calculateStatus() {
+        if (inProgressCount > 0 || (newCount > 0 && doneCount > 0)) {
+            return Status.IN_PROGRESS;
+        } else if (doneCount > 0) {
+            return Status.DONE;
+        }
+        return Status.NEW;
+    }
+
+    private void changeStatusCount(Status status, int delta) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+            case NEW -> newCount += delta;
+            case IN_PROGRESS -> inProgressCount += delta;
+            case DONE -> doneCount += delta;
+        }
     }
 
     @Override
@@ -40,6 +123,6 @@ public class Epic extends Task {
                 ", name='" + getName() + '\'' +
                 ", description='" + getDescription() + '\'' +
                 ", status=" + getStatus() +
-                ", subtaskIds=" + subtaskIds + '}';
+                ", subtaskIds=" + subtaskIds() + '}';
     }
 }
\ No newline at end of file
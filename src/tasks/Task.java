@@ -12,6 +12,8 @@ public class Task {
     private Duration duration;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
+    // Растёт при каждом изменении записи в менеджере
+    private long version;
 
     public Task(String name, String description, Status status) {
         this.description = description;
@@ -83,6 +85,14 @@ public class Task {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public TaskType getType() {
         return TaskType.TASK;
     }
@@ -0,0 +1,255 @@
+package util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+// Хеш-таблица с ключами int без упаковки: открытая адресация, линейное пробирование по схеме Robin Hood.
+// Ключи и значения лежат в двух параллельных массивах, отдельного объекта на запись нет.
+// Значения null не хранятся: пустой слот — это null в массиве значений.
+// Хеш совпадает с HashMap, поэтому последовательные id обходятся в том же порядке, что и раньше;
+// Robin Hood не даёт плотному ряду последовательных id превратиться в один длинный кластер при поиске и удалении.
+public class IntHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+    private int modCount;
+
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize * 4 / 3 + 1) * 2 - 1);
+        allocate(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = findSlot(key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    public boolean containsKey(int key) {
+        return findSlot(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("IntHashMap не хранит значения null");
+        }
+        int existing = findSlot(key);
+        if (existing >= 0) {
+            V old = (V) values[existing];
+            values[existing] = value;
+            return old;
+        }
+        insert(key, value);
+        size++;
+        modCount++;
+        if (size > threshold) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> mappingFunction) {
+        V value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V old = (V) values[slot];
+        deleteSlot(slot);
+        size--;
+        modCount++;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        int expectedModCount = modCount;
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachEntry(EntryConsumer<? super V> action) {
+        int expectedModCount = modCount;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                action.accept(keys[i], (V) values[i]);
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        }
+    }
+
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int findSlot(int key) {
+        int slot = hash(key) & mask;
+        int distance = 0;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            // Дальше ключа быть не может: он вытеснил бы запись, стоящую ближе к своему месту
+            if (probeDistance(slot) < distance) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+            distance++;
+        }
+        return -1;
+    }
+
+    private void insert(int key, Object value) {
+        int slot = hash(key) & mask;
+        int distance = 0;
+        while (values[slot] != null) {
+            int residentDistance = probeDistance(slot);
+            if (residentDistance < distance) {
+                int residentKey = keys[slot];
+                Object residentValue = values[slot];
+                keys[slot] = key;
+                values[slot] = value;
+                key = residentKey;
+                value = residentValue;
+                distance = residentDistance;
+            }
+            slot = (slot + 1) & mask;
+            distance++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    // Удаление со сдвигом назад: записи за дырой подтягиваются, пока не встретится стоящая на своём месте
+    private void deleteSlot(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != null && probeDistance(next) > 0) {
+            keys[hole] = keys[next];
+            values[hole] = values[next];
+            hole = next;
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+    }
+
+    private int probeDistance(int slot) {
+        return (slot - (hash(keys[slot]) & mask)) & mask;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 4 * 3;
+    }
+
+    private static int hash(int key) {
+        return key ^ (key >>> 16);
+    }
+
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private final int expectedModCount = modCount;
+        private int slot = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return slot < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (slot >= values.length) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) values[slot];
+            slot = advance(slot + 1);
+            return value;
+        }
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+// Множество int без упаковки, сохраняющее порядок добавления.
+// Значения лежат подряд в массиве, хеш-таблица (открытая адресация) хранит их позиции.
+// Удаление помечает позицию пустой, массив уплотняется, когда пустых позиций становится много.
+public class IntLinkedSet {
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private int[] values;
+    private boolean[] removed;
+    // Позиция значения + 1, 0 — пустой слот
+    private int[] table;
+    private int mask;
+    private int end;
+    private int size;
+
+    public IntLinkedSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntLinkedSet(int expectedSize) {
+        int capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+        values = new int[capacity];
+        removed = new boolean[capacity];
+        table = new int[tableSizeFor(capacity)];
+        mask = table.length - 1;
+    }
+
+    public boolean add(int value) {
+        if (findSlot(value) >= 0) {
+            return false;
+        }
+        if (end == values.length) {
+            grow();
+        }
+        values[end] = value;
+        removed[end] = false;
+        insertIntoTable(value, end);
+        end++;
+        size++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int slot = findSlot(value);
+        if (slot < 0) {
+            return false;
+        }
+        int position = table[slot] - 1;
+        removed[position] = true;
+        deleteSlot(slot);
+        size--;
+        if (position == end - 1) {
+            end--;
+        }
+        if (size == 0) {
+            end = 0;
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return findSlot(value) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        end = 0;
+        size = 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < end; i++) {
+            if (!removed[i]) {
+                action.accept(values[i]);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int i = 0; i < end; i++) {
+            if (!removed[i]) {
+                result[index++] = values[i];
+            }
+        }
+        return result;
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return iteratorFrom(0);
+    }
+
+    // Обход значений, добавленных после value; value должно быть в множестве
+    public PrimitiveIterator.OfInt iteratorAfter(int value) {
+        int slot = findSlot(value);
+        if (slot < 0) {
+            throw new NoSuchElementException("Значения " + value + " нет в множестве");
+        }
+        return iteratorFrom(table[slot]);
+    }
+
+    private PrimitiveIterator.OfInt iteratorFrom(int start) {
+        return new PrimitiveIterator.OfInt() {
+            private int position = skipRemoved(start);
+
+            @Override
+            public boolean hasNext() {
+                return position < end;
+            }
+
+            @Override
+            public int nextInt() {
+                if (position >= end) {
+                    throw new NoSuchElementException();
+                }
+                int value = values[position];
+                position = skipRemoved(position + 1);
+                return value;
+            }
+        };
+    }
+
+    private int skipRemoved(int position) {
+        while (position < end && removed[position]) {
+            position++;
+        }
+        return position;
+    }
+
+    private int findSlot(int value) {
+        int slot = hash(value) & mask;
+        while (table[slot] != 0) {
+            if (values[table[slot] - 1] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insertIntoTable(int value, int position) {
+        int slot = hash(value) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = position + 1;
+    }
+
+    // Удаление со сдвигом назад: цепочки линейного пробирования остаются без дыр
+    private void deleteSlot(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (table[next] != 0) {
+            int home = hash(values[table[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = 0;
+    }
+
+    private void grow() {
+        if (size <= end / 2) {
+            // Много удалённых позиций — уплотняем без роста
+            rebuild(values.length);
+        } else {
+            rebuild(values.length * 2);
+        }
+    }
+
+    private void rebuild(int capacity) {
+        int[] newValues = new int[capacity];
+        int index = 0;
+        for (int i = 0; i < end; i++) {
+            if (!removed[i]) {
+                newValues[index++] = values[i];
+            }
+        }
+        values = newValues;
+        removed = new boolean[capacity];
+        end = index;
+        if (table.length < tableSizeFor(capacity)) {
+            table = new int[tableSizeFor(capacity)];
+            mask = table.length - 1;
+        } else {
+            Arrays.fill(table, 0);
+        }
+        for (int i = 0; i < end; i++) {
+            insertIntoTable(values[i], i);
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) * 2;
+    }
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < end; i++) {
+            if (!removed[i]) {
+                if (builder.length() > 1) {
+                    builder.append(", ");
+                }
+                builder.append(values[i]);
+            }
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,208 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// Упорядоченное множество пар (key, value) без упаковки: по key, при равенстве — по value.
+// Пары лежат в отсортированных блоках до BLOCK_SIZE штук в двух параллельных массивах, блок находится
+// двоичным поиском по первым парам. Массивы блока растут по мере заполнения, поэтому маленькое множество
+// занимает мало места. Вставка и удаление — O(log n + BLOCK_SIZE), обход по порядку
+// идёт подряд по массивам и не создаёт объектов на пару
+public class LongIntSortedSet {
+    private static final int BLOCK_SIZE = 256;
+    private static final int INITIAL_BLOCK_CAPACITY = 8;
+
+    private final List<Block> blocks = new ArrayList<>();
+    private int size;
+
+    public boolean add(long key, int value) {
+        if (blocks.isEmpty()) {
+            blocks.add(new Block());
+        }
+        int index = blockIndex(key, value);
+        Block block = blocks.get(index);
+        int position = block.search(key, value);
+        if (position >= 0) {
+            return false;
+        }
+        block.insert(-position - 1, key, value);
+        if (block.size == BLOCK_SIZE) {
+            blocks.add(index + 1, block.split());
+        }
+        size++;
+        return true;
+    }
+
+    public boolean remove(long key, int value) {
+        if (blocks.isEmpty()) {
+            return false;
+        }
+        int index = blockIndex(key, value);
+        Block block = blocks.get(index);
+        int position = block.search(key, value);
+        if (position < 0) {
+            return false;
+        }
+        block.delete(position);
+        if (block.size == 0) {
+            blocks.remove(index);
+        }
+        size--;
+        return true;
+    }
+
+    public boolean contains(long key, int value) {
+        return !blocks.isEmpty() && blocks.get(blockIndex(key, value)).search(key, value) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        blocks.clear();
+        size = 0;
+    }
+
+    // Наименьший и наибольший key; множество не должно быть пустым
+    public long firstKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return blocks.get(0).keys[0];
+    }
+
+    public long lastKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        Block last = blocks.get(blocks.size() - 1);
+        return last.keys[last.size - 1];
+    }
+
+    // value пар от первой не меньше (fromKey, fromValue) по порядку, пока key меньше toKey
+    public PrimitiveIterator.OfInt valuesFrom(long fromKey, int fromValue, long toKey) {
+        int startBlock = blocks.isEmpty() ? 0 : blockIndex(fromKey, fromValue);
+        int startPosition = 0;
+        if (startBlock < blocks.size()) {
+            int position = blocks.get(startBlock).search(fromKey, fromValue);
+            startPosition = position >= 0 ? position : -position - 1;
+        }
+        int firstBlock = startBlock;
+        int firstPosition = startPosition;
+        return new PrimitiveIterator.OfInt() {
+            private int blockIndex = firstBlock;
+            private int position = firstPosition;
+
+            @Override
+            public boolean hasNext() {
+                while (blockIndex < blocks.size() && position >= blocks.get(blockIndex).size) {
+                    blockIndex++;
+                    position = 0;
+                }
+                return blockIndex < blocks.size() && blocks.get(blockIndex).keys[position] < toKey;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return blocks.get(blockIndex).values[position++];
+            }
+        };
+    }
+
+    // Последний блок, чья первая пара не больше искомой; если искомая меньше всех — первый
+    private int blockIndex(long key, int value) {
+        int low = 1;
+        int high = blocks.size() - 1;
+        int result = 0;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Block block = blocks.get(middle);
+            if (compare(block.keys[0], block.values[0], key, value) <= 0) {
+                result = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return result;
+    }
+
+    private static int compare(long key1, int value1, long key2, int value2) {
+        int result = Long.compare(key1, key2);
+        return result != 0 ? result : Integer.compare(value1, value2);
+    }
+
+    private static class Block {
+        long[] keys;
+        int[] values;
+        int size;
+
+        Block() {
+            this(INITIAL_BLOCK_CAPACITY);
+        }
+
+        Block(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+        }
+
+        // Позиция пары или -(точка вставки) - 1, как в Arrays.binarySearch
+        int search(long key, int value) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int result = compare(keys[middle], values[middle], key, value);
+                if (result < 0) {
+                    low = middle + 1;
+                } else if (result > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        void insert(int position, long key, int value) {
+            if (size == keys.length) {
+                int capacity = Math.min(BLOCK_SIZE, keys.length * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            System.arraycopy(values, position, values, position + 1, size - position);
+            keys[position] = key;
+            values[position] = value;
+            size++;
+        }
+
+        void delete(int position) {
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+        }
+
+        // Вторая половина пар уходит в новый блок
+        Block split() {
+            int half = size / 2;
+            Block right = new Block(BLOCK_SIZE);
+            right.size = size - half;
+            System.arraycopy(keys, half, right.keys, 0, right.size);
+            System.arraycopy(values, half, right.values, 0, right.size);
+            size = half;
+            return right;
+        }
+    }
+}
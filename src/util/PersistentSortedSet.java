@@ -0,0 +1,247 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Неизменяемое упорядоченное множество (декартово дерево с копированием пути).
+// Добавление и удаление возвращают новое множество, которое делит с прежним все нетронутые узлы,
+// поэтому старые версии остаются целыми и читаются без блокировок.
+public final class PersistentSortedSet<T> {
+    private final Comparator<? super T> comparator;
+    private final Node<T> root;
+
+    private PersistentSortedSet(Comparator<? super T> comparator, Node<T> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    public static <T> PersistentSortedSet<T> empty(Comparator<? super T> comparator) {
+        return new PersistentSortedSet<>(comparator, null);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    // Равный по компаратору элемент заменяется
+    public PersistentSortedSet<T> with(T value) {
+        return new PersistentSortedSet<>(comparator, insert(root, value));
+    }
+
+    public PersistentSortedSet<T> without(T value) {
+        Node<T> newRoot = delete(root, value);
+        return newRoot == root ? this : new PersistentSortedSet<>(comparator, newRoot);
+    }
+
+    public List<T> asList() {
+        return new ListView(0, size());
+    }
+
+    // Элементы в диапазоне [from, to); null — граница не задана
+    public List<T> range(T from, T to) {
+        int fromIndex = from != null ? rank(from) : 0;
+        int toIndex = to != null ? rank(to) : size();
+        return new ListView(fromIndex, Math.max(fromIndex, toIndex));
+    }
+
+    // Не более limit элементов, строго больших value; null — с начала
+    public List<T> after(T value, int limit) {
+        return after(value, null, limit);
+    }
+
+    // То же, но только элементы меньше to; null — граница не задана
+    public List<T> after(T value, T to, int limit) {
+        int fromIndex = value != null ? rank(value, true) : 0;
+        int toIndex = to != null ? rank(to) : size();
+        return new ListView(fromIndex, (int) Math.max(fromIndex, Math.min(toIndex, (long) fromIndex + limit)));
+    }
+
+    private int rank(T value) {
+        return rank(value, false);
+    }
+
+    // Количество элементов, меньших value (или равных ему, если inclusive)
+    private int rank(T value, boolean inclusive) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(value, node.value);
+            if (cmp < 0 || cmp == 0 && !inclusive) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    private T select(int index) {
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.value;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private Node<T> insert(Node<T> node, T value) {
+        if (node == null) {
+            return new Node<>(value, ThreadLocalRandom.current().nextInt(), null, null);
+        }
+        int cmp = comparator.compare(value, node.value);
+        if (cmp == 0) {
+            return new Node<>(value, node.priority, node.left, node.right);
+        }
+        if (cmp < 0) {
+            Node<T> left = insert(node.left, value);
+            if (left.priority > node.priority) {
+                return new Node<>(left.value, left.priority, left.left,
+                        new Node<>(node.value, node.priority, left.right, node.right));
+            }
+            return new Node<>(node.value, node.priority, left, node.right);
+        }
+        Node<T> right = insert(node.right, value);
+        if (right.priority > node.priority) {
+            return new Node<>(right.value, right.priority,
+                    new Node<>(node.value, node.priority, node.left, right.left), right.right);
+        }
+        return new Node<>(node.value, node.priority, node.left, right);
+    }
+
+    private Node<T> delete(Node<T> node, T value) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = comparator.compare(value, node.value);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            Node<T> left = delete(node.left, value);
+            return left == node.left ? node : new Node<>(node.value, node.priority, left, node.right);
+        }
+        Node<T> right = delete(node.right, value);
+        return right == node.right ? node : new Node<>(node.value, node.priority, node.left, right);
+    }
+
+    private static <T> Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return new Node<>(left.value, left.priority, left.left, merge(left.right, right));
+        }
+        return new Node<>(right.value, right.priority, merge(left, right.left), right.right);
+    }
+
+    private static int size(Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static final class Node<T> {
+        final T value;
+        final int priority;
+        final Node<T> left;
+        final Node<T> right;
+        final int size;
+
+        Node(T value, int priority, Node<T> left, Node<T> right) {
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    // Список только для чтения поверх версии дерева: элементы не копируются
+    private final class ListView extends AbstractList<T> {
+        private final int fromIndex;
+        private final int toIndex;
+
+        ListView(int fromIndex, int toIndex) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Индекс: " + index + ", размер: " + size());
+            }
+            return select(fromIndex + index);
+        }
+
+        @Override
+        public int size() {
+            return toIndex - fromIndex;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new InOrderIterator(fromIndex, toIndex - fromIndex);
+        }
+    }
+
+    // Обход по порядку со стеком предков; начинается с элемента с номером startIndex
+    private final class InOrderIterator implements Iterator<T> {
+        private final Deque<Node<T>> stack = new ArrayDeque<>();
+        private int remaining;
+
+        InOrderIterator(int startIndex, int count) {
+            remaining = count;
+            Node<T> node = root;
+            while (node != null) {
+                int leftSize = size(node.left);
+                if (startIndex < leftSize) {
+                    stack.push(node);
+                    node = node.left;
+                } else if (startIndex == leftSize) {
+                    stack.push(node);
+                    break;
+                } else {
+                    startIndex -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+            Node<T> node = stack.pop();
+            for (Node<T> child = node.right; child != null; child = child.left) {
+                stack.push(child);
+            }
+            remaining--;
+            return node.value;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Ограниченный пул канонических строк: одинаковые названия и описания разных задач ссылаются на один объект.
+// При переполнении вытесняется строка, к которой дольше всего не обращались. Не потокобезопасен
+public class StringInterner {
+    private final int maxSize;
+    private final Map<String, String> strings;
+    private long hits;
+    private long misses;
+
+    public StringInterner(int maxSize) {
+        this.maxSize = maxSize;
+        this.strings = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > StringInterner.this.maxSize;
+            }
+        };
+    }
+
+    // Канонический экземпляр строки, равной value
+    public String intern(String value) {
+        if (value == null || maxSize == 0) {
+            return value;
+        }
+        String canonical = strings.get(value);
+        if (canonical != null) {
+            hits++;
+            return canonical;
+        }
+        misses++;
+        strings.put(value, value);
+        return value;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public int size() {
+        return strings.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void clear() {
+        strings.clear();
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -0,0 +1,71 @@
+package util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Общий пул строк со счётчиком ссылок: одинаковые строки хранятся один раз, записи ссылаются на них по номеру.
+// Номер освобождённой строки переиспользуется. null хранится как номер -1
+public class StringPool {
+    public static final int NULL_REF = -1;
+
+    private final Map<String, Integer> refs = new HashMap<>();
+    private String[] values = new String[16];
+    private int[] counts = new int[16];
+    private int[] free = new int[16];
+    private int freeCount;
+    private int end;
+
+    public int acquire(String value) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        Integer existing = refs.get(value);
+        if (existing != null) {
+            counts[existing]++;
+            return existing;
+        }
+        int ref;
+        if (freeCount > 0) {
+            ref = free[--freeCount];
+        } else {
+            if (end == values.length) {
+                values = Arrays.copyOf(values, end * 2);
+                counts = Arrays.copyOf(counts, end * 2);
+            }
+            ref = end++;
+        }
+        values[ref] = value;
+        counts[ref] = 1;
+        refs.put(value, ref);
+        return ref;
+    }
+
+    public String get(int ref) {
+        return ref == NULL_REF ? null : values[ref];
+    }
+
+    public void release(int ref) {
+        if (ref == NULL_REF || --counts[ref] > 0) {
+            return;
+        }
+        refs.remove(values[ref]);
+        values[ref] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = ref;
+    }
+
+    // Сколько разных строк сейчас в пуле
+    public int size() {
+        return refs.size();
+    }
+
+    public void clear() {
+        refs.clear();
+        Arrays.fill(values, 0, end, null);
+        end = 0;
+        freeCount = 0;
+    }
+}
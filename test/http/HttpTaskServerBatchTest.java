@@ -0,0 +1,207 @@
+package http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import managers.Managers;
+import managers.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpTaskServerBatchTest {
+    private HttpTaskServer server;
+    private TaskManager manager;
+    private HttpClient client;
+    private Gson gson;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        manager = Managers.getDefault();
+        server = new HttpTaskServer(manager);
+        gson = server.getGson();
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testBatchReportsEachOperation() throws IOException, InterruptedException {
+        Task existing = new Task("Старая", "Описание", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 10, 0));
+        manager.createTask(existing);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+
+        JsonArray operations = new JsonArray();
+        operations.add(operation("create", "TASK", null,
+                new Task("Новая", "Описание", Status.NEW)));
+        operations.add(operation("create", "SUBTASK", null,
+                new Subtask("Подзадача", "Описание", Status.DONE, epic.getId())));
+        operations.add(operation("create", "TASK", null,
+                new Task("Пересекается", "Описание", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 10, 30))));
+        operations.add(operation("delete", "TASK", existing.getId(), null));
+        operations.add(operation("delete", "EPIC", existing.getId(), null));
+
+        HttpResponse<String> response = post("http://localhost:8080/batch", operations.toString());
+
+        assertEquals(200, response.statusCode());
+        JsonArray results = gson.fromJson(response.body(), JsonArray.class);
+        assertEquals(5, results.size());
+        assertEquals(201, status(results, 0));
+        assertEquals(201, status(results, 1));
+        assertEquals(406, status(results, 2));
+        assertEquals(200, status(results, 3));
+        assertEquals(404, status(results, 4), "Тип операции должен совпадать с типом записи");
+        assertEquals(1, manager.getTasks().size());
+        assertEquals(Status.DONE, epic.getStatus());
+    }
+
+    @Test
+    public void testAtomicBatchRollsBackOnError() throws IOException, InterruptedException {
+        Task task = new Task("Задача", "Описание", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 10, 0));
+        manager.createTask(task);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.DONE, Duration.ofHours(1),
+                LocalDateTime.of(2024, 1, 1, 12, 0), epic.getId());
+        manager.createSubtask(subtask);
+
+        Task renamed = new Task("Переименована", "Описание", Status.DONE, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 14, 0));
+        renamed.setId(task.getId());
+        Epic epicUpdate = new Epic("Новое имя", "Новое описание");
+        epicUpdate.setId(epic.getId());
+
+        JsonArray operations = new JsonArray();
+        operations.add(operation("create", "TASK", null, new Task("Новая", "Описание", Status.NEW)));
+        operations.add(operation("update", "TASK", null, renamed));
+        operations.add(operation("update", "EPIC", null, epicUpdate));
+        operations.add(operation("delete", "EPIC", epic.getId(), null));
+        operations.add(operation("delete", "TASK", 1000, null));
+
+        HttpResponse<String> response = post("http://localhost:8080/batch?atomic=true", operations.toString());
+
+        assertEquals(409, response.statusCode());
+        JsonArray results = gson.fromJson(response.body(), JsonArray.class);
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).getAsJsonObject().get("rolledBack").getAsBoolean());
+        assertNull(results.get(4).getAsJsonObject().get("rolledBack"));
+
+        assertEquals(1, manager.getTasks().size());
+        assertEquals("Задача", manager.getTaskById(task.getId()).getName());
+        Epic restoredEpic = manager.getEpicById(epic.getId());
+        assertEquals("Эпик", restoredEpic.getName());
+        assertEquals(1, manager.getSubtasksByEpicId(epic.getId()).size());
+        assertEquals(Status.DONE, restoredEpic.getStatus());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 12, 0), restoredEpic.getStartTime());
+        assertEquals(2, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    public void testAtomicBatchRollbackRestoresDependencies() throws IOException, InterruptedException {
+        Task first = new Task("Первая", "Описание", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 10, 0));
+        manager.createTask(first);
+        Task second = new Task("Вторая", "Описание", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 12, 0));
+        manager.createTask(second);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask design = new Subtask("Дизайн", "Описание", Status.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2024, 1, 1, 14, 0), epic.getId());
+        manager.createSubtask(design);
+        Subtask build = new Subtask("Сборка", "Описание", Status.NEW, Duration.ofHours(2),
+                LocalDateTime.of(2024, 1, 1, 16, 0), epic.getId());
+        manager.createSubtask(build);
+        manager.addDependency(second.getId(), first.getId());
+        manager.addDependency(design.getId(), first.getId());
+        manager.addDependency(build.getId(), design.getId());
+
+        JsonArray operations = new JsonArray();
+        operations.add(operation("delete", "TASK", first.getId(), null));
+        operations.add(operation("delete", "EPIC", epic.getId(), null));
+        operations.add(operation("delete", "TASK", 1000, null));
+
+        HttpResponse<String> response = post("http://localhost:8080/batch?atomic=true", operations.toString());
+
+        assertEquals(409, response.statusCode());
+        assertEquals(List.of(first.getId()), manager.getDependencies(second.getId()));
+        assertEquals(List.of(first.getId()), manager.getDependencies(design.getId()));
+        assertEquals(List.of(design.getId()), manager.getDependencies(build.getId()));
+        assertEquals(List.of(first.getId(), design.getId(), build.getId()),
+                manager.getCriticalPath(epic.getId()).getPath());
+    }
+
+    @Test
+    public void testAtomicBatchRollsBackOnMalformedItem() throws IOException, InterruptedException {
+        JsonArray operations = new JsonArray();
+        operations.add(operation("create", "TASK", null, new Task("Новая", "Описание", Status.NEW)));
+        JsonObject malformed = operation("create", "TASK", null, new Task("Вторая", "Описание", Status.NEW));
+        malformed.getAsJsonObject("item").addProperty("startTime", "not-a-date");
+        operations.add(malformed);
+        JsonObject withoutId = new JsonObject();
+        withoutId.add("id", JsonNull.INSTANCE);
+        operations.add(operation("delete", "TASK", null, null));
+        operations.get(2).getAsJsonObject().add("item", withoutId);
+
+        HttpResponse<String> response = post("http://localhost:8080/batch?atomic=true", operations.toString());
+
+        assertEquals(409, response.statusCode());
+        JsonArray results = gson.fromJson(response.body(), JsonArray.class);
+        assertEquals(2, results.size());
+        assertEquals(400, status(results, 1));
+        assertEquals(0, manager.getTasks().size());
+
+        HttpResponse<String> lenient = post("http://localhost:8080/batch", operations.toString());
+        assertEquals(200, lenient.statusCode());
+        results = gson.fromJson(lenient.body(), JsonArray.class);
+        assertEquals(400, status(results, 1));
+        assertEquals(400, status(results, 2), "Операция без id — ошибка этой операции");
+        assertEquals(1, manager.getTasks().size());
+    }
+
+    private JsonObject operation(String op, String type, Integer id, Task item) {
+        JsonObject operation = new JsonObject();
+        operation.addProperty("op", op);
+        operation.addProperty("type", type);
+        if (id != null) {
+            operation.addProperty("id", id);
+        }
+        if (item != null) {
+            operation.add("item", gson.toJsonTree(item));
+        }
+        return operation;
+    }
+
+    private int status(JsonArray results, int index) {
+        return results.get(index).getAsJsonObject().get("status").getAsInt();
+    }
+
+    private HttpResponse<String> post(String uri, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -1,6 +1,8 @@
 package http;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import managers.Managers;
 import managers.TaskManager;
 import org.junit.jupiter.api.BeforeEach;
@@ -221,4 +223,72 @@ class HttpTaskServerEpicsTest {
         assertEquals(400, response.statusCode());
         assertTrue(response.body().contains("Некорректный id"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCriticalPath() throws IOException, InterruptedException {
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask first = new Subtask("Первая", "Описание", Status.NEW, Duration.ofHours(1), null, epic.getId());
+        manager.createSubtask(first);
+        Subtask second = new Subtask("Вторая", "Описание", Status.NEW, Duration.ofMinutes(30), null, epic.getId());
+        manager.createSubtask(second);
+
+        String dependency = "{\"id\": " + second.getId() + ", \"dependsOn\": " + first.getId() + "}";
+        HttpRequest addRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/dependencies"))
+                .POST(HttpRequest.BodyPublishers.ofString(dependency))
+                .build();
+        assertEquals(201, client.send(addRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        String cycle = "{\"id\": " + first.getId() + ", \"dependsOn\": " + second.getId() + "}";
+        HttpRequest cycleRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/dependencies"))
+                .POST(HttpRequest.BodyPublishers.ofString(cycle))
+                .build();
+        assertEquals(409, client.send(cycleRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        HttpRequest getRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/epics/" + epic.getId() + "/critical-path"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(getRequest, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        JsonObject path = gson.fromJson(response.body(), JsonObject.class);
+        assertEquals("PT1H30M", path.get("length").getAsString());
+        assertEquals(2, path.getAsJsonArray("path").size());
+        assertEquals(first.getId(), path.getAsJsonArray("path").get(0).getAsInt());
+
+        HttpRequest missingRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/epics/999/critical-path"))
+                .GET()
+                .build();
+        assertEquals(404, client.send(missingRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    public void testOffHeapManagerListsEpicsWithSubtasksInAddOrder() throws IOException, InterruptedException {
+        server.stop();
+        manager = Managers.getOffHeap();
+        server = new HttpTaskServer(manager);
+        server.start();
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask first = new Subtask("Первая", "Описание", Status.NEW, epic.getId());
+        manager.createSubtask(first);
+        manager.createSubtask(new Subtask("Вторая", "Описание", Status.DONE, epic.getId()));
+        manager.createSubtask(new Subtask("Третья", "Описание", Status.NEW, epic.getId()));
+        manager.removeSubtaskById(first.getId());
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/epics"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(gson.toJson(manager.getEpics()), response.body());
+        assertEquals("[3,4]", gson.fromJson(response.body(), JsonArray.class).get(0).getAsJsonObject()
+                .get("subtaskIds").toString());
+    }
+}
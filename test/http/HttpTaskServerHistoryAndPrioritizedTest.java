@@ -1,6 +1,7 @@
 package http;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import managers.Managers;
 import managers.TaskManager;
 import org.junit.jupiter.api.BeforeEach;
@@ -296,4 +297,104 @@ class HttpTaskServerHistoryAndPrioritizedTest {
         // Проверяем, что получили ответ (содержимое зависит от реализации менеджера)
         assertTrue(prioritizedResponse.body().length() >= 2); // Как минимум "[]" или содержимое
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPrioritizedTasksInWindow() throws IOException, InterruptedException {
+        manager.createTask(new Task("Early", "Desc", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 9, 0)));
+        manager.createTask(new Task("Inside", "Desc", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 2, 9, 0)));
+        manager.createTask(new Task("Late", "Desc", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 3, 9, 0)));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=2025-01-02T00:00&to=2025-01-03T00:00"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("Inside"));
+        assertTrue(!response.body().contains("Early") && !response.body().contains("Late"));
+
+        HttpRequest badRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=yesterday"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(badRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    public void testPageInsideWindow() throws IOException, InterruptedException {
+        Task early = new Task("Early", "Desc", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 9, 0));
+        manager.createTask(early);
+        Task first = new Task("First", "Desc", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 2, 9, 0));
+        manager.createTask(first);
+        manager.createTask(new Task("Second", "Desc", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 2, 10, 0)));
+        manager.createTask(new Task("Late", "Desc", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 3, 9, 0)));
+
+        String window = "http://localhost:8080/prioritized?from=2025-01-02T00:00&to=2025-01-03T00:00";
+        Task[] page = gson.fromJson(get(window + "&limit=1").body(), Task[].class);
+        assertEquals(1, page.length);
+        assertEquals("First", page[0].getName());
+
+        page = gson.fromJson(get(window + "&limit=10&after=" + first.getId()).body(), Task[].class);
+        assertEquals(1, page.length);
+        assertEquals("Second", page[0].getName());
+
+        assertEquals(400, get(window + "&limit=0").statusCode());
+        assertEquals(400, get(window + "&limit=10&after=" + early.getId()).statusCode());
+        assertEquals(400, get(window + "&limit=10&after=9999").statusCode());
+    }
+
+    private HttpResponse<String> get(String uri) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(uri)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testFindFreeSlot() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        manager.createTask(new Task("Задача", "Описание", Status.NEW, Duration.ofHours(1), start));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/free-slot?duration=PT30M&notBefore=2024-01-01T10:15:00"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        JsonObject slot = gson.fromJson(response.body(), JsonObject.class);
+        assertEquals("2024-01-01T11:00:00", slot.get("startTime").getAsString());
+        assertEquals("2024-01-01T11:30:00", slot.get("endTime").getAsString());
+
+        HttpRequest badRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/free-slot?duration=30"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(badRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    public void testAutoSchedule() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        manager.createTask(new Task("Занята", "Описание", Status.NEW, Duration.ofHours(1), start));
+        Task first = new Task("Первая", "Описание", Status.NEW, Duration.ofMinutes(30), null);
+        manager.createTask(first);
+        Task second = new Task("Вторая", "Описание", Status.NEW, Duration.ofMinutes(15), null);
+        manager.createTask(second);
+
+        String body = "{\"ids\": [" + second.getId() + ", " + first.getId() + "], \"notBefore\": \"2024-01-01T10:15:00\"}";
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/auto-schedule"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        Task[] scheduled = gson.fromJson(response.body(), Task[].class);
+        assertEquals(2, scheduled.length);
+        assertEquals(second.getId(), scheduled[0].getId());
+        assertEquals(start.plusHours(1), scheduled[0].getStartTime());
+        assertEquals(start.plusMinutes(75), manager.findById(first.getId()).getStartTime());
+        assertEquals(3, manager.getPrioritizedTasks().size());
+    }
+}
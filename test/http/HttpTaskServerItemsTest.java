@@ -0,0 +1,74 @@
+package http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import managers.Managers;
+import managers.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HttpTaskServerItemsTest {
+    private HttpTaskServer server;
+    private TaskManager manager;
+    private HttpClient client;
+    private Gson gson;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        manager = Managers.getDefault();
+        server = new HttpTaskServer(manager);
+        gson = server.getGson();
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testGetItemOfAnyType() throws IOException, InterruptedException {
+        Epic epic = new Epic("Epic", "Description");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask", "Description", Status.DONE, epic.getId());
+        manager.createSubtask(subtask);
+
+        HttpResponse<String> epicResponse = get("http://localhost:8080/items/" + epic.getId());
+        assertEquals(200, epicResponse.statusCode());
+        JsonObject epicJson = gson.fromJson(epicResponse.body(), JsonObject.class);
+        assertEquals("EPIC", epicJson.get("type").getAsString());
+        assertEquals("Epic", epicJson.getAsJsonObject("item").get("name").getAsString());
+
+        HttpResponse<String> subtaskResponse = get("http://localhost:8080/items/" + subtask.getId());
+        JsonObject subtaskJson = gson.fromJson(subtaskResponse.body(), JsonObject.class);
+        assertEquals("SUBTASK", subtaskJson.get("type").getAsString());
+        assertEquals(epic.getId(), subtaskJson.getAsJsonObject("item").get("epicId").getAsInt());
+    }
+
+    @Test
+    public void testGetMissingAndInvalidItem() throws IOException, InterruptedException {
+        assertEquals(404, get("http://localhost:8080/items/42").statusCode());
+        assertEquals(400, get("http://localhost:8080/items/abc").statusCode());
+    }
+
+    private HttpResponse<String> get(String uri) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(uri))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,75 @@
+package http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import managers.Managers;
+import managers.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HttpTaskServerSearchTest {
+    private HttpTaskServer server;
+    private TaskManager manager;
+    private HttpClient client;
+    private Gson gson;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        manager = Managers.getDefault();
+        server = new HttpTaskServer(manager);
+        gson = server.getGson();
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testSearchReturnsRankedItems() throws IOException, InterruptedException {
+        Task inDescription = new Task("Купить продукты", "Молоко и отчёт для бухгалтерии", Status.NEW);
+        manager.createTask(inDescription);
+        Epic inName = new Epic("Квартальный отчёт", "Собрать данные");
+        manager.createEpic(inName);
+        manager.createTask(new Task("Позвонить", "Маме", Status.NEW));
+
+        HttpResponse<String> response = get("http://localhost:8080/search?q="
+                + URLEncoder.encode("Отчёт", StandardCharsets.UTF_8));
+
+        assertEquals(200, response.statusCode());
+        JsonArray items = gson.fromJson(response.body(), JsonArray.class);
+        assertEquals(2, items.size());
+        assertEquals(inName.getId(), items.get(0).getAsJsonObject().get("id").getAsInt());
+        assertEquals(inDescription.getId(), items.get(1).getAsJsonObject().get("id").getAsInt());
+    }
+
+    @Test
+    public void testSearchWithoutQuery() throws IOException, InterruptedException {
+        assertEquals(400, get("http://localhost:8080/search").statusCode());
+        assertEquals(400, get("http://localhost:8080/search?q=a&limit=0").statusCode());
+    }
+
+    private HttpResponse<String> get(String uri) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(uri))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
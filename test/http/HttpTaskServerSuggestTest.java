@@ -0,0 +1,83 @@
+package http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import managers.Managers;
+import managers.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HttpTaskServerSuggestTest {
+    private HttpTaskServer server;
+    private TaskManager manager;
+    private HttpClient client;
+    private Gson gson;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        manager = Managers.getDefault();
+        server = new HttpTaskServer(manager);
+        gson = server.getGson();
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testSuggestByNamePrefix() throws IOException, InterruptedException {
+        Task second = new Task("Отчёт за май", "Описание", Status.NEW);
+        manager.createTask(second);
+        Epic first = new Epic("отчёт за апрель", "Описание");
+        manager.createEpic(first);
+        manager.createSubtask(new Subtask("Отчёт по подзадаче", "Описание", Status.NEW, first.getId()));
+        manager.createTask(new Task("Отпуск", "Описание", Status.NEW));
+
+        JsonArray items = gson.fromJson(get("Отчёт", 10).body(), JsonArray.class);
+        assertEquals(2, items.size(), "Подзадачи в подсказки не попадают");
+        assertEquals(first.getId(), items.get(0).getAsJsonObject().get("id").getAsInt());
+        assertEquals(second.getId(), items.get(1).getAsJsonObject().get("id").getAsInt());
+
+        assertEquals(3, gson.fromJson(get("от", 10).body(), JsonArray.class).size());
+        assertEquals(1, gson.fromJson(get("от", 1).body(), JsonArray.class).size());
+
+        manager.removeTaskById(second.getId());
+        assertEquals(1, gson.fromJson(get("отчёт", 10).body(), JsonArray.class).size());
+    }
+
+    @Test
+    public void testSuggestWithoutPrefix() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/suggest"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    private HttpResponse<String> get(String prefix, int limit) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/suggest?prefix="
+                        + URLEncoder.encode(prefix, StandardCharsets.UTF_8) + "&limit=" + limit))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -2,6 +2,7 @@ package http;
 
 import com.google.gson.Gson;
 import managers.Managers;
+import managers.TaskEvent;
 import managers.TaskManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
@@ -17,6 +18,8 @@ import java.net.URI;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -253,4 +256,177 @@ class HttpTaskServerTasksTest {
         assertTrue(response.body().contains("Некорректный id"));
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void testGetTasksPage() throws IOException, InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+        int secondId = manager.getTasks().get(1).getId();
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?limit=2&after=" + secondId))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(gson.toJson(manager.getTasks().subList(2, 3)), response.body());
+
+        HttpRequest badRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?limit=abc"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(badRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    public void testCreateTasksBatch() throws IOException, InterruptedException {
+        List<Task> tasks = List.of(
+                new Task("Задача 1", "Описание", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 1, 10, 0)),
+                new Task("Задача 2", "Описание", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 1, 11, 0)));
+
+        HttpResponse<String> response = post(gson.toJson(tasks));
+        assertEquals(201, response.statusCode());
+        assertEquals(2, manager.getTasks().size());
+
+        List<Task> overlapping = List.of(
+                new Task("Задача 3", "Описание", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 2, 10, 0)),
+                new Task("Задача 4", "Описание", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 2, 10, 15)));
+        assertEquals(406, post(gson.toJson(overlapping)).statusCode());
+        assertEquals(2, manager.getTasks().size());
+    }
+
+    @Test
+    public void testConditionalUpdateWithIfMatch() throws IOException, InterruptedException {
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        manager.createTask(task);
+        HttpRequest get = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/" + task.getId()))
+                .GET()
+                .build();
+        assertEquals("\"1\"", client.send(get, HttpResponse.BodyHandlers.ofString()).headers()
+                .firstValue("ETag").orElse(null));
+
+        Task edit = new Task("Новое имя", "Описание", Status.IN_PROGRESS);
+        edit.setId(task.getId());
+        HttpResponse<String> updated = postIfMatch(gson.toJson(edit), "\"1\"");
+        assertEquals(200, updated.statusCode());
+        assertEquals("\"2\"", updated.headers().firstValue("ETag").orElse(null));
+
+        HttpResponse<String> stale = postIfMatch(gson.toJson(edit), "\"1\"");
+        assertEquals(412, stale.statusCode());
+        assertEquals("\"2\"", stale.headers().firstValue("ETag").orElse(null));
+        assertEquals(412, postIfMatch(gson.toJson(edit), "W/\"2\"").statusCode());
+
+        edit.setId(999);
+        assertEquals(404, postIfMatch(gson.toJson(edit), "\"1\"").statusCode());
+    }
+
+    @Test
+    public void testIfMatchOnConcurrentManagerRejectsTagsThatMatchNoVersion() throws IOException, InterruptedException {
+        server.stop();
+        manager = Managers.getConcurrent();
+        server = new HttpTaskServer(manager);
+        server.start();
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        manager.createTask(task);
+
+        Task edit = new Task("Новое имя", "Описание", Status.IN_PROGRESS);
+        edit.setId(task.getId());
+        for (String tag : List.of("\"-1\"", "W/\"1\"", "\"abc\"", "1", "\"")) {
+            HttpResponse<String> response = postIfMatch(gson.toJson(edit), tag);
+            assertEquals(412, response.statusCode(), "Тег " + tag + " не должен совпасть");
+            assertEquals("\"1\"", response.headers().firstValue("ETag").orElse(null));
+        }
+        assertEquals("Задача", manager.findById(task.getId()).getName());
+        assertEquals(1, manager.findById(task.getId()).getVersion());
+
+        HttpResponse<String> updated = postIfMatch(gson.toJson(edit), "\"1\"");
+        assertEquals(200, updated.statusCode());
+        assertEquals("\"2\"", updated.headers().firstValue("ETag").orElse(null));
+        assertEquals(200, postIfMatch(gson.toJson(edit), "*").statusCode());
+    }
+
+    @Test
+    public void testETagIsTheVersionThisRequestStored() throws IOException, InterruptedException {
+        server.stop();
+        manager = Managers.getConcurrent();
+        server = new HttpTaskServer(manager);
+        server.start();
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        manager.createTask(task);
+
+        // Второй редактор успевает сохранить свою правку сразу после первой, до ответа первому
+        AtomicBoolean interleaved = new AtomicBoolean();
+        manager.addListener(events -> {
+            for (TaskEvent event : events) {
+                if (event.getKind() == TaskEvent.Kind.UPDATED && interleaved.compareAndSet(false, true)) {
+                    Task other = new Task("Второй редактор", "Описание", Status.DONE);
+                    other.setId(task.getId());
+                    manager.updateTask(other);
+                }
+            }
+        });
+
+        Task edit = new Task("Первый редактор", "Описание", Status.IN_PROGRESS);
+        edit.setId(task.getId());
+        HttpResponse<String> response = postIfMatch(gson.toJson(edit), "\"1\"");
+        assertEquals(200, response.statusCode());
+        assertEquals("\"2\"", response.headers().firstValue("ETag").orElse(null));
+        assertEquals(3, manager.findById(task.getId()).getVersion());
+
+        assertEquals(412, postIfMatch(gson.toJson(edit), "\"2\"").statusCode(),
+                "Правка второго редактора не должна затираться");
+        assertEquals("Второй редактор", manager.findById(task.getId()).getName());
+
+        HttpResponse<String> plain = post(gson.toJson(edit));
+        assertEquals(200, plain.statusCode());
+        assertEquals("\"4\"", plain.headers().firstValue("ETag").orElse(null));
+    }
+
+    @Test
+    public void testOffHeapManagerListsRecordsAndSetsETag() throws IOException, InterruptedException {
+        server.stop();
+        manager = Managers.getOffHeap();
+        server = new HttpTaskServer(manager);
+        server.start();
+        manager.createTask(new Task("Первая", "Описание", Status.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 2, 10, 0)));
+        Task second = new Task("Вторая <b>", null, Status.DONE);
+        manager.createTask(second);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals(gson.toJson(manager.getTasks()), response.body());
+
+        Task edit = new Task("Вторая", "Описание", Status.IN_PROGRESS);
+        edit.setId(second.getId());
+        HttpResponse<String> updated = post(gson.toJson(edit));
+        assertEquals(200, updated.statusCode());
+        assertEquals("\"2\"", updated.headers().firstValue("ETag").orElse(null));
+    }
+
+    private HttpResponse<String> postIfMatch(String json, String etag) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("Content-Type", "application/json")
+                .header("If-Match", etag)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
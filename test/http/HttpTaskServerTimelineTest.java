@@ -0,0 +1,85 @@
+package http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import managers.Managers;
+import managers.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Status;
+import tasks.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpTaskServerTimelineTest {
+    private HttpTaskServer server;
+    private TaskManager manager;
+    private HttpClient client;
+    private Gson gson;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        manager = Managers.getDefault();
+        server = new HttpTaskServer(manager);
+        gson = server.getGson();
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testTimelineByDays() throws IOException, InterruptedException {
+        manager.createTask(new Task("Задача", "Описание", Status.NEW, Duration.ofHours(6),
+                LocalDateTime.of(2024, 1, 1, 9, 0)));
+
+        HttpResponse<String> response = get("/timeline?from=2024-01-01&to=2024-01-02");
+        assertEquals(200, response.statusCode());
+        JsonArray days = gson.fromJson(response.body(), JsonArray.class);
+        assertEquals(2, days.size());
+        JsonObject first = days.get(0).getAsJsonObject();
+        assertEquals("2024-01-01", first.get("date").getAsString());
+        assertEquals(360, first.get("bookedMinutes").getAsInt());
+        assertEquals(0.25, first.get("utilization").getAsDouble(), 1e-9);
+        assertEquals(0, days.get(1).getAsJsonObject().get("bookedMinutes").getAsInt());
+
+        assertEquals(400, get("/timeline?from=2024-01-02&to=2024-01-01").statusCode());
+        assertEquals(400, get("/timeline?from=2024-01-01").statusCode());
+        assertEquals(400, get("/timeline?from=2024-13-01&to=2024-13-02").statusCode());
+    }
+
+    @Test
+    public void testMinuteProbe() throws IOException, InterruptedException {
+        manager.createTask(new Task("Задача", "Описание", Status.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2024, 1, 1, 9, 0)));
+
+        JsonObject busy = gson.fromJson(get("/timeline?at=2024-01-01T09:29:59").body(), JsonObject.class);
+        assertEquals("2024-01-01T09:29:00", busy.get("minute").getAsString());
+        assertFalse(busy.get("free").getAsBoolean());
+        JsonObject free = gson.fromJson(get("/timeline?at=2024-01-01T09:30:00").body(), JsonObject.class);
+        assertTrue(free.get("free").getAsBoolean());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
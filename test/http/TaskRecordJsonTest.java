@@ -0,0 +1,74 @@
+package http;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import managers.CompactTaskManager;
+import managers.OffHeapTaskStore;
+import managers.TaskRecord;
+import managers.TaskWriter;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+import util.IntLinkedSet;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class TaskRecordJsonTest {
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new BaseHttpHandler.LocalDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new BaseHttpHandler.DurationAdapter())
+            .registerTypeAdapter(IntLinkedSet.class, new BaseHttpHandler.IntLinkedSetAdapter())
+            .create();
+
+    @Test
+    void shouldWriteSameJsonAsGson() throws IOException {
+        CompactTaskManager manager = new CompactTaskManager(new OffHeapTaskStore());
+        Task task = new Task("Задача", "Описание \"в кавычках\"", Status.IN_PROGRESS,
+                Duration.ofMinutes(90), LocalDateTime.of(2025, 3, 1, 9, 0));
+        manager.createTask(task);
+        Epic epic = new Epic("Эпик", null);
+        manager.createEpic(epic);
+        Subtask first = new Subtask("Первая", "Описание", Status.NEW, epic.getId());
+        Subtask second = new Subtask("Вторая", null, Status.DONE,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 3, 2, 9, 0), epic.getId());
+        Subtask third = new Subtask("Третья", "Описание", Status.NEW, epic.getId());
+        manager.createSubtasks(List.of(first, second, third));
+        // Последняя запись хранилища переезжает на место удалённой — порядок строк уже не порядок добавления
+        manager.removeSubtaskById(first.getId());
+        manager.createEpic(new Epic("Пустой эпик", "Описание"));
+
+        List<Integer> written = new ArrayList<>();
+        TaskWriter writer = new TaskWriter() {
+            @Override
+            public void write(Task item) {
+                fail("Компактный менеджер не должен собирать задачи");
+            }
+
+            @Override
+            public void write(TaskRecord record) throws IOException {
+                StringWriter json = new StringWriter();
+                TaskRecordJson.write(new JsonWriter(json), record);
+                assertEquals(JsonParser.parseString(gson.toJson(manager.findById(record.getId()))),
+                        JsonParser.parseString(json.toString()));
+                written.add(record.getId());
+            }
+        };
+        for (TaskType type : TaskType.values()) {
+            manager.writeAll(type, writer);
+        }
+        assertEquals(5, written.size());
+    }
+}
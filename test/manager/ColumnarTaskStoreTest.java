@@ -0,0 +1,112 @@
+package manager;
+
+import managers.ColumnarTaskStore;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+import util.StringPool;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskStoreTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    @Test
+    void shouldMaterializeStoredFields() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        Task task = new Task("Задача", "Описание", Status.IN_PROGRESS, Duration.ofMinutes(30), START);
+        task.setId(1);
+        Epic epic = new Epic("Эпик", null);
+        epic.setId(2);
+        epic.setStartTime(START);
+        epic.setEndTime(START.plusHours(2));
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.DONE, 2);
+        subtask.setId(3);
+        store.put(task);
+        store.put(epic);
+        store.put(subtask);
+
+        Task storedTask = store.get(1);
+        assertEquals(Task.class, storedTask.getClass());
+        assertEquals("Задача", storedTask.getName());
+        assertEquals(Status.IN_PROGRESS, storedTask.getStatus());
+        assertEquals(Duration.ofMinutes(30), storedTask.getDuration());
+        assertEquals(START, storedTask.getStartTime());
+
+        Epic storedEpic = (Epic) store.get(2);
+        assertNull(storedEpic.getDescription());
+        assertEquals(START.plusHours(2), storedEpic.getEndTime());
+
+        Subtask storedSubtask = (Subtask) store.get(3);
+        assertEquals(2, storedSubtask.getEpicId());
+        assertNull(storedSubtask.getStartTime());
+        assertNull(storedSubtask.getDuration());
+
+        assertEquals(TaskType.SUBTASK, store.getType(3));
+        assertEquals("Подзадача", store.getName(3));
+        assertEquals(2, store.getEpicId(3));
+        assertNull(store.get(4));
+        assertThrows(IllegalArgumentException.class, () -> store.getName(4));
+    }
+
+    @Test
+    void shouldUpdateEpicFieldsAndShareStrings() {
+        StringPool pool = new StringPool();
+        ColumnarTaskStore store = new ColumnarTaskStore(pool, 4);
+        for (int id = 1; id <= 10; id++) {
+            Task task = new Task("Код-ревью", "Шаблон", Status.NEW, Duration.ofMinutes(15), START.plusHours(id));
+            task.setId(id);
+            store.put(task);
+        }
+        assertEquals(2, pool.size(), "Одинаковые строки должны храниться один раз");
+
+        store.setStatus(3, Status.DONE);
+        store.setTime(3, START, Duration.ofHours(2), START.plusHours(2));
+        store.setVersion(3, 7);
+        Task updated = store.get(3);
+        assertEquals("Код-ревью", updated.getName());
+        assertEquals(Status.DONE, updated.getStatus());
+        assertEquals(START, updated.getStartTime());
+        assertEquals(Duration.ofHours(2), updated.getDuration());
+        assertEquals(START.plusHours(2), updated.getEndTime());
+        assertEquals(7, updated.getVersion());
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void shouldBehaveLikeMapUnderRandomPutsAndRemoves() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(400) + 1;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id) != null, store.remove(id));
+            } else {
+                String name = "Задача " + random.nextInt(50);
+                Task task = new Task(name, null, Status.NEW);
+                task.setId(id);
+                store.put(task);
+                expected.put(id, name);
+            }
+            assertEquals(expected.size(), store.size());
+        }
+        for (int id = 1; id <= 400; id++) {
+            Task task = store.get(id);
+            assertEquals(expected.get(id), task == null ? null : task.getName());
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package manager;
+
+import exception.TaskOverlapException;
+import managers.ConcurrentTaskManager;
+import managers.TaskEvent;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest {
+    private static final int THREADS = 8;
+
+    @Test
+    void shouldBehaveLikeInMemoryManagerInSingleThread() {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask first = new Subtask("Первая", "Описание", Status.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2024, 1, 1, 10, 0), epic.getId());
+        Subtask second = new Subtask("Вторая", "Описание", Status.DONE, Duration.ofHours(1),
+                LocalDateTime.of(2024, 1, 1, 12, 0), epic.getId());
+        manager.createSubtask(first);
+        manager.createSubtask(second);
+
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 13, 0), epic.getEndTime());
+        assertEquals(List.of(first, second), manager.getPrioritizedTasks());
+
+        Task overlapping = new Task("Задача", "Описание", Status.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2024, 1, 1, 10, 30));
+        assertThrows(TaskOverlapException.class, () -> manager.createTask(overlapping));
+
+        manager.removeEpicById(epic.getId());
+        assertTrue(manager.getSubtasks().isEmpty());
+        assertTrue(manager.getPrioritizedTasks().isEmpty());
+        assertNull(manager.getById(first.getId()));
+    }
+
+    @Test
+    void listsShouldBeSnapshotsNotAffectedByLaterWrites() {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Task first = new Task("Первая", "Описание", Status.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2024, 1, 1, 10, 0));
+        manager.createTask(first);
+        List<Task> tasks = manager.getTasks();
+        List<Task> prioritized = manager.getPrioritizedTasks();
+
+        Task second = new Task("Вторая", "Описание", Status.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2024, 1, 1, 8, 0));
+        manager.createTask(second);
+        manager.removeTaskById(first.getId());
+
+        assertEquals(List.of(first), tasks);
+        assertEquals(List.of(first), prioritized);
+        assertEquals(List.of(second), manager.getTasks());
+        assertThrows(UnsupportedOperationException.class, () -> tasks.add(second));
+    }
+
+    @Test
+    void concurrentOverlappingCreatesShouldAdmitExactlyOne() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            int offset = i % 30;
+            futures.add(executor.submit(() -> {
+                start.await();
+                Task task = new Task("Задача", "Описание", Status.NEW, Duration.ofMinutes(45),
+                        LocalDateTime.of(2024, 1, 1, 10, 0).plusMinutes(offset));
+                try {
+                    manager.createTask(task);
+                } catch (TaskOverlapException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(1, manager.getTasks().size());
+        assertEquals(199, rejected.get());
+    }
+
+    @Test
+    void concurrentWritesToDifferentEpicsShouldKeepRollupsConsistent() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Epic epic = new Epic("Эпик" + i, "Описание");
+            manager.createEpic(epic);
+            epics.add(epic);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Epic epic = epics.get(i);
+            int slot = i;
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 100; j++) {
+                    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(j * THREADS + slot);
+                    manager.createSubtask(new Subtask("Подзадача", "Описание", Status.DONE,
+                            Duration.ofMinutes(30), start, epic.getId()));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * 100, manager.getSubtasks().size());
+        assertEquals(THREADS * 100, manager.getPrioritizedTasks().size());
+        Set<Integer> ids = new HashSet<>();
+        for (Subtask subtask : manager.getSubtasks()) {
+            assertTrue(ids.add(subtask.getId()), "id должны быть уникальными");
+        }
+        for (Epic epic : epics) {
+            assertEquals(100, manager.getSubtasksByEpicId(epic.getId()).size());
+            assertEquals(Status.DONE, epic.getStatus());
+        }
+    }
+
+    @Test
+    void pagesShouldMatchInMemoryManager() {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task("Задача" + i, "Описание", Status.NEW, Duration.ofMinutes(30),
+                    LocalDateTime.of(2024, 1, 1, 10, 0).minusHours(i));
+            manager.createTask(task);
+            tasks.add(task);
+        }
+
+        assertEquals(tasks.subList(0, 2), manager.getTasks(0, 2));
+        assertEquals(tasks.subList(2, 5), manager.getTasks(tasks.get(1).getId(), 10));
+        assertEquals(List.of(tasks.get(2), tasks.get(1)), manager.getPrioritizedTasks(tasks.get(3).getId(), 2));
+        assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedTasks(100, 2));
+    }
+
+    @Test
+    void asyncListenerShouldReceiveAllEventsInOrderWithoutOverlappingCalls() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        ExecutorService dispatcher = Executors.newFixedThreadPool(4);
+        List<Integer> createdIds = new ArrayList<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(THREADS * 100);
+        manager.addListener(events -> {
+            if (inFlight.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            for (TaskEvent event : events) {
+                createdIds.add(event.getId());
+                done.countDown();
+            }
+            inFlight.decrementAndGet();
+        }, dispatcher);
+
+        ExecutorService writers = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(writers.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    manager.createTask(new Task("Задача", "Описание", Status.NEW));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        writers.shutdown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        dispatcher.shutdown();
+        assertEquals(0, overlaps.get(), "Пачки одному подписчику доставляются по очереди");
+        assertEquals(THREADS * 100, new HashSet<>(createdIds).size());
+    }
+
+    @Test
+    void onlyOneOfConcurrentConditionalUpdatesShouldWin() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic.getId());
+        manager.createSubtask(subtask);
+        long version = subtask.getVersion();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String name = "Редактор " + t;
+            futures.add(executor.submit(() -> {
+                Subtask edit = new Subtask(name, "Описание", Status.IN_PROGRESS, epic.getId());
+                edit.setId(subtask.getId());
+                start.await();
+                return manager.updateIfVersion(edit, version) >= 0;
+            }));
+        }
+        start.countDown();
+        int won = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get()) {
+                won++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, won);
+        assertEquals(version + 1, manager.findById(subtask.getId()).getVersion());
+    }
+
+    @Test
+    void conditionalUpdateShouldCompareEveryVersionLiterally() {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        manager.createTask(task);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic.getId());
+        manager.createSubtask(subtask);
+
+        assertEquals(-1, manager.updateIfVersion(withId(new Task("Новое", "", Status.DONE), task.getId()), -1));
+        assertEquals(-1, manager.updateIfVersion(withId(new Epic("Новое", ""), epic.getId()), -1));
+        assertEquals(-1, manager.updateIfVersion(
+                withId(new Subtask("Новое", "", Status.DONE, epic.getId()), subtask.getId()), -1));
+        assertEquals("Задача", manager.findById(task.getId()).getName());
+        assertEquals(1, manager.findById(task.getId()).getVersion());
+        assertEquals("Подзадача", manager.findById(subtask.getId()).getName());
+    }
+
+    @Test
+    void replacedEpicShouldKeepStatusCountsOfItsSubtasks() {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask first = new Subtask("Первая", "Описание", Status.NEW, epic.getId());
+        Subtask second = new Subtask("Вторая", "Описание", Status.NEW, epic.getId());
+        manager.createSubtask(first);
+        manager.createSubtask(second);
+
+        Epic replacement = withId(new Epic("Эпик", "Новое описание"), epic.getId());
+        replacement.addSubtaskId(first.getId());
+        replacement.addSubtaskId(second.getId());
+        manager.createEpic(replacement);
+        manager.updateSubtask(withId(new Subtask("Первая", "Описание", Status.DONE, epic.getId()), first.getId()));
+
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(epic.getId()).getStatus());
+    }
+
+    @Test
+    void snapshotShouldHoldEpicStateAtTheTimeOfReading() {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic.getId());
+        manager.createSubtask(subtask);
+
+        Epic seen = manager.getEpics().get(0);
+        manager.updateSubtask(withId(new Subtask("Подзадача", "Описание", Status.DONE, epic.getId()), subtask.getId()));
+        manager.updateEpic(withId(new Epic("Новое имя", "Описание"), epic.getId()));
+
+        assertEquals(Status.NEW, seen.getStatus(), "Прочитанный снимок не должен меняться");
+        assertEquals("Эпик", seen.getName());
+        Epic current = manager.getEpics().get(0);
+        assertEquals(Status.DONE, current.getStatus());
+        assertEquals("Новое имя", current.getName());
+        assertArrayEquals(new int[]{subtask.getId()}, current.getSubtaskIds());
+    }
+
+    @Test
+    void removeRacingWithReplaceShouldKeepSnapshotInSyncWithMap() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (int i = 0; i < 500; i++) {
+            Task task = new Task("Задача", "Описание", Status.NEW);
+            manager.createTask(task);
+            int id = task.getId();
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?> replace = executor.submit(() -> {
+                start.await();
+                manager.updateTask(withId(new Task("Замена", "Описание", Status.DONE), id));
+                return null;
+            });
+            Future<?> remove = executor.submit(() -> {
+                start.await();
+                manager.removeTaskById(id);
+                return null;
+            });
+            start.countDown();
+            replace.get();
+            remove.get();
+
+            boolean inMap = manager.findById(id) != null;
+            boolean inSnapshot = manager.getTasks().stream().anyMatch(t -> t.getId() == id);
+            assertEquals(inMap, inSnapshot, "Задача " + id + " есть только в одном из представлений");
+        }
+        executor.shutdown();
+    }
+
+    private static <T extends Task> T withId(T item, int id) {
+        item.setId(id);
+        return item;
+    }
+}
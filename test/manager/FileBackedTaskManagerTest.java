@@ -117,4 +117,41 @@ public class FileBackedTaskManagerTest {
         assertEquals(1, loadedSubtasks.size(), "Должна быть 1 подзадача");
         assertEquals("Subtask1", loadedSubtasks.get(0).getName(), "Имя подзадачи должно совпадать");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBatchCreateSavesOnce() throws IOException {
+        int[] saves = new int[1];
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile) {
+            @Override
+            public void save() {
+                saves[0]++;
+                super.save();
+            }
+        };
+        manager.createTasks(List.of(new Task("Task1", "Description1", Status.NEW),
+                new Task("Task2", "Description2", Status.NEW),
+                new Task("Task3", "Description3", Status.NEW)));
+
+        assertEquals(1, saves[0], "Пакет должен сохраняться в файл один раз");
+        List<String> lines = Files.readAllLines(tempFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+    }
+
+    @Test
+    public void testRunBatchDefersSave() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile);
+        manager.runBatch(() -> {
+            manager.createTask(new Task("Task1", "Description1", Status.NEW));
+            manager.createEpic(new Epic("Epic1", "Description2"));
+            try {
+                assertTrue(Files.readAllLines(tempFile.toPath(), StandardCharsets.UTF_8).isEmpty(),
+                        "Внутри пакета файл не должен перезаписываться");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        List<String> lines = Files.readAllLines(tempFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(3, lines.size(), "После пакета файл должен быть сохранён один раз со всеми задачами");
+    }
+}
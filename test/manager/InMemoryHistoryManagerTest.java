@@ -125,4 +125,21 @@ class InMemoryHistoryManagerTest {
         assertEquals(1, history.get(0).getId(), "First task should have ID=1");
         assertEquals(2, history.get(1).getId(), "Second task should have ID=2");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReturnHistoryPageAfterCursor() {
+        InMemoryHistoryManager manager = new InMemoryHistoryManager();
+        for (int i = 1; i <= 4; i++) {
+            Task task = new Task("Задача " + i, "Desc", Status.NEW);
+            task.setId(i);
+            manager.add(task);
+        }
+
+        List<Task> first = manager.getHistory(0, 3);
+        assertEquals(3, first.size());
+        List<Task> second = manager.getHistory(first.get(2).getId(), 3);
+        assertEquals(1, second.size());
+        assertEquals(4, second.get(0).getId());
+        assertThrows(IllegalArgumentException.class, () -> manager.getHistory(10, 3));
+    }
+}
@@ -1,16 +1,26 @@
 package manager;
 
+import exception.DependencyCycleException;
 import exception.TaskOverlapException;
+import managers.CriticalPath;
+import managers.DayOccupancy;
 import managers.InMemoryTaskManager;
+import managers.Managers;
+import managers.TaskEvent;
+import managers.TaskEventListener;
+import managers.TaskManager;
 import org.junit.jupiter.api.Test;
 import tasks.Epic;
 import tasks.Status;
 import tasks.Subtask;
 import tasks.Task;
+import tasks.TaskType;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -144,4 +154,633 @@ class InMemoryTaskManagerTest {
         assertEquals(time3, prioritized.get(1).getStartTime()); // 12:00 - второй
         assertEquals(time1, prioritized.get(2).getStartTime()); // 15:00 - третий
     }
-}
\ No newline at end of file
+
+    @Test
+    void adjacentTasksShouldNotOverlap() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+
+        Task task1 = new Task("Task1", "Desc1", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 10, 0));
+        Task task2 = new Task("Task2", "Desc2", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 11, 0));
+        Task task3 = new Task("Task3", "Desc3", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 9, 0));
+
+        manager.createTask(task1);
+        manager.createTask(task2);
+        manager.createTask(task3);
+
+        assertEquals(3, manager.getPrioritizedTasks().size(), "Задачи встык не должны пересекаться");
+    }
+
+    @Test
+    void shouldDetectOverlapWithLongTaskStartedEarlier() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+
+        manager.createTask(new Task("Long", "Desc", Status.NEW, Duration.ofHours(10), LocalDateTime.of(2024, 1, 1, 0, 0)));
+        for (int i = 0; i < 20; i++) {
+            manager.createTask(new Task("Short" + i, "Desc", Status.NEW, Duration.ofMinutes(30),
+                    LocalDateTime.of(2024, 1, 2, 0, 0).plusHours(i)));
+        }
+
+        Task inside = new Task("Inside", "Desc", Status.NEW, Duration.ofMinutes(5), LocalDateTime.of(2024, 1, 1, 9, 0));
+        assertThrows(TaskOverlapException.class, () -> manager.createTask(inside));
+
+        Task inGap = new Task("Gap", "Desc", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 2, 3, 30));
+        manager.createTask(inGap);
+        assertEquals(22, manager.getTasks().size());
+    }
+
+    @Test
+    void updateShouldIgnoreOwnIntervalAndKeepOldOnOverlap() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+
+        Task task1 = new Task("Task1", "Desc1", Status.NEW, Duration.ofHours(2), LocalDateTime.of(2024, 1, 1, 10, 0));
+        Task task2 = new Task("Task2", "Desc2", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 13, 0));
+        manager.createTask(task1);
+        manager.createTask(task2);
+
+        Task shifted = new Task("Task1", "Desc1", Status.NEW, Duration.ofHours(2), LocalDateTime.of(2024, 1, 1, 11, 0));
+        shifted.setId(task1.getId());
+        manager.updateTask(shifted);
+
+        Task clashing = new Task("Task2", "Desc2", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 12, 0));
+        clashing.setId(task2.getId());
+        assertThrows(TaskOverlapException.class, () -> manager.updateTask(clashing));
+
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(2, prioritized.size());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 11, 0), prioritized.get(0).getStartTime());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 13, 0), prioritized.get(1).getStartTime());
+
+        manager.removeTaskById(task1.getId());
+        manager.createTask(new Task("Task3", "Desc3", Status.NEW, Duration.ofHours(2), LocalDateTime.of(2024, 1, 1, 10, 30)));
+        assertEquals(2, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void shouldReturnPrioritizedTasksInTimeWindow() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+
+        for (int day = 1; day <= 10; day++) {
+            manager.createTask(new Task("Task" + day, "Desc", Status.NEW, Duration.ofHours(1),
+                    LocalDateTime.of(2024, 1, day, 10, 0)));
+        }
+        manager.createTask(new Task("Unscheduled", "Desc", Status.NEW));
+
+        List<Task> week = manager.getPrioritizedTasks(LocalDateTime.of(2024, 1, 3, 10, 0),
+                LocalDateTime.of(2024, 1, 8, 10, 0));
+        assertEquals(5, week.size());
+        assertEquals(LocalDateTime.of(2024, 1, 3, 10, 0), week.get(0).getStartTime());
+        assertEquals(LocalDateTime.of(2024, 1, 7, 10, 0), week.get(4).getStartTime());
+
+        assertEquals(3, manager.getPrioritizedTasks(LocalDateTime.of(2024, 1, 8, 0, 0), null).size());
+        assertEquals(2, manager.getPrioritizedTasks(null, LocalDateTime.of(2024, 1, 3, 0, 0)).size());
+        assertTrue(manager.getPrioritizedTasks(LocalDateTime.of(2024, 1, 5, 0, 0),
+                LocalDateTime.of(2024, 1, 4, 0, 0)).isEmpty());
+    }
+
+    @Test
+    void everyManagerShouldPageInsideTimeWindowFromCursor() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 3, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 8, 0, 0);
+        for (TaskManager manager : List.of(Managers.getDefault(), Managers.getConcurrent(), Managers.getSharded(3),
+                Managers.getCompact(), Managers.getOffHeap())) {
+            List<Integer> ids = new ArrayList<>();
+            for (int day = 1; day <= 10; day++) {
+                Task task = new Task("Task" + day, "Desc", Status.NEW, Duration.ofHours(1),
+                        LocalDateTime.of(2024, 1, day, 10, 0));
+                manager.createTask(task);
+                ids.add(task.getId());
+            }
+            Epic epic = new Epic("Epic", "Desc");
+            manager.createEpic(epic);
+            Subtask subtask = new Subtask("Sub", "Desc", Status.NEW, Duration.ofHours(1),
+                    LocalDateTime.of(2024, 1, 5, 12, 0), epic.getId());
+            manager.createSubtask(subtask);
+            String name = manager.getClass().getSimpleName();
+
+            assertEquals(List.of(ids.get(2), ids.get(3)), ids(manager.getPrioritizedTasks(from, to, 0, 2)), name);
+            assertEquals(List.of(subtask.getId(), ids.get(5), ids.get(6)),
+                    ids(manager.getPrioritizedTasks(from, to, ids.get(4), 10)), name);
+            assertTrue(manager.getPrioritizedTasks(from, to, ids.get(6), 10).isEmpty(), name);
+            assertTrue(manager.getPrioritizedTasks(to, from, 0, 10).isEmpty(), name);
+            assertEquals(List.of(ids.get(8), ids.get(9)), ids(manager.getPrioritizedTasks(from, null, ids.get(7), 10)), name);
+
+            // Курсор вне окна, эпик или неизвестный id — ошибка, а не пустая страница
+            assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedTasks(from, to, ids.get(0), 10), name);
+            assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedTasks(from, to, ids.get(7), 10), name);
+            assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedTasks(from, to, epic.getId(), 10), name);
+            assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedTasks(from, to, 1000, 10), name);
+        }
+    }
+
+    @Test
+    void epicStatusShouldFollowSubtaskStatuses() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        assertEquals(Status.NEW, epic.getStatus());
+
+        Subtask first = new Subtask("Первая", "Описание", Status.NEW, epic.getId());
+        Subtask second = new Subtask("Вторая", "Описание", Status.DONE, epic.getId());
+        manager.createSubtask(first);
+        manager.createSubtask(second);
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+
+        Subtask firstDone = new Subtask("Первая", "Описание", Status.DONE, epic.getId());
+        firstDone.setId(first.getId());
+        manager.updateSubtask(firstDone);
+        assertEquals(Status.DONE, epic.getStatus());
+
+        firstDone.setStatus(Status.IN_PROGRESS);
+        manager.updateSubtask(firstDone);
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+
+        manager.removeSubtaskById(first.getId());
+        assertEquals(Status.DONE, epic.getStatus());
+
+        manager.removeSubtasks();
+        assertEquals(Status.NEW, epic.getStatus());
+    }
+
+    @Test
+    void movedSubtaskShouldUpdateBothEpics() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic source = new Epic("Источник", "Описание");
+        Epic target = new Epic("Цель", "Описание");
+        manager.createEpic(source);
+        manager.createEpic(target);
+
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.DONE, source.getId());
+        manager.createSubtask(subtask);
+        assertEquals(Status.DONE, source.getStatus());
+
+        Subtask moved = new Subtask("Подзадача", "Описание", Status.DONE, target.getId());
+        moved.setId(subtask.getId());
+        manager.updateSubtask(moved);
+
+        assertEquals(Status.NEW, source.getStatus());
+        assertEquals(Status.DONE, target.getStatus());
+        assertTrue(manager.getSubtasksByEpicId(source.getId()).isEmpty());
+        assertEquals(List.of(moved), manager.getSubtasksByEpicId(target.getId()));
+    }
+
+    @Test
+    void epicTimeShouldFollowSubtaskTimes() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+
+        Subtask late = new Subtask("Поздняя", "Описание", Status.NEW, Duration.ofHours(2),
+                LocalDateTime.of(2024, 1, 2, 10, 0), epic.getId());
+        Subtask early = new Subtask("Ранняя", "Описание", Status.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2024, 1, 1, 10, 0), epic.getId());
+        Subtask unscheduled = new Subtask("Без времени", "Описание", Status.NEW, epic.getId());
+        manager.createSubtask(late);
+        manager.createSubtask(unscheduled);
+        manager.createSubtask(early);
+
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 12, 0), epic.getEndTime());
+        assertEquals(Duration.ofHours(26), epic.getDuration());
+        assertEquals(List.of(early, late, unscheduled), manager.getSubtasksByEpicId(epic.getId(), true));
+
+        Subtask moved = new Subtask("Поздняя", "Описание", Status.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2023, 12, 31, 10, 0), epic.getId());
+        moved.setId(late.getId());
+        manager.updateSubtask(moved);
+        assertEquals(LocalDateTime.of(2023, 12, 31, 10, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 11, 0), epic.getEndTime());
+
+        manager.removeSubtaskById(early.getId());
+        manager.removeSubtaskById(moved.getId());
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+        assertEquals(Duration.ZERO, epic.getDuration());
+    }
+
+    @Test
+    void getByIdShouldResolveAnyType() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createTask(task);
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic.getId());
+        manager.createSubtask(subtask);
+
+        assertEquals(TaskType.TASK, manager.getById(task.getId()).getType());
+        assertEquals(TaskType.EPIC, manager.getById(epic.getId()).getType());
+        assertSame(subtask, manager.getById(subtask.getId()));
+        assertEquals(3, manager.getHistory().size());
+
+        manager.removeEpicById(epic.getId());
+        assertNull(manager.getById(epic.getId()));
+        assertNull(manager.getById(subtask.getId()));
+        manager.removeTasks();
+        assertNull(manager.getById(task.getId()));
+    }
+
+    @Test
+    void streamsShouldMatchListGetters() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task late = new Task("Поздняя", "Описание", Status.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2024, 1, 1, 12, 0));
+        Task early = new Task("Ранняя", "Описание", Status.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2024, 1, 1, 9, 0));
+        manager.createTask(late);
+        manager.createTask(early);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        manager.createSubtask(new Subtask("Подзадача", "Описание", Status.NEW, epic.getId()));
+        manager.getTaskById(late.getId());
+        manager.getEpicById(epic.getId());
+
+        assertEquals(manager.getTasks(), manager.streamTasks().collect(Collectors.toList()));
+        assertEquals(manager.getEpics(), manager.streamEpics().collect(Collectors.toList()));
+        assertEquals(manager.getSubtasks(), manager.streamSubtasks().collect(Collectors.toList()));
+        assertEquals(List.of(late, epic), manager.streamHistory().collect(Collectors.toList()));
+        assertEquals(List.of(early, late), manager.streamPrioritizedTasks().collect(Collectors.toList()));
+        assertEquals(List.of(late), manager.streamPrioritizedTasks(LocalDateTime.of(2024, 1, 1, 10, 0), null)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void pagesShouldFollowIdAndTimeOrder() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task("Задача" + i, "Описание", Status.NEW, Duration.ofMinutes(30),
+                    LocalDateTime.of(2024, 1, 1, 10, 0).minusHours(i));
+            manager.createTask(task);
+            tasks.add(task);
+        }
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+
+        assertEquals(tasks.subList(0, 2), manager.getTasks(0, 2));
+        assertEquals(tasks.subList(2, 4), manager.getTasks(tasks.get(1).getId(), 2));
+        assertEquals(tasks.subList(4, 5), manager.getTasks(tasks.get(3).getId(), 2));
+        assertTrue(manager.getTasks(tasks.get(4).getId(), 2).isEmpty());
+        assertEquals(List.of(epic), manager.getEpics(0, 10));
+
+        manager.removeTaskById(tasks.get(2).getId());
+        assertEquals(List.of(tasks.get(3), tasks.get(4)), manager.getTasks(tasks.get(1).getId(), 2));
+
+        // Раньше всех начинается последняя созданная задача
+        assertEquals(List.of(tasks.get(4), tasks.get(3)), manager.getPrioritizedTasks(0, 2));
+        assertEquals(List.of(tasks.get(1), tasks.get(0)), manager.getPrioritizedTasks(tasks.get(3).getId(), 5));
+        assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedTasks(epic.getId(), 5));
+    }
+
+    @Test
+    void searchShouldFollowUpdatesAndRemovals() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task task = new Task("Ремонт кухни", "Купить плитку и клей", Status.NEW);
+        manager.createTask(task);
+        Epic epic = new Epic("Переезд", "Упаковать кухню");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Клей", "Выбрать марку", Status.NEW, epic.getId());
+        manager.createSubtask(subtask);
+
+        assertEquals(List.of(subtask, task), manager.search("клей", 10));
+        assertEquals(List.of(subtask), manager.search("Клей", 1));
+        assertTrue(manager.search("кухни плитку", 10).contains(task));
+
+        Task renamed = new Task("Ремонт ванной", "Позвать мастера", Status.NEW);
+        renamed.setId(task.getId());
+        manager.updateTask(renamed);
+        assertEquals(List.of(subtask), manager.search("клей", 10));
+
+        manager.updateEpic(new Epic("Дача", "Описание") {{ setId(epic.getId()); }});
+        assertTrue(manager.search("переезд", 10).isEmpty());
+        assertEquals(List.of(epic), manager.search("дача", 10));
+
+        manager.removeEpicById(epic.getId());
+        assertTrue(manager.search("клей", 10).isEmpty());
+        assertTrue(manager.getHistory().isEmpty(), "Поиск не должен попадать в историю");
+    }
+
+    @Test
+    void batchCreateShouldBeAllOrNothing() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        manager.createTask(new Task("Существующая", "Описание", Status.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2024, 1, 1, 10, 0)));
+
+        List<Task> clashWithStore = List.of(
+                new Task("A", "Описание", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 8, 0)),
+                new Task("B", "Описание", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 10, 30)));
+        assertThrows(TaskOverlapException.class, () -> manager.createTasks(clashWithStore));
+
+        List<Task> clashInBatch = List.of(
+                new Task("C", "Описание", Status.NEW, Duration.ofHours(2), LocalDateTime.of(2024, 1, 2, 8, 0)),
+                new Task("D", "Описание", Status.NEW),
+                new Task("E", "Описание", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 2, 9, 0)));
+        assertThrows(TaskOverlapException.class, () -> manager.createTasks(clashInBatch));
+        assertEquals(1, manager.getTasks().size(), "Ни одна задача из отклонённых пакетов не должна сохраниться");
+
+        List<Task> valid = List.of(
+                new Task("F", "Описание", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 11, 0)),
+                new Task("G", "Описание", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2024, 1, 1, 9, 0)),
+                new Task("H", "Описание", Status.NEW));
+        manager.createTasks(valid);
+        assertEquals(4, manager.getTasks().size());
+        assertEquals(3, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void batchCreateSubtasksShouldUpdateEachEpicOnce() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic first = new Epic("Первый", "Описание");
+        Epic second = new Epic("Второй", "Описание");
+        manager.createEpic(first);
+        manager.createEpic(second);
+
+        assertThrows(IllegalArgumentException.class, () -> manager.createSubtasks(List.of(
+                new Subtask("A", "Описание", Status.NEW, first.getId()),
+                new Subtask("B", "Описание", Status.NEW, 100))));
+        assertTrue(manager.getSubtasks().isEmpty());
+
+        manager.createSubtasks(List.of(
+                new Subtask("C", "Описание", Status.DONE, Duration.ofHours(1),
+                        LocalDateTime.of(2024, 1, 1, 10, 0), first.getId()),
+                new Subtask("D", "Описание", Status.NEW, Duration.ofHours(1),
+                        LocalDateTime.of(2024, 1, 1, 12, 0), first.getId()),
+                new Subtask("E", "Описание", Status.DONE, second.getId())));
+
+        assertEquals(Status.IN_PROGRESS, first.getStatus());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 13, 0), first.getEndTime());
+        assertEquals(Status.DONE, second.getStatus());
+        assertEquals(2, manager.getSubtasksByEpicId(first.getId()).size());
+    }
+
+    @Test
+    void findFreeSlotShouldSkipBusyIntervals() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+        manager.createTask(new Task("A", "Описание", Status.NEW, Duration.ofHours(1), nine));
+        manager.createTask(new Task("B", "Описание", Status.NEW, Duration.ofMinutes(30), nine.plusMinutes(80)));
+        manager.createTask(new Task("C", "Описание", Status.NEW, Duration.ofHours(1), nine.plusHours(2)));
+
+        assertEquals(nine.minusHours(1), manager.findFreeSlot(Duration.ofHours(1), nine.minusHours(1)));
+        assertEquals(nine.plusHours(1), manager.findFreeSlot(Duration.ofMinutes(20), nine.plusMinutes(30)));
+        assertEquals(nine.plusHours(3), manager.findFreeSlot(Duration.ofMinutes(30), nine.plusMinutes(30)));
+        assertEquals(nine.plusMinutes(110), manager.findFreeSlot(Duration.ofMinutes(10), nine.plusMinutes(85)));
+
+        LocalDateTime slot = manager.findFreeSlot(Duration.ofMinutes(45), nine);
+        manager.createTask(new Task("D", "Описание", Status.NEW, Duration.ofMinutes(45), slot));
+        assertEquals(4, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void autoScheduleShouldPackUnscheduledTasksIntoFreeGaps() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        LocalDateTime nine = LocalDateTime.of(2024, 1, 1, 9, 0);
+        manager.createTask(new Task("Занята", "Описание", Status.NEW, Duration.ofHours(1), nine));
+        manager.createTask(new Task("Занята", "Описание", Status.NEW, Duration.ofMinutes(30), nine.plusMinutes(80)));
+        manager.createTask(new Task("Занята", "Описание", Status.NEW, Duration.ofHours(1), nine.plusHours(2)));
+
+        Task first = new Task("Первая", "Описание", Status.NEW, Duration.ofMinutes(20), null);
+        manager.createTask(first);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask subtask1 = new Subtask("Подзадача 1", "Описание", Status.NEW, Duration.ofMinutes(20), null, epic.getId());
+        manager.createSubtask(subtask1);
+        Task last = new Task("Последняя", "Описание", Status.NEW, Duration.ofMinutes(10), null);
+        manager.createTask(last);
+        Subtask subtask2 = new Subtask("Подзадача 2", "Описание", Status.NEW, Duration.ofMinutes(40), null, epic.getId());
+        manager.createSubtask(subtask2);
+        manager.createTask(new Task("Без длительности", "Описание", Status.NEW));
+
+        List<Task> scheduled = manager.autoSchedule(List.of(), nine);
+
+        // Подзадачи эпика идут подряд, задача, не влезшая в промежуток, не пропускается вперёд
+        assertEquals(List.of(first.getId(), subtask1.getId(), subtask2.getId(), last.getId()),
+                scheduled.stream().map(Task::getId).toList());
+        assertEquals(nine.plusHours(1), manager.findById(first.getId()).getStartTime());
+        assertEquals(nine.plusHours(3), manager.findById(subtask1.getId()).getStartTime());
+        assertEquals(nine.plusMinutes(200), manager.findById(subtask2.getId()).getStartTime());
+        assertEquals(nine.plusHours(4), manager.findById(last.getId()).getStartTime());
+        assertEquals(nine.plusHours(3), epic.getStartTime());
+        assertEquals(nine.plusHours(4), epic.getEndTime());
+        assertEquals(7, manager.getPrioritizedTasks().size());
+
+        assertTrue(manager.autoSchedule(null, nine).isEmpty());
+    }
+
+    @Test
+    void timelineShouldCountBookedMinutesPerDay() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        LocalDateTime day = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Task night = new Task("Ночь", "Описание", Status.NEW, Duration.ofHours(2), day.plusHours(23));
+        manager.createTask(night);
+        // Две задачи делят минуту 10:00
+        Task first = new Task("Первая", "Описание", Status.NEW, Duration.ofSeconds(90), day.plusHours(9).plusMinutes(59));
+        manager.createTask(first);
+        Task second = new Task("Вторая", "Описание", Status.NEW, Duration.ofMinutes(10),
+                day.plusHours(10).plusSeconds(30));
+        manager.createTask(second);
+
+        List<DayOccupancy> timeline = manager.getTimeline(day.toLocalDate(), day.toLocalDate().plusDays(2));
+        assertEquals(3, timeline.size());
+        assertEquals(60 + 2 + 10, timeline.get(0).getBookedMinutes());
+        assertEquals(60, timeline.get(1).getBookedMinutes());
+        assertEquals(60.0 / 1440, timeline.get(1).getUtilization(), 1e-9);
+        assertEquals(0, timeline.get(2).getBookedMinutes());
+        assertFalse(manager.isMinuteFree(day.plusHours(10).plusSeconds(59)));
+        assertTrue(manager.isMinuteFree(day.plusHours(10).plusMinutes(11)));
+
+        manager.removeTaskById(first.getId());
+        assertFalse(manager.isMinuteFree(day.plusHours(10)), "Минуту 10:00 всё ещё задевает вторая задача");
+        assertTrue(manager.isMinuteFree(day.plusHours(9).plusMinutes(59)));
+        assertEquals(60 + 11, manager.getTimeline(day.toLocalDate(), day.toLocalDate()).get(0).getBookedMinutes());
+
+        Task shorter = new Task("Ночь", "Описание", Status.NEW, Duration.ofMinutes(30), day.plusHours(23));
+        shorter.setId(night.getId());
+        manager.updateTask(shorter);
+        timeline = manager.getTimeline(day.toLocalDate(), day.toLocalDate().plusDays(1));
+        assertEquals(30 + 11, timeline.get(0).getBookedMinutes());
+        assertEquals(0, timeline.get(1).getBookedMinutes());
+        manager.removeTasks();
+        assertEquals(0, manager.getTimeline(day.toLocalDate(), day.toLocalDate()).get(0).getBookedMinutes());
+    }
+
+    @Test
+    void criticalPathShouldFollowLongestDependencyChain() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask last = new Subtask("Последняя", "Описание", Status.NEW, Duration.ofMinutes(30), null, epic.getId());
+        manager.createSubtask(last);
+        Subtask middle = new Subtask("Средняя", "Описание", Status.NEW, Duration.ofHours(2), null, epic.getId());
+        manager.createSubtask(middle);
+        Subtask first = new Subtask("Первая", "Описание", Status.NEW, Duration.ofHours(1), null, epic.getId());
+        manager.createSubtask(first);
+        Task external = new Task("Внешняя", "Описание", Status.NEW, Duration.ofHours(4), null);
+        manager.createTask(external);
+
+        manager.addDependency(last.getId(), external.getId());
+        manager.addDependency(middle.getId(), first.getId());
+        manager.addDependency(last.getId(), middle.getId());
+
+        CriticalPath path = manager.getCriticalPath(epic.getId());
+        assertEquals(Duration.ofMinutes(270), path.getLength());
+        assertEquals(List.of(external.getId(), last.getId()), path.getPath());
+        assertEquals(List.of(first.getId(), middle.getId(), last.getId()), path.getOrder());
+
+        Subtask longer = new Subtask("Первая", "Описание", Status.NEW, Duration.ofHours(4), null, epic.getId());
+        longer.setId(first.getId());
+        manager.updateSubtask(longer);
+        path = manager.getCriticalPath(epic.getId());
+        assertEquals(Duration.ofMinutes(390), path.getLength());
+        assertEquals(List.of(first.getId(), middle.getId(), last.getId()), path.getPath());
+
+        manager.removeSubtaskById(middle.getId());
+        path = manager.getCriticalPath(epic.getId());
+        assertEquals(Duration.ofMinutes(270), path.getLength());
+        assertEquals(List.of(external.getId()), manager.getDependencies(last.getId()));
+        assertNull(manager.getCriticalPath(external.getId()));
+    }
+
+    @Test
+    void addDependencyShouldRejectCyclesAndUnknownItems() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task a = new Task("A", "Описание", Status.NEW);
+        Task b = new Task("B", "Описание", Status.NEW);
+        Task c = new Task("C", "Описание", Status.NEW);
+        manager.createTask(a);
+        manager.createTask(b);
+        manager.createTask(c);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+
+        manager.addDependency(b.getId(), a.getId());
+        manager.addDependency(c.getId(), b.getId());
+        assertThrows(DependencyCycleException.class, () -> manager.addDependency(a.getId(), c.getId()));
+        assertThrows(DependencyCycleException.class, () -> manager.addDependency(a.getId(), a.getId()));
+        assertTrue(manager.getDependencies(a.getId()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> manager.addDependency(a.getId(), epic.getId()));
+        assertThrows(IllegalArgumentException.class, () -> manager.addDependency(a.getId(), 999));
+
+        manager.removeDependency(c.getId(), b.getId());
+        manager.addDependency(a.getId(), c.getId());
+        assertEquals(List.of(c.getId()), manager.getDependencies(a.getId()));
+    }
+
+    @Test
+    void listenersShouldReceiveEventsWithBeforeAndAfterState() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        TaskEventListener listener = batches::add;
+        manager.addListener(listener);
+
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        manager.createTask(task);
+        Task updated = new Task("Задача", "Описание", Status.DONE);
+        updated.setId(task.getId());
+        manager.updateTask(updated);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        manager.updateEpic(withId(new Epic("Новый эпик", "Описание"), epic.getId()));
+
+        assertEquals(4, batches.size());
+        TaskEvent created = batches.get(0).get(0);
+        assertEquals(TaskEvent.Kind.CREATED, created.getKind());
+        assertEquals(TaskType.TASK, created.getType());
+        assertNull(created.getBefore());
+        TaskEvent update = batches.get(1).get(0);
+        assertEquals(TaskEvent.Kind.UPDATED, update.getKind());
+        assertSame(task, update.getBefore());
+        assertSame(updated, update.getAfter());
+        assertEquals("Эпик", batches.get(3).get(0).getBefore().getName());
+        assertEquals("Новый эпик", batches.get(3).get(0).getAfter().getName());
+
+        // Пакет и каскадное удаление приходят одной пачкой
+        batches.clear();
+        manager.runBatch(() -> {
+            manager.createSubtask(new Subtask("Первая", "Описание", Status.NEW, epic.getId()));
+            manager.createSubtask(new Subtask("Вторая", "Описание", Status.NEW, epic.getId()));
+        });
+        manager.removeEpicById(epic.getId());
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(List.of(TaskEvent.Kind.REMOVED, TaskEvent.Kind.REMOVED, TaskEvent.Kind.REMOVED),
+                batches.get(1).stream().map(TaskEvent::getKind).collect(Collectors.toList()));
+        assertEquals(epic.getId(), batches.get(1).get(2).getId());
+
+        manager.removeListener(listener);
+        manager.removeTaskById(task.getId());
+        assertEquals(2, batches.size());
+    }
+
+    @Test
+    void repeatedNamesShouldShareOneStringInstance() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic epic = new Epic("Релиз", "Шаблон");
+        manager.createEpic(epic);
+        for (int i = 0; i < 5; i++) {
+            manager.createSubtask(new Subtask(new String("Код-ревью"), new String("Шаблон"), Status.NEW, epic.getId()));
+        }
+
+        List<Subtask> subtasks = manager.getSubtasks();
+        for (Subtask subtask : subtasks) {
+            assertSame(subtasks.get(0).getName(), subtask.getName());
+            assertSame(epic.getDescription(), subtask.getDescription());
+        }
+        assertEquals(3, manager.getStringPool().size());
+        assertEquals(3, manager.getStringPool().getMisses());
+        assertEquals(9, manager.getStringPool().getHits());
+    }
+
+    @Test
+    void updateIfVersionShouldRejectStaleVersions() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        manager.createTask(task);
+        assertEquals(1, task.getVersion());
+
+        Task first = withId(new Task("Первый редактор", "Описание", Status.IN_PROGRESS), task.getId());
+        assertEquals(2, manager.updateIfVersion(first, 1));
+        assertEquals(2, manager.findById(task.getId()).getVersion());
+
+        Task second = withId(new Task("Второй редактор", "Описание", Status.DONE), task.getId());
+        assertEquals(-1, manager.updateIfVersion(second, 1), "Версия 1 уже устарела");
+        assertEquals("Первый редактор", manager.findById(task.getId()).getName());
+        assertEquals(-1, manager.updateIfVersion(withId(new Task("Нет", "", Status.NEW), 99), 1));
+
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        long epicVersion = epic.getVersion();
+        manager.createSubtask(new Subtask("Подзадача", "Описание", Status.DONE, epic.getId()));
+        assertTrue(epic.getVersion() > epicVersion, "Новая подзадача меняет статус и версию эпика");
+        long stored = manager.updateIfVersion(withId(new Epic("Новое имя", "Описание"), epic.getId()), epic.getVersion());
+        assertEquals(epic.getVersion(), stored);
+        assertEquals("Новое имя", manager.getEpicById(epic.getId()).getName());
+    }
+
+    @Test
+    void replacedEpicShouldKeepStatusCountsOfItsSubtasks() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask first = new Subtask("Первая", "Описание", Status.NEW, epic.getId());
+        Subtask second = new Subtask("Вторая", "Описание", Status.NEW, epic.getId());
+        manager.createSubtask(first);
+        manager.createSubtask(second);
+
+        Epic replacement = withId(new Epic("Эпик", "Новое описание"), epic.getId());
+        replacement.addSubtaskId(first.getId());
+        replacement.addSubtaskId(second.getId());
+        manager.createEpic(replacement);
+        manager.updateSubtask(withId(new Subtask("Первая", "Описание", Status.DONE, epic.getId()), first.getId()));
+
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(epic.getId()).getStatus());
+    }
+
+    private static <T extends Task> T withId(T item, int id) {
+        item.setId(id);
+        return item;
+    }
+
+    private static List<Integer> ids(List<? extends Task> items) {
+        return items.stream().map(Task::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,75 @@
+package manager;
+
+import managers.OffHeapTaskStore;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTaskStoreTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    @Test
+    void shouldReadFieldsWithoutMaterializing() {
+        OffHeapTaskStore store = new OffHeapTaskStore(4);
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        epic.setId(1);
+        Subtask subtask = new Subtask("Подзадача", null, Status.DONE, Duration.ofMinutes(45), START, 1);
+        subtask.setId(2);
+        store.put(epic);
+        store.put(subtask);
+
+        assertEquals(TaskType.SUBTASK, store.getType(2));
+        assertEquals("Подзадача", store.getName(2));
+        assertNull(store.getDescription(2));
+        assertEquals(Status.DONE, store.getStatus(2));
+        assertEquals(1, store.getEpicId(2));
+        assertEquals(Duration.ofMinutes(45), store.getDuration(2));
+        assertEquals(START, store.getStartTime(2));
+        assertThrows(IllegalArgumentException.class, () -> store.getName(3));
+
+        Task materialized = store.get(1);
+        assertEquals(Epic.class, materialized.getClass());
+        assertEquals("Описание эпика", materialized.getDescription());
+
+        store.setStatus(1, Status.DONE);
+        store.setVersion(1, 5);
+        assertEquals(Status.DONE, store.getStatus(1));
+        assertEquals(5, store.getVersion(1));
+        assertEquals("Эпик", store.getName(1));
+    }
+
+    @Test
+    void shouldKeepStringsAcrossCompactionAndGrowth() {
+        OffHeapTaskStore store = new OffHeapTaskStore(16);
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(300) + 1;
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(id) != null, store.remove(id));
+            } else {
+                String name = "Задача " + "x".repeat(random.nextInt(40)) + i;
+                Task task = new Task(name, random.nextBoolean() ? null : "Описание " + i, Status.NEW);
+                task.setId(id);
+                store.put(task);
+                expected.put(id, name);
+            }
+            assertEquals(expected.size(), store.size());
+        }
+        for (int id = 1; id <= 300; id++) {
+            assertEquals(expected.get(id), store.contains(id) ? store.getName(id) : null);
+        }
+    }
+}
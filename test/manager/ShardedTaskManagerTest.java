@@ -0,0 +1,153 @@
+package manager;
+
+import exception.TaskOverlapException;
+import managers.ShardedTaskManager;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedTaskManagerTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Test
+    void shouldKeepSubtasksWithEpicAndMergeListsAcrossShards() {
+        ShardedTaskManager manager = new ShardedTaskManager(4);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        Subtask first = new Subtask("Первая", "Описание", Status.NEW, Duration.ofHours(1), START.plusHours(2),
+                epic.getId());
+        Subtask second = new Subtask("Вторая", "Описание", Status.DONE, Duration.ofHours(1), START,
+                epic.getId());
+        manager.createSubtask(first);
+        manager.createSubtask(second);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task("Задача " + i, "Описание", Status.NEW, Duration.ofMinutes(30),
+                    START.plusHours(4 + i));
+            manager.createTask(task);
+            tasks.add(task);
+        }
+
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+        assertEquals(START, epic.getStartTime());
+        assertEquals(tasks, manager.getTasks());
+        assertEquals(List.of(first, second), manager.getSubtasksByEpicId(epic.getId()));
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(7, prioritized.size());
+        assertEquals(second, prioritized.get(0));
+        assertEquals(first, prioritized.get(1));
+        assertEquals(prioritized.subList(3, 5), manager.getPrioritizedTasks(prioritized.get(2).getId(), 2));
+        assertEquals(List.of(tasks.get(1), tasks.get(2)), manager.getTasks(tasks.get(0).getId(), 2));
+
+        // Пересечение проверяется по всем шардам, а не только по шарду новой задачи
+        for (int i = 0; i < 4; i++) {
+            Task overlapping = new Task("Пересекается", "Описание", Status.NEW, Duration.ofMinutes(30),
+                    START.plusMinutes(30));
+            assertThrows(TaskOverlapException.class, () -> manager.createTask(overlapping));
+        }
+        assertEquals(7, manager.getPrioritizedTasks().size());
+
+        manager.getById(first.getId());
+        manager.removeEpicById(epic.getId());
+        assertTrue(manager.getSubtasks().isEmpty());
+        assertTrue(manager.getHistory().isEmpty());
+        assertEquals(5, manager.getPrioritizedTasks().size());
+        assertTrue(manager.isMinuteFree(START));
+    }
+
+    @Test
+    void subtaskMovedToEpicOnAnotherShardShouldKeepIndexesAndDependencies() {
+        ShardedTaskManager manager = new ShardedTaskManager(2);
+        Epic source = new Epic("Исходный", "Описание");
+        manager.createEpic(source);
+        Epic target = new Epic("Целевой", "Описание");
+        manager.createEpic(target);
+        Subtask subtask = new Subtask("Плитка", "Описание", Status.DONE, Duration.ofHours(1), START,
+                source.getId());
+        manager.createSubtask(subtask);
+        Task before = new Task("Раньше", "Описание", Status.NEW, Duration.ofHours(2), null);
+        manager.createTask(before);
+        manager.addDependency(subtask.getId(), before.getId());
+
+        Subtask moved = new Subtask("Плитка", "Описание", Status.DONE, Duration.ofHours(1), START,
+                target.getId());
+        moved.setId(subtask.getId());
+        manager.updateSubtask(moved);
+
+        assertTrue(manager.getSubtasksByEpicId(source.getId()).isEmpty());
+        assertEquals(List.of(moved), manager.getSubtasksByEpicId(target.getId()));
+        assertEquals(Status.DONE, target.getStatus());
+        assertEquals(List.of(moved), manager.search("плитка", 10));
+        assertEquals(List.of(before.getId()), manager.getDependencies(moved.getId()));
+        assertEquals(Duration.ofHours(3), manager.getCriticalPath(target.getId()).getLength());
+        assertEquals(List.of(moved), manager.getPrioritizedTasks());
+    }
+
+    @Test
+    void versionShouldKeepGrowingWhenSubtaskMovesToAnotherShard() {
+        ShardedTaskManager manager = new ShardedTaskManager(2);
+        Epic source = new Epic("Исходный", "Описание");
+        manager.createEpic(source);
+        Epic target = new Epic("Целевой", "Описание");
+        manager.createEpic(target);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, source.getId());
+        manager.createSubtask(subtask);
+        long version = subtask.getVersion();
+
+        Subtask moved = new Subtask("Подзадача", "Описание", Status.DONE, target.getId());
+        moved.setId(subtask.getId());
+        assertEquals(version + 1, manager.updateIfVersion(moved, version));
+        assertEquals(version + 1, manager.findById(subtask.getId()).getVersion());
+        assertEquals(-1, manager.updateIfVersion(moved, version));
+    }
+
+    @Test
+    void concurrentWritersShouldNeverCreateOverlappingTasks() throws Exception {
+        ShardedTaskManager manager = new ShardedTaskManager(4);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger created = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    Task task = new Task("Задача", "Описание", Status.NEW, Duration.ofMinutes(30),
+                            START.plusMinutes(15L * i));
+                    try {
+                        manager.createTask(task);
+                        created.incrementAndGet();
+                    } catch (TaskOverlapException e) {
+                        // Слот уже занят другим потоком
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(created.get(), prioritized.size());
+        assertEquals(created.get(), manager.getTasks().size());
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertFalse(prioritized.get(i).getStartTime().isBefore(prioritized.get(i - 1).calculateEndTime()),
+                    "Задачи " + prioritized.get(i - 1).getId() + " и " + prioritized.get(i).getId() + " пересекаются");
+        }
+        assertEquals(manager.getTasks().stream().map(Task::getId).sorted().collect(Collectors.toList()),
+                manager.getTasks().stream().map(Task::getId).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,117 @@
+package manager;
+
+import managers.TimeIntervalIndex;
+import org.junit.jupiter.api.Test;
+import tasks.Status;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeIntervalIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    // Те же ответы, что у перебора всех сохранённых интервалов, в том числе для времени с наносекундами
+    @Test
+    void shouldMatchBruteForceUnderRandomOperations() {
+        TimeIntervalIndex index = new TimeIntervalIndex();
+        Map<Integer, Task> stored = new HashMap<>();
+        Random random = new Random(5);
+
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(200) + 1;
+            Task task = randomTask(random, id);
+            if (random.nextInt(3) == 0) {
+                index.remove(id);
+                stored.remove(id);
+            } else if (!overlapsAny(stored, task)) {
+                assertFalse(index.overlaps(task), "Шаг " + step);
+                index.add(task);
+                stored.put(id, task);
+            } else {
+                assertTrue(index.overlaps(task), "Шаг " + step);
+            }
+            assertEquals(stored.size(), index.size());
+
+            LocalDateTime notBefore = time(random);
+            Duration duration = Duration.ofSeconds(random.nextInt(3_000));
+            LocalDateTime slot = index.findFreeSlot(notBefore, duration);
+            assertFalse(slot.isBefore(notBefore));
+            assertFalse(overlapsAny(stored, interval(0, slot, duration)), "Шаг " + step);
+
+            LocalDateTime minute = time(random);
+            assertEquals(minuteBusy(stored, minute), index.isMinuteBusy(minute), "Шаг " + step);
+        }
+
+        List<LocalDateTime> packed = index.pack(START, List.of(Duration.ofMinutes(5), Duration.ofMinutes(45)));
+        assertFalse(overlapsAny(stored, interval(0, packed.get(0), Duration.ofMinutes(5))));
+        assertFalse(overlapsAny(stored, interval(0, packed.get(1), Duration.ofMinutes(45))));
+        assertFalse(packed.get(1).isBefore(packed.get(0).plusMinutes(5)));
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertFalse(index.isMinuteBusy(START));
+    }
+
+    // Минуту, которую делят несколько задач, освобождает только удаление последней из них
+    @Test
+    void sharedBoundaryMinuteShouldStayBusyUntilLastTaskIsRemoved() {
+        TimeIntervalIndex index = new TimeIntervalIndex();
+        LocalDateTime boundary = START.plusHours(1).plusSeconds(30);
+        index.add(interval(1, START, Duration.between(START, boundary)));
+        index.add(interval(2, boundary, Duration.ofSeconds(10)));
+        index.add(interval(3, boundary.plusSeconds(10), Duration.ofMinutes(30)));
+
+        index.remove(1);
+        assertTrue(index.isMinuteBusy(boundary), "Минуту 10:00 задевают ещё две задачи");
+        assertFalse(index.isMinuteBusy(START));
+        index.remove(3);
+        assertTrue(index.isMinuteBusy(boundary));
+        assertFalse(index.isMinuteBusy(boundary.plusMinutes(1)));
+        index.remove(2);
+        assertFalse(index.isMinuteBusy(boundary));
+        assertEquals(0, index.occupancy(START.toLocalDate(), START.toLocalDate()).get(0).getBookedMinutes());
+    }
+
+    private static Task randomTask(Random random, int id) {
+        Duration duration = random.nextInt(10) == 0 ? Duration.ZERO
+                : Duration.ofSeconds(random.nextInt(5_400), random.nextInt(3) == 0 ? random.nextInt(1_000_000_000) : 0);
+        return interval(id, time(random), duration);
+    }
+
+    private static LocalDateTime time(Random random) {
+        LocalDateTime time = START.plusSeconds(random.nextInt(3 * 24 * 3600));
+        return random.nextInt(3) == 0 ? time.plusNanos(random.nextInt(1_000_000_000)) : time;
+    }
+
+    private static Task interval(int id, LocalDateTime start, Duration duration) {
+        Task task = new Task("Задача " + id, null, Status.NEW, duration, start);
+        task.setId(id);
+        return task;
+    }
+
+    private static boolean overlapsAny(Map<Integer, Task> stored, Task task) {
+        return stored.values().stream().anyMatch(other -> other.getId() != task.getId()
+                && task.getStartTime().isBefore(other.calculateEndTime())
+                && other.getStartTime().isBefore(task.calculateEndTime()));
+    }
+
+    // Минута занята, если её задевает хотя бы одна задача, в том числе нулевой длины внутри минуты
+    private static boolean minuteBusy(Map<Integer, Task> stored, LocalDateTime time) {
+        LocalDateTime minute = time.withSecond(0).withNano(0);
+        return stored.values().stream().anyMatch(task -> {
+            LocalDateTime start = task.getStartTime();
+            LocalDateTime end = task.calculateEndTime();
+            if (start.equals(end)) {
+                return !start.isBefore(minute) && start.isBefore(minute.plusMinutes(1)) && !start.equals(minute);
+            }
+            return start.isBefore(minute.plusMinutes(1)) && minute.isBefore(end);
+        });
+    }
+}
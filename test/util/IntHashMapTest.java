@@ -0,0 +1,61 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashMapTest {
+
+    @Test
+    void shouldBehaveLikeHashMap() {
+        IntHashMap<String> map = new IntHashMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(2_000) - 100;
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.remove(key), map.remove(key));
+                case 1 -> assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+                default -> assertEquals(expected.get(key), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (int key = -100; key < 1_900; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        List<String> values = new ArrayList<>(map.values());
+        assertEquals(expected.size(), values.size());
+        assertTrue(values.containsAll(expected.values()));
+    }
+
+    @Test
+    void sequentialIdsShouldBeIteratedInAscendingOrder() {
+        IntHashMap<Integer> map = new IntHashMap<>();
+        for (int id = 1; id <= 100; id++) {
+            map.put(id, id);
+        }
+        map.remove(50);
+
+        List<Integer> values = new ArrayList<>();
+        map.forEachValue(values::add);
+
+        assertEquals(99, values.size());
+        for (int i = 1; i < values.size(); i++) {
+            assertTrue(values.get(i - 1) < values.get(i));
+        }
+    }
+
+    @Test
+    void shouldRejectNullValues() {
+        IntHashMap<String> map = new IntHashMap<>();
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+    }
+}
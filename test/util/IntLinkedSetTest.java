@@ -0,0 +1,69 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntLinkedSetTest {
+
+    @Test
+    void shouldKeepInsertionOrderAfterRemovals() {
+        IntLinkedSet set = new IntLinkedSet();
+        set.add(5);
+        set.add(1);
+        set.add(3);
+        set.add(7);
+
+        assertFalse(set.add(3), "Повторное добавление не должно менять множество");
+        assertTrue(set.remove(1));
+        assertFalse(set.remove(1));
+        set.add(1);
+
+        assertArrayEquals(new int[]{5, 3, 7, 1}, set.toArray());
+        assertEquals("[5, 3, 7, 1]", set.toString());
+        assertEquals(4, set.size());
+        assertTrue(set.contains(7));
+        assertFalse(set.contains(2));
+    }
+
+    @Test
+    void shouldBehaveLikeLinkedHashSet() {
+        IntLinkedSet set = new IntLinkedSet();
+        Set<Integer> expected = new LinkedHashSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(500) - 50;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+
+        List<Integer> actual = new ArrayList<>();
+        set.forEach(actual::add);
+        assertEquals(new ArrayList<>(expected), actual);
+
+        List<Integer> iterated = new ArrayList<>();
+        set.iterator().forEachRemaining((int value) -> iterated.add(value));
+        assertEquals(actual, iterated);
+
+        if (!actual.isEmpty()) {
+            List<Integer> tail = new ArrayList<>();
+            set.iteratorAfter(actual.get(0)).forEachRemaining((int value) -> tail.add(value));
+            assertEquals(actual.subList(1, actual.size()), tail);
+        }
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertArrayEquals(new int[0], set.toArray());
+    }
+}
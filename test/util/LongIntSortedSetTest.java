@@ -0,0 +1,83 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntSortedSetTest {
+    private static final Comparator<long[]> ORDER = Comparator.<long[]>comparingLong(pair -> pair[0])
+            .thenComparingLong(pair -> pair[1]);
+
+    @Test
+    void shouldIterateByKeyThenByValue() {
+        LongIntSortedSet set = new LongIntSortedSet();
+        set.add(20, 1);
+        set.add(10, 7);
+        set.add(10, 3);
+        set.add(30, 2);
+
+        assertFalse(set.add(10, 3), "Повторное добавление не должно менять множество");
+        assertEquals(List.of(3, 7, 1, 2), values(set.valuesFrom(Long.MIN_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE)));
+        assertEquals(List.of(7, 1), values(set.valuesFrom(10, 4, 30)));
+        assertTrue(set.remove(10, 7));
+        assertFalse(set.remove(10, 7));
+        assertFalse(set.contains(10, 7));
+        assertEquals(List.of(1), values(set.valuesFrom(10, 4, 30)));
+        assertEquals(3, set.size());
+        assertEquals(10, set.firstKey());
+        assertEquals(30, set.lastKey());
+        set.clear();
+        assertThrows(NoSuchElementException.class, set::firstKey);
+    }
+
+    @Test
+    void shouldBehaveLikeTreeSetOfPairs() {
+        LongIntSortedSet set = new LongIntSortedSet();
+        NavigableSet<long[]> expected = new TreeSet<>(ORDER);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 30_000; i++) {
+            long key = random.nextInt(2_000);
+            int value = random.nextInt(50) - 10;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(new long[]{key, value}), set.remove(key, value));
+            } else {
+                assertEquals(expected.add(new long[]{key, value}), set.add(key, value));
+            }
+            assertEquals(expected.size(), set.size());
+            if (!expected.isEmpty()) {
+                assertEquals(expected.first()[0], set.firstKey());
+                assertEquals(expected.last()[0], set.lastKey());
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            long fromKey = random.nextInt(2_100) - 50;
+            int fromValue = random.nextInt(60) - 15;
+            long toKey = fromKey + random.nextInt(300);
+            List<Integer> expectedValues = new ArrayList<>();
+            for (long[] pair : expected.tailSet(new long[]{fromKey, fromValue}, true)) {
+                if (pair[0] >= toKey) {
+                    break;
+                }
+                expectedValues.add((int) pair[1]);
+            }
+            assertEquals(expectedValues, values(set.valuesFrom(fromKey, fromValue, toKey)));
+        }
+    }
+
+    private static List<Integer> values(PrimitiveIterator.OfInt iterator) {
+        List<Integer> result = new ArrayList<>();
+        iterator.forEachRemaining((int value) -> result.add(value));
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentSortedSetTest {
+
+    @Test
+    void shouldKeepOldVersionsUnchanged() {
+        PersistentSortedSet<Integer> empty = PersistentSortedSet.empty(Comparator.naturalOrder());
+        PersistentSortedSet<Integer> first = empty.with(2).with(1).with(3);
+        PersistentSortedSet<Integer> second = first.without(2).with(4);
+
+        assertTrue(empty.isEmpty());
+        assertEquals(List.of(1, 2, 3), first.asList());
+        assertEquals(List.of(1, 3, 4), second.asList());
+    }
+
+    @Test
+    void shouldReplaceEqualElement() {
+        PersistentSortedSet<String> set = PersistentSortedSet.<String>empty(String.CASE_INSENSITIVE_ORDER)
+                .with("a").with("A");
+
+        assertEquals(List.of("A"), set.asList());
+        assertSame(set, set.without("b"), "Удаление отсутствующего элемента не должно создавать новую версию");
+    }
+
+    @Test
+    void shouldReturnRangeView() {
+        PersistentSortedSet<Integer> set = PersistentSortedSet.empty(Comparator.naturalOrder());
+        for (int i = 0; i < 20; i += 2) {
+            set = set.with(i);
+        }
+
+        assertEquals(List.of(4, 6, 8), set.range(3, 10));
+        assertEquals(List.of(0, 2), set.range(null, 4));
+        assertEquals(List.of(16, 18), set.range(15, null));
+        assertTrue(set.range(5, 5).isEmpty());
+        assertEquals(8, set.range(3, 10).get(2));
+    }
+
+    @Test
+    void shouldMatchTreeSetOnRandomOperations() {
+        Random random = new Random(42);
+        TreeSet<Integer> expected = new TreeSet<>();
+        PersistentSortedSet<Integer> set = PersistentSortedSet.empty(Comparator.naturalOrder());
+        for (int i = 0; i < 5000; i++) {
+            int value = random.nextInt(500);
+            if (random.nextBoolean()) {
+                expected.add(value);
+                set = set.with(value);
+            } else {
+                expected.remove(value);
+                set = set.without(value);
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        assertEquals(new ArrayList<>(expected), set.asList());
+        assertEquals(new ArrayList<>(expected.subSet(100, 300)), set.range(100, 300));
+    }
+}
@@ -0,0 +1,25 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringInternerTest {
+
+    @Test
+    void shouldEvictLeastRecentlyUsedWhenFull() {
+        StringInterner interner = new StringInterner(2);
+        String qa = interner.intern("QA");
+        interner.intern("Код-ревью");
+        assertSame(qa, interner.intern(new String("QA")));
+        interner.intern("Шаблон");
+
+        assertEquals(2, interner.size());
+        assertSame(qa, interner.intern(new String("QA")), "Недавно использованная строка должна остаться");
+        String review = new String("Код-ревью");
+        assertSame(review, interner.intern(review), "Вытесненная строка заводится заново");
+        assertEquals(2, interner.getHits());
+        assertEquals(4, interner.getMisses());
+        assertNull(interner.intern(null));
+    }
+}
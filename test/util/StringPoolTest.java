@@ -0,0 +1,31 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringPoolTest {
+
+    @Test
+    void shouldReuseRefsAndFreeUnusedStrings() {
+        StringPool pool = new StringPool();
+        int first = pool.acquire("QA");
+        int second = pool.acquire(new String("QA"));
+        int other = pool.acquire("Код-ревью");
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        assertEquals(StringPool.NULL_REF, pool.acquire(null));
+        assertNull(pool.get(StringPool.NULL_REF));
+        assertEquals(2, pool.size());
+
+        pool.release(first);
+        assertEquals("QA", pool.get(second), "Строка нужна ещё одной записи");
+        pool.release(second);
+        assertEquals(1, pool.size());
+
+        int reused = pool.acquire("Шаблон");
+        assertEquals(first, reused, "Освобождённый номер должен переиспользоваться");
+        assertEquals("Шаблон", pool.get(reused));
+    }
+}